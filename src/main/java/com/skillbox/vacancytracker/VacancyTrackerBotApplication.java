@@ -1,28 +1,61 @@
 package com.skillbox.vacancytracker;
 
+import com.skillbox.vacancytracker.config.BackupConfig;
 import com.skillbox.vacancytracker.config.BotConfig;
 import com.skillbox.vacancytracker.config.ConfigurationManager;
+import com.skillbox.vacancytracker.config.HibernationConfig;
+import com.skillbox.vacancytracker.config.HistoryConfig;
+import com.skillbox.vacancytracker.config.MetricsConfig;
+import com.skillbox.vacancytracker.config.RetentionConfig;
+import com.skillbox.vacancytracker.config.StorageBackend;
 import com.skillbox.vacancytracker.presentation.BotCommand;
 import com.skillbox.vacancytracker.presentation.CommandDispatcher;
 import com.skillbox.vacancytracker.presentation.VacancyTrackerBot;
 import com.skillbox.vacancytracker.presentation.command.DefaultCommand;
 import com.skillbox.vacancytracker.presentation.command.StartCommand;
+import com.skillbox.vacancytracker.repository.ColdUserStore;
+import com.skillbox.vacancytracker.repository.DataBackup;
+import com.skillbox.vacancytracker.repository.DeduplicatedUserVacancyRepository;
+import com.skillbox.vacancytracker.repository.HashedSeenVacancyRepository;
+import com.skillbox.vacancytracker.repository.JsonSharedVacancyRepository;
 import com.skillbox.vacancytracker.repository.JsonUserRepository;
+import com.skillbox.vacancytracker.repository.JsonUserVacancyRepository;
 import com.skillbox.vacancytracker.repository.JsonVacancyRepository;
+import com.skillbox.vacancytracker.repository.LoggingRepositoryMetrics;
+import com.skillbox.vacancytracker.repository.MappedUserVacancyRepository;
+import com.skillbox.vacancytracker.repository.QueryWatermarkStore;
+import com.skillbox.vacancytracker.repository.RepositoryMetrics;
+import com.skillbox.vacancytracker.repository.SeenVacancyRepository;
+import com.skillbox.vacancytracker.repository.ShardedUserVacancyRepository;
+import com.skillbox.vacancytracker.repository.TieredUserVacancyRepository;
 import com.skillbox.vacancytracker.repository.UserRepository;
+import com.skillbox.vacancytracker.repository.UserVacancyRepository;
 import com.skillbox.vacancytracker.repository.VacancyRepository;
+import com.skillbox.vacancytracker.repository.jdbc.JdbcDatabase;
+import com.skillbox.vacancytracker.repository.jdbc.JdbcUserRepository;
+import com.skillbox.vacancytracker.repository.jdbc.JdbcUserVacancyRepository;
+import com.skillbox.vacancytracker.repository.jdbc.JdbcVacancyRepository;
+import com.skillbox.vacancytracker.repository.jdbc.JsonToJdbcImporter;
+import com.skillbox.vacancytracker.service.AsyncUserServiceImpl;
 import com.skillbox.vacancytracker.service.TrudvsemApiClient;
+import com.skillbox.vacancytracker.service.ScheduledTaskManager;
 import com.skillbox.vacancytracker.service.UserService;
 import com.skillbox.vacancytracker.service.UserServiceImpl;
 import com.skillbox.vacancytracker.service.VacancyApiClient;
+import com.skillbox.vacancytracker.service.VacancyTrackingService;
+import com.skillbox.vacancytracker.task.RetentionTask;
+import com.skillbox.vacancytracker.task.TieringTask;
 import com.skillbox.vacancytracker.util.DirectoryManager;
+import com.skillbox.vacancytracker.util.OrderedExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.telegram.telegrambots.client.okhttp.OkHttpTelegramClient;
 import org.telegram.telegrambots.longpolling.TelegramBotsLongPollingApplication;
 import org.telegram.telegrambots.meta.generics.TelegramClient;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.Executors;
 
 public class VacancyTrackerBotApplication {
     private static final Logger logger = LoggerFactory.getLogger(VacancyTrackerBotApplication.class);
@@ -49,23 +82,80 @@ public class VacancyTrackerBotApplication {
     
     private void run(BotConfig config) throws Exception {
         DirectoryManager.initializeDirectories(config.dataDirectory());
+        DataBackup.restoreIfRequested(config.dataDirectory());
         
-        UserRepository userRepository = new JsonUserRepository(config.dataDirectory());
-        VacancyRepository vacancyRepository = new JsonVacancyRepository(config.dataDirectory());
+        LoggingRepositoryMetrics repositoryMetrics = config.metrics().isEnabled() ? new LoggingRepositoryMetrics() : null;
+        RepositoryMetrics metrics = repositoryMetrics != null ? repositoryMetrics : RepositoryMetrics.NONE;
+        UserRepository userRepository;
+        VacancyRepository vacancyRepository;
+        UserVacancyRepository userVacancyRepository;
+        JdbcDatabase database = null;
+        if (config.storage().backend() == StorageBackend.H2) {
+            database = JdbcDatabase.openH2(config.dataDirectory());
+            JsonToJdbcImporter.importAll(config.dataDirectory(), config.storage(), database);
+            JdbcUserRepository jdbcUserRepository = new JdbcUserRepository(database);
+            JdbcVacancyRepository jdbcVacancyRepository = new JdbcVacancyRepository(database);
+            JdbcUserVacancyRepository jdbcUserVacancyRepository = new JdbcUserVacancyRepository(database);
+            jdbcUserRepository.setMetrics(metrics);
+            jdbcVacancyRepository.setMetrics(metrics);
+            jdbcUserVacancyRepository.setMetrics(metrics);
+            userRepository = jdbcUserRepository;
+            vacancyRepository = jdbcVacancyRepository;
+            userVacancyRepository = jdbcUserVacancyRepository;
+        } else {
+            JsonUserRepository jsonUserRepository = new JsonUserRepository(config.dataDirectory(), config.storage());
+            JsonVacancyRepository jsonVacancyRepository = new JsonVacancyRepository(config.dataDirectory(), config.storage());
+            jsonUserRepository.setMetrics(metrics);
+            jsonVacancyRepository.setMetrics(metrics);
+            userRepository = jsonUserRepository;
+            vacancyRepository = jsonVacancyRepository;
+            userVacancyRepository = createUserVacancyRepository(config, metrics);
+        }
         
-        UserService userService = new UserServiceImpl(userRepository);
+        ColdUserStore coldUserStore = new ColdUserStore(config.dataDirectory());
+        coldUserStore.setMetrics(metrics);
+        SeenVacancyRepository seenVacancyRepository = HashedSeenVacancyRepository.open(config.dataDirectory(),
+                userVacancyRepository);
         VacancyApiClient vacancyApiClient = new TrudvsemApiClient(config);
-        
         TelegramClient telegramClient = new OkHttpTelegramClient(config.botToken());
+        ScheduledTaskManager trackingTasks = new ScheduledTaskManager();
+        VacancyTrackingService trackingService = new VacancyTrackingService(userRepository, userVacancyRepository,
+                vacancyApiClient, trackingTasks, telegramClient, seenVacancyRepository, coldUserStore);
+        
+        QueryWatermarkStore watermarks = config.checkCycle().isEnabled() && config.checkCycle().isIncremental()
+                ? new QueryWatermarkStore(config.dataDirectory(),
+                        Duration.ofMinutes(config.checkCycle().watermarkOverlapMinutes()))
+                : null;
+        if (config.checkCycle().isEnabled()) {
+            trackingService.startCheckCycle(Duration.ofHours(config.checkCycle().intervalHours()),
+                    config.checkCycle().harvestRegions(), watermarks);
+        }
+        // After the cycle has started, so a running cycle replaces the per-user daily checks
+        trackingService.restartAllTasks();
+        
+        // Background jobs and queued writes finish before the repositories they write to are closed
+        ScheduledTaskManager maintenanceTasks = scheduleRetention(config.retention(), userVacancyRepository, userRepository);
+        scheduleBackup(maintenanceTasks, config.backup(), new DataBackup(config.backup(), userRepository,
+                vacancyRepository, userVacancyRepository, coldUserStore, seenVacancyRepository, watermarks));
+        scheduleHibernation(maintenanceTasks, config.hibernation(), trackingService);
+        scheduleTiering(maintenanceTasks, config.history(), userVacancyRepository, userRepository);
+        scheduleMetricsReport(maintenanceTasks, config.metrics(), repositoryMetrics);
+        OrderedExecutor ioExecutor = new OrderedExecutor("repository-io", config.storage().ioThreads());
+        registerShutdownHook(maintenanceTasks::shutdown, trackingTasks::shutdown, ioExecutor, seenVacancyRepository,
+                userRepository, vacancyRepository, userVacancyRepository, database);
+        
+        UserService userService = new UserServiceImpl(userRepository);
         
         List<BotCommand> commands = List.of(
-            new StartCommand(userService)
+            new StartCommand(userService, new AsyncUserServiceImpl(userService, ioExecutor))
         );
         BotCommand defaultCommand = new DefaultCommand();
         
         CommandDispatcher commandDispatcher = new CommandDispatcher(commands, defaultCommand);
         
-        VacancyTrackerBot bot = new VacancyTrackerBot(config, commandDispatcher, telegramClient);
+        // Interactions are recorded even with hibernation off, so users parked earlier still wake up
+        VacancyTrackerBot bot = new VacancyTrackerBot(config, commandDispatcher, telegramClient,
+                trackingService::recordInteraction);
         
         try (TelegramBotsLongPollingApplication botsApplication = new TelegramBotsLongPollingApplication()) {
             botsApplication.registerBot(config.botToken(), bot);
@@ -74,4 +164,91 @@ public class VacancyTrackerBotApplication {
             Thread.currentThread().join();
         }
     }
+    
+    // Every tier reports under its own file or directory name, so the history archive shows apart from the hot tier
+    private UserVacancyRepository createUserVacancyRepository(BotConfig config, RepositoryMetrics metrics) {
+        UserVacancyRepository records;
+        if (config.storage().backend() == StorageBackend.MAPPED) {
+            MappedUserVacancyRepository mapped = new MappedUserVacancyRepository(config.dataDirectory(), config.storage());
+            mapped.setMetrics(metrics);
+            records = mapped;
+        } else if (config.storage().isSharded()) {
+            ShardedUserVacancyRepository sharded = new ShardedUserVacancyRepository(config.dataDirectory(), config.storage());
+            sharded.setMetrics(metrics);
+            records = sharded;
+        } else {
+            JsonUserVacancyRepository single = new JsonUserVacancyRepository(config.dataDirectory(), config.storage());
+            single.setMetrics(metrics);
+            records = single;
+        }
+        if (config.storage().deduplicateVacancies()) {
+            JsonSharedVacancyRepository shared = new JsonSharedVacancyRepository(config.dataDirectory(), config.storage());
+            shared.setMetrics(metrics);
+            records = new DeduplicatedUserVacancyRepository(records, shared);
+        }
+        // Outermost, so archived records carry their vacancy and need nothing else to be read back
+        if (config.history().isEnabled()) {
+            TieredUserVacancyRepository tiered = new TieredUserVacancyRepository(records, config.dataDirectory());
+            tiered.setMetrics(metrics);
+            records = tiered;
+        }
+        return records;
+    }
+    
+    private ScheduledTaskManager scheduleRetention(RetentionConfig retention, UserVacancyRepository userVacancyRepository,
+                                                   UserRepository userRepository) {
+        ScheduledTaskManager maintenanceTasks = new ScheduledTaskManager(Executors.newSingleThreadScheduledExecutor());
+        if (retention.isEnabled()) {
+            maintenanceTasks.scheduleRetention(Duration.ofHours(retention.intervalHours()),
+                    new RetentionTask(userVacancyRepository, retention, userRepository));
+        }
+        return maintenanceTasks;
+    }
+    
+    private void scheduleBackup(ScheduledTaskManager maintenanceTasks, BackupConfig backup, DataBackup dataBackup) {
+        if (backup.isEnabled()) {
+            maintenanceTasks.scheduleBackup(Duration.ofHours(backup.intervalHours()), dataBackup::backup);
+        }
+    }
+    
+    private void scheduleHibernation(ScheduledTaskManager maintenanceTasks, HibernationConfig hibernation,
+                                     VacancyTrackingService trackingService) {
+        if (hibernation.isEnabled()) {
+            Duration idle = Duration.ofDays(hibernation.idleDays());
+            maintenanceTasks.scheduleHibernation(Duration.ofHours(hibernation.intervalHours()),
+                    () -> trackingService.hibernateIdleUsers(idle));
+        }
+    }
+    
+    private void scheduleTiering(ScheduledTaskManager maintenanceTasks, HistoryConfig history,
+                                 UserVacancyRepository userVacancyRepository, UserRepository userRepository) {
+        if (userVacancyRepository instanceof TieredUserVacancyRepository tiered) {
+            maintenanceTasks.scheduleTiering(Duration.ofHours(history.intervalHours()),
+                    new TieringTask(tiered, history.hotDays(), userRepository));
+        }
+    }
+    
+    private void scheduleMetricsReport(ScheduledTaskManager maintenanceTasks, MetricsConfig metricsConfig,
+                                       LoggingRepositoryMetrics repositoryMetrics) {
+        if (repositoryMetrics != null) {
+            maintenanceTasks.scheduleMetricsReport(Duration.ofMinutes(metricsConfig.logIntervalMinutes()),
+                    repositoryMetrics);
+        }
+    }
+    
+    private void registerShutdownHook(AutoCloseable... resources) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            logger.info("Flushing repositories before shutdown");
+            for (AutoCloseable resource : resources) {
+                if (resource == null) {
+                    continue;
+                }
+                try {
+                    resource.close();
+                } catch (Exception e) {
+                    logger.error("Failed to close repository", e);
+                }
+            }
+        }, "repository-shutdown"));
+    }
 }
\ No newline at end of file
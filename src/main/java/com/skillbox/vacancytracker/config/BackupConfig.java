@@ -0,0 +1,37 @@
+package com.skillbox.vacancytracker.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record BackupConfig(
+    @JsonProperty("interval_hours")
+    Integer intervalHours,
+
+    @JsonProperty("directory")
+    String directory,
+
+    @JsonProperty("keep")
+    Integer keep
+) {
+    public static final String DEFAULT_DIRECTORY = "backups";
+    public static final int DEFAULT_KEEP = 7;
+    
+    public BackupConfig {
+        if (intervalHours != null && intervalHours <= 0) {
+            intervalHours = null;
+        }
+        if (directory == null || directory.isBlank()) {
+            directory = DEFAULT_DIRECTORY;
+        }
+        if (keep == null || keep <= 0) {
+            keep = DEFAULT_KEEP;
+        }
+    }
+    
+    public static BackupConfig disabled() {
+        return new BackupConfig(null, null, null);
+    }
+    
+    public boolean isEnabled() {
+        return intervalHours != null;
+    }
+}
\ No newline at end of file
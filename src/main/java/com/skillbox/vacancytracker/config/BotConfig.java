@@ -17,11 +17,65 @@ public record BotConfig(
     String vacancyApiUrl,
     
     @JsonProperty("data_directory")
-    String dataDirectory
+    String dataDirectory,
+    
+    @JsonProperty("storage")
+    StorageConfig storage,
+    
+    @JsonProperty("retention")
+    RetentionConfig retention,
+    
+    @JsonProperty("backup")
+    BackupConfig backup,
+    
+    @JsonProperty("hibernation")
+    HibernationConfig hibernation,
+    
+    @JsonProperty("history")
+    HistoryConfig history,
+    
+    @JsonProperty("metrics")
+    MetricsConfig metrics,
+    
+    @JsonProperty("check_cycle")
+    CheckCycleConfig checkCycle,
+    
+    @JsonProperty("api_page_parallelism")
+    Integer apiPageParallelism
 ) {
+    public static final int DEFAULT_API_PAGE_PARALLELISM = 4;
+    
     public BotConfig {
         if (dataDirectory == null || dataDirectory.isBlank()) {
             dataDirectory = "data";
         }
+        if (storage == null) {
+            storage = StorageConfig.defaults();
+        }
+        if (retention == null) {
+            retention = RetentionConfig.disabled();
+        }
+        if (backup == null) {
+            backup = BackupConfig.disabled();
+        }
+        if (hibernation == null) {
+            hibernation = HibernationConfig.disabled();
+        }
+        if (history == null) {
+            history = HistoryConfig.disabled();
+        }
+        if (metrics == null) {
+            metrics = MetricsConfig.disabled();
+        }
+        if (checkCycle == null) {
+            checkCycle = CheckCycleConfig.disabled();
+        }
+        if (apiPageParallelism == null || apiPageParallelism <= 0) {
+            apiPageParallelism = DEFAULT_API_PAGE_PARALLELISM;
+        }
+    }
+    
+    public BotConfig(String botToken, String botName, String vacancyApiUrl, String dataDirectory) {
+        this(botToken, botName, vacancyApiUrl, dataDirectory, null, null, null, null, null, null, null, null);
     }
 }
\ No newline at end of file
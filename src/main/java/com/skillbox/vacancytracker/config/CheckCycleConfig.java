@@ -0,0 +1,47 @@
+package com.skillbox.vacancytracker.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record CheckCycleConfig(
+    @JsonProperty("interval_hours")
+    Integer intervalHours,
+    
+    @JsonProperty("harvest_regions")
+    Boolean harvestRegions,
+    
+    @JsonProperty("incremental")
+    Boolean incremental,
+    
+    @JsonProperty("watermark_overlap_minutes")
+    Integer watermarkOverlapMinutes
+) {
+    public static final int DEFAULT_WATERMARK_OVERLAP_MINUTES = 10;
+    
+    public CheckCycleConfig {
+        if (intervalHours != null && intervalHours <= 0) {
+            intervalHours = null;
+        }
+        if (harvestRegions == null) {
+            harvestRegions = false;
+        }
+        // Setting an overlap alone still turns incremental polling on, as it did before the flag existed
+        if (incremental == null) {
+            incremental = watermarkOverlapMinutes != null && watermarkOverlapMinutes > 0;
+        }
+        if (watermarkOverlapMinutes == null || watermarkOverlapMinutes <= 0) {
+            watermarkOverlapMinutes = DEFAULT_WATERMARK_OVERLAP_MINUTES;
+        }
+    }
+    
+    public static CheckCycleConfig disabled() {
+        return new CheckCycleConfig(null, null, null, null);
+    }
+    
+    public boolean isEnabled() {
+        return intervalHours != null;
+    }
+    
+    public boolean isIncremental() {
+        return incremental;
+    }
+}
\ No newline at end of file
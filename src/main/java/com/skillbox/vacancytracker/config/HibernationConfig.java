@@ -0,0 +1,30 @@
+package com.skillbox.vacancytracker.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record HibernationConfig(
+    @JsonProperty("idle_days")
+    Integer idleDays,
+
+    @JsonProperty("interval_hours")
+    Integer intervalHours
+) {
+    public static final int DEFAULT_INTERVAL_HOURS = 24;
+    
+    public HibernationConfig {
+        if (idleDays != null && idleDays <= 0) {
+            idleDays = null;
+        }
+        if (intervalHours == null || intervalHours <= 0) {
+            intervalHours = DEFAULT_INTERVAL_HOURS;
+        }
+    }
+    
+    public static HibernationConfig disabled() {
+        return new HibernationConfig(null, null);
+    }
+    
+    public boolean isEnabled() {
+        return idleDays != null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.skillbox.vacancytracker.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record HistoryConfig(
+    @JsonProperty("hot_days")
+    Integer hotDays,
+
+    @JsonProperty("interval_hours")
+    Integer intervalHours
+) {
+    public static final int DEFAULT_INTERVAL_HOURS = 24;
+    
+    public HistoryConfig {
+        if (hotDays != null && hotDays <= 0) {
+            hotDays = null;
+        }
+        if (intervalHours == null || intervalHours <= 0) {
+            intervalHours = DEFAULT_INTERVAL_HOURS;
+        }
+    }
+    
+    public static HistoryConfig disabled() {
+        return new HistoryConfig(null, null);
+    }
+    
+    public boolean isEnabled() {
+        return hotDays != null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.skillbox.vacancytracker.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record MetricsConfig(
+    @JsonProperty("log_interval_minutes")
+    Integer logIntervalMinutes
+) {
+    public MetricsConfig {
+        if (logIntervalMinutes != null && logIntervalMinutes <= 0) {
+            logIntervalMinutes = null;
+        }
+    }
+    
+    public static MetricsConfig disabled() {
+        return new MetricsConfig(null);
+    }
+    
+    public boolean isEnabled() {
+        return logIntervalMinutes != null;
+    }
+}
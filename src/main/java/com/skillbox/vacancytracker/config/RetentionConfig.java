@@ -0,0 +1,36 @@
+package com.skillbox.vacancytracker.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record RetentionConfig(
+    @JsonProperty("interval_hours")
+    Integer intervalHours,
+
+    @JsonProperty("notified_max_age_days")
+    Integer notifiedMaxAgeDays,
+
+    @JsonProperty("max_per_user")
+    Integer maxPerUser
+) {
+    public static final int DEFAULT_INTERVAL_HOURS = 24;
+    
+    public RetentionConfig {
+        if (intervalHours == null || intervalHours <= 0) {
+            intervalHours = DEFAULT_INTERVAL_HOURS;
+        }
+        if (notifiedMaxAgeDays != null && notifiedMaxAgeDays <= 0) {
+            notifiedMaxAgeDays = null;
+        }
+        if (maxPerUser != null && maxPerUser <= 0) {
+            maxPerUser = null;
+        }
+    }
+    
+    public static RetentionConfig disabled() {
+        return new RetentionConfig(null, null, null);
+    }
+    
+    public boolean isEnabled() {
+        return notifiedMaxAgeDays != null || maxPerUser != null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.skillbox.vacancytracker.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public enum StorageBackend {
+    @JsonProperty("json")
+    JSON,
+    
+    @JsonProperty("h2")
+    H2,
+    
+    // User vacancies in a memory-mapped record log; users and vacancies stay in JSON files
+    @JsonProperty("mapped")
+    MAPPED
+}
\ No newline at end of file
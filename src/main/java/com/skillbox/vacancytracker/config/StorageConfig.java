@@ -0,0 +1,126 @@
+package com.skillbox.vacancytracker.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record StorageConfig(
+    @JsonProperty("mode")
+    StorageMode mode,
+
+    @JsonProperty("flush_interval_seconds")
+    Integer flushIntervalSeconds,
+
+    @JsonProperty("flush_dirty_threshold")
+    Integer flushDirtyThreshold,
+
+    @JsonProperty("compaction_interval_seconds")
+    Integer compactionIntervalSeconds,
+
+    @JsonProperty("compaction_journal_threshold")
+    Integer compactionJournalThreshold,
+
+    @JsonProperty("user_vacancy_shards")
+    Integer userVacancyShards,
+
+    @JsonProperty("backend")
+    StorageBackend backend,
+
+    @JsonProperty("deduplicate_vacancies")
+    Boolean deduplicateVacancies,
+
+    @JsonProperty("format")
+    StorageFormat format,
+
+    @JsonProperty("io_threads")
+    Integer ioThreads
+) {
+    public static final int DEFAULT_FLUSH_INTERVAL_SECONDS = 5;
+    public static final int DEFAULT_FLUSH_DIRTY_THRESHOLD = 500;
+    public static final int DEFAULT_COMPACTION_INTERVAL_SECONDS = 600;
+    public static final int DEFAULT_COMPACTION_JOURNAL_THRESHOLD = 10_000;
+    public static final int DEFAULT_IO_THREADS = 4;
+    
+    public StorageConfig {
+        if (mode == null) {
+            mode = StorageMode.FILE;
+        }
+        if (flushIntervalSeconds == null || flushIntervalSeconds <= 0) {
+            flushIntervalSeconds = DEFAULT_FLUSH_INTERVAL_SECONDS;
+        }
+        if (flushDirtyThreshold == null || flushDirtyThreshold <= 0) {
+            flushDirtyThreshold = DEFAULT_FLUSH_DIRTY_THRESHOLD;
+        }
+        if (compactionIntervalSeconds == null || compactionIntervalSeconds <= 0) {
+            compactionIntervalSeconds = DEFAULT_COMPACTION_INTERVAL_SECONDS;
+        }
+        if (compactionJournalThreshold == null || compactionJournalThreshold <= 0) {
+            compactionJournalThreshold = DEFAULT_COMPACTION_JOURNAL_THRESHOLD;
+        }
+        if (userVacancyShards == null || userVacancyShards <= 0) {
+            userVacancyShards = 1;
+        }
+        if (backend == null) {
+            backend = StorageBackend.JSON;
+        }
+        if (deduplicateVacancies == null) {
+            deduplicateVacancies = false;
+        }
+        if (format == null) {
+            format = StorageFormat.JSON;
+        }
+        if (ioThreads == null || ioThreads <= 0) {
+            ioThreads = DEFAULT_IO_THREADS;
+        }
+    }
+    
+    public static StorageConfig defaults() {
+        return new StorageConfig(null, null, null, null, null, null, null, null, null, null);
+    }
+    
+    public static StorageConfig writeBehind(int flushIntervalSeconds, int flushDirtyThreshold) {
+        return new StorageConfig(StorageMode.WRITE_BEHIND, flushIntervalSeconds, flushDirtyThreshold,
+                null, null, null, null, null, null, null);
+    }
+    
+    public static StorageConfig journal(int compactionIntervalSeconds, int compactionJournalThreshold) {
+        return new StorageConfig(StorageMode.JOURNAL, null, null,
+                compactionIntervalSeconds, compactionJournalThreshold, null, null, null, null, null);
+    }
+    
+    public StorageConfig withUserVacancyShards(int shards) {
+        return new StorageConfig(mode, flushIntervalSeconds, flushDirtyThreshold,
+                compactionIntervalSeconds, compactionJournalThreshold, shards, backend, deduplicateVacancies,
+                format, ioThreads);
+    }
+    
+    public StorageConfig withBackend(StorageBackend backend) {
+        return new StorageConfig(mode, flushIntervalSeconds, flushDirtyThreshold,
+                compactionIntervalSeconds, compactionJournalThreshold, userVacancyShards, backend, deduplicateVacancies,
+                format, ioThreads);
+    }
+    
+    public StorageConfig withDeduplicatedVacancies(boolean deduplicate) {
+        return new StorageConfig(mode, flushIntervalSeconds, flushDirtyThreshold,
+                compactionIntervalSeconds, compactionJournalThreshold, userVacancyShards, backend, deduplicate,
+                format, ioThreads);
+    }
+    
+    public StorageConfig withFormat(StorageFormat format) {
+        return new StorageConfig(mode, flushIntervalSeconds, flushDirtyThreshold,
+                compactionIntervalSeconds, compactionJournalThreshold, userVacancyShards, backend, deduplicateVacancies,
+                format, ioThreads);
+    }
+    
+    public StorageConfig withIoThreads(int ioThreads) {
+        return new StorageConfig(mode, flushIntervalSeconds, flushDirtyThreshold,
+                compactionIntervalSeconds, compactionJournalThreshold, userVacancyShards, backend, deduplicateVacancies,
+                format, ioThreads);
+    }
+    
+    public boolean isSharded() {
+        return userVacancyShards > 1;
+    }
+    
+    public boolean isMemoryResident() {
+        return mode != StorageMode.FILE;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.skillbox.vacancytracker.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public enum StorageFormat {
+    @JsonProperty("json")
+    JSON,
+    
+    @JsonProperty("smile")
+    SMILE,
+    
+    @JsonProperty("cbor")
+    CBOR
+}
\ No newline at end of file
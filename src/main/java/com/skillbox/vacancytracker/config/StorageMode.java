@@ -0,0 +1,14 @@
+package com.skillbox.vacancytracker.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public enum StorageMode {
+    @JsonProperty("file")
+    FILE,
+    
+    @JsonProperty("write_behind")
+    WRITE_BEHIND,
+    
+    @JsonProperty("journal")
+    JOURNAL
+}
\ No newline at end of file
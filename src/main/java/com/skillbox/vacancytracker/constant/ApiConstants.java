@@ -15,9 +15,15 @@ public final class ApiConstants {
     public static final String JSON_RESULTS = "results";
     public static final String JSON_VACANCIES = "vacancies";
     public static final String JSON_VACANCY = "vacancy";
+    public static final String JSON_META = "meta";
+    public static final String JSON_TOTAL = "total";
     
     public static final int DEFAULT_LIMIT = 100;
     public static final int MAX_API_LIMIT = 100;
+    // Upper bound for paging through one search, in case the API keeps returning full pages
+    public static final int MAX_PAGES = 500;
+    // Default for a single user's or group's search; only region harvesting walks a result set up to MAX_PAGES
+    public static final int MAX_QUERY_PAGES = 10;
     
     private ApiConstants() {
     }
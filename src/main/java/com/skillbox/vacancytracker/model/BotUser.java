@@ -3,6 +3,7 @@ package com.skillbox.vacancytracker.model;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotNull;
 
+import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.Objects;
 
@@ -36,6 +37,17 @@ public class BotUser {
     @JsonProperty("is_active")
     private boolean active;
     
+    // Every vacancy record up to this sequence has been delivered
+    @JsonProperty("notified_sequence")
+    private long notifiedSequence;
+    
+    @JsonProperty("last_interaction_at")
+    private LocalDateTime lastInteractionAt;
+    
+    // Tasks are descheduled and vacancy data lives in cold storage until the user writes to the bot again
+    @JsonProperty("hibernated")
+    private boolean hibernated;
+    
     public BotUser() {
         this.timezoneOffset = ZoneOffset.UTC;
         this.active = true;
@@ -120,6 +132,45 @@ public class BotUser {
         this.active = active;
     }
     
+    public long getNotifiedSequence() {
+        return notifiedSequence;
+    }
+    
+    public void setNotifiedSequence(long notifiedSequence) {
+        this.notifiedSequence = notifiedSequence;
+    }
+    
+    public LocalDateTime getLastInteractionAt() {
+        return lastInteractionAt;
+    }
+    
+    public void setLastInteractionAt(LocalDateTime lastInteractionAt) {
+        this.lastInteractionAt = lastInteractionAt;
+    }
+    
+    public boolean isHibernated() {
+        return hibernated;
+    }
+    
+    public void setHibernated(boolean hibernated) {
+        this.hibernated = hibernated;
+    }
+    
+    public BotUser copy() {
+        BotUser copy = new BotUser(userId, chatId);
+        copy.username = username;
+        copy.firstName = firstName;
+        copy.lastName = lastName;
+        copy.timezoneOffset = timezoneOffset;
+        copy.searchCriteria = searchCriteria != null ? searchCriteria.copy() : null;
+        copy.notificationTime = notificationTime;
+        copy.active = active;
+        copy.notifiedSequence = notifiedSequence;
+        copy.lastInteractionAt = lastInteractionAt;
+        copy.hibernated = hibernated;
+        return copy;
+    }
+    
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,7 +1,9 @@
 package com.skillbox.vacancytracker.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.time.LocalDateTime;
 import java.util.Objects;
 
 public class SearchCriteria {
@@ -17,6 +19,10 @@ public class SearchCriteria {
     @JsonProperty("keyword")
     private String keyword;
     
+    // Set only on API queries built for incremental polling; never stored and not part of equality
+    @JsonIgnore
+    private LocalDateTime modifiedSince;
+    
     public SearchCriteria() {
         // Default values as per specification
     }
@@ -53,6 +59,24 @@ public class SearchCriteria {
         this.keyword = keyword;
     }
     
+    public LocalDateTime getModifiedSince() {
+        return modifiedSince;
+    }
+    
+    public void setModifiedSince(LocalDateTime modifiedSince) {
+        this.modifiedSince = modifiedSince;
+    }
+    
+    public SearchCriteria copy() {
+        SearchCriteria copy = new SearchCriteria();
+        copy.regionCode = regionCode;
+        copy.minimumExperience = minimumExperience;
+        copy.minimumSalary = minimumSalary;
+        copy.keyword = keyword;
+        copy.modifiedSince = modifiedSince;
+        return copy;
+    }
+    
     public boolean isEmpty() {
         return regionCode == null && minimumExperience == null && 
                minimumSalary == null && (keyword == null || keyword.trim().isEmpty());
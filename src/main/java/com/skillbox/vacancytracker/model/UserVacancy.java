@@ -1,6 +1,7 @@
 package com.skillbox.vacancytracker.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.skillbox.vacancytracker.util.MonotonicSequence;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
@@ -27,6 +28,12 @@ public class UserVacancy {
     @JsonProperty("is_new")
     private boolean isNew;
     
+    // Increases with every record stored, so a single per-user watermark can tell delivered records from new ones.
+    // Taken by the repository under its write lock when the record is first saved: a record that became readable
+    // later always carries a higher number, so a digest can never acknowledge past a record it has not seen.
+    @JsonProperty("sequence")
+    private Long sequence;
+    
     public UserVacancy() {
         this.foundAt = LocalDateTime.now();
         this.isNew = true;
@@ -96,6 +103,46 @@ public class UserVacancy {
         this.isNew = isNew;
     }
     
+    public Long getSequence() {
+        return sequence;
+    }
+    
+    public void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+    
+    // Only for repositories, while holding their write lock; a re-saved record keeps the number it was stored with
+    public void assignSequence(UserVacancy previous) {
+        if (sequence == null) {
+            sequence = previous != null ? previous.sequence : MonotonicSequence.next();
+        }
+    }
+    
+    // Records stored before sequences existed are placed by their found date on the same scale
+    public long effectiveSequence() {
+        if (sequence != null) {
+            return sequence;
+        }
+        return foundAt != null ? MonotonicSequence.of(foundAt) : 0;
+    }
+    
+    public boolean isNewSince(long notifiedSequence) {
+        return isNew && effectiveSequence() > notifiedSequence;
+    }
+    
+    public UserVacancy withVacancy(Vacancy vacancy) {
+        UserVacancy copy = new UserVacancy();
+        copy.id = id;
+        copy.userId = userId;
+        copy.vacancyId = vacancyId;
+        copy.vacancy = vacancy;
+        copy.foundAt = foundAt;
+        copy.notifiedAt = notifiedAt;
+        copy.isNew = isNew;
+        copy.sequence = sequence;
+        return copy;
+    }
+    
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
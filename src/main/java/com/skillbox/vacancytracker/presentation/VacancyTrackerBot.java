@@ -9,17 +9,27 @@ import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.generics.TelegramClient;
 
+import java.util.function.Consumer;
+
 public class VacancyTrackerBot implements LongPollingSingleThreadUpdateConsumer {
     private static final Logger logger = LoggerFactory.getLogger(VacancyTrackerBot.class);
     
     private final BotConfig config;
     private final CommandDispatcher commandDispatcher;
     private final TelegramClient telegramClient;
+    private final Consumer<Long> interactionListener;
     
     public VacancyTrackerBot(BotConfig config, CommandDispatcher commandDispatcher, TelegramClient telegramClient) {
+        this(config, commandDispatcher, telegramClient, null);
+    }
+    
+    // The listener sees every user before their command is dispatched, so it can wake hibernated users first
+    public VacancyTrackerBot(BotConfig config, CommandDispatcher commandDispatcher, TelegramClient telegramClient,
+                             Consumer<Long> interactionListener) {
         this.config = config;
         this.commandDispatcher = commandDispatcher;
         this.telegramClient = telegramClient;
+        this.interactionListener = interactionListener;
         logger.info("VacancyTrackerBot initialized");
     }
     
@@ -33,6 +43,7 @@ public class VacancyTrackerBot implements LongPollingSingleThreadUpdateConsumer
             
             UserMessage userMessage = UserMessage.fromUpdate(update);
             logger.debug("Processing message from user {}: {}", userMessage.userId(), userMessage.text());
+            notifyInteraction(userMessage.userId());
             
             SendMessage response = commandDispatcher.dispatch(userMessage);
             
@@ -46,6 +57,18 @@ public class VacancyTrackerBot implements LongPollingSingleThreadUpdateConsumer
         }
     }
     
+    // A failure here must not cost the user their reply
+    private void notifyInteraction(Long userId) {
+        if (interactionListener == null) {
+            return;
+        }
+        try {
+            interactionListener.accept(userId);
+        } catch (Exception e) {
+            logger.error("Failed to record interaction of user {}", userId, e);
+        }
+    }
+    
     private boolean isValidUpdate(Update update) {
         return (update.hasMessage() && update.getMessage().hasText()) || 
                update.hasCallbackQuery();
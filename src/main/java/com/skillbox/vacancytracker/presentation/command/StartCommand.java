@@ -3,6 +3,7 @@ package com.skillbox.vacancytracker.presentation.command;
 import com.skillbox.vacancytracker.model.BotUser;
 import com.skillbox.vacancytracker.presentation.BotCommand;
 import com.skillbox.vacancytracker.presentation.dto.UserMessage;
+import com.skillbox.vacancytracker.service.AsyncUserService;
 import com.skillbox.vacancytracker.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,9 +13,18 @@ public class StartCommand implements BotCommand {
     private static final Logger logger = LoggerFactory.getLogger(StartCommand.class);
     
     private final UserService userService;
+    private final AsyncUserService asyncUserService;
     
     public StartCommand(UserService userService) {
+        this(userService, null);
+    }
+    
+    // With an async service the welcome message goes out without waiting for the new user to be written.
+    // Lookups stay synchronous: they are quick reads, and joining the lane would park the update thread behind
+    // whatever is queued there. A repeated /start racing the first save only writes the same new user again.
+    public StartCommand(UserService userService, AsyncUserService asyncUserService) {
         this.userService = userService;
+        this.asyncUserService = asyncUserService;
     }
     
     @Override
@@ -40,7 +50,15 @@ public class StartCommand implements BotCommand {
         user.setLastName(message.lastName());
         user.setUsername(message.username());
         
-        userService.save(user);
+        if (asyncUserService == null) {
+            userService.save(user);
+        } else {
+            asyncUserService.save(user).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    logger.error("Failed to save new user {}", user.getUserId(), error);
+                }
+            });
+        }
         logger.info("Created new user: {}", user.getUserId());
         
         return user;
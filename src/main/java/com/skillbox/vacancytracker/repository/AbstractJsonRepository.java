@@ -1,7 +1,12 @@
 package com.skillbox.vacancytracker.repository;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillbox.vacancytracker.config.StorageConfig;
+import com.skillbox.vacancytracker.config.StorageMode;
 import com.skillbox.vacancytracker.exception.RepositoryException;
 import com.skillbox.vacancytracker.util.JsonMapper;
 import org.slf4j.Logger;
@@ -9,14 +14,35 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public abstract class AbstractJsonRepository<T, ID> implements Repository<T, ID> {
     private static final Logger logger = LoggerFactory.getLogger(AbstractJsonRepository.class);
@@ -26,9 +52,30 @@ public abstract class AbstractJsonRepository<T, ID> implements Repository<T, ID>
     protected final TypeReference<Map<String, T>> typeReference;
     protected final ReadWriteLock lock = new ReentrantReadWriteLock();
     
+    private final StorageConfig storageConfig;
+    private final AtomicInteger dirtyCount = new AtomicInteger();
+    private final AtomicBoolean maintenanceRequested = new AtomicBoolean();
+    private final Object flushMonitor = new Object();
+    // Memory-resident modes publish an immutable map once a write has gone through; readers take it without locking
+    private volatile Map<String, T> snapshot;
+    // The writers' view, guarded by the write lock; it runs ahead of the snapshot while a journal append is in flight
+    private Map<String, T> latest;
+    private long latestVersion;
+    private long publishedVersion;
+    private final Object publishMonitor = new Object();
+    private ChangeJournal journal;
+    private ScheduledExecutorService maintenanceExecutor;
+    private volatile RepositoryMetrics metrics = RepositoryMetrics.NONE;
+    
     protected AbstractJsonRepository(String dataDirectory, String fileName, TypeReference<Map<String, T>> typeReference) {
+        this(dataDirectory, fileName, typeReference, StorageConfig.defaults());
+    }
+    
+    protected AbstractJsonRepository(String dataDirectory, String fileName, TypeReference<Map<String, T>> typeReference,
+                                     StorageConfig storageConfig) {
         this.objectMapper = JsonMapper.getInstance();
         this.typeReference = typeReference;
+        this.storageConfig = storageConfig;
         
         try {
             Path dataPath = Path.of(dataDirectory);
@@ -41,84 +88,613 @@ public abstract class AbstractJsonRepository<T, ID> implements Repository<T, ID>
         } catch (IOException e) {
             throw new RepositoryException("Failed to initialize repository: " + e.getMessage(), e);
         }
+        
+        if (storageConfig.isMemoryResident()) {
+            Map<String, T> loaded = loadDataFromFile();
+            if (storageConfig.mode() == StorageMode.JOURNAL) {
+                this.journal = new ChangeJournal(dataFile.toPath(), objectMapper);
+                journal.replay(loaded, entityType());
+            }
+            this.snapshot = Collections.unmodifiableMap(loaded);
+            this.latest = snapshot;
+            startMaintenanceExecutor();
+        }
+    }
+    
+    // Measurements are reported under the data file name; the current size is published straight away
+    public void setMetrics(RepositoryMetrics metrics) {
+        this.metrics = metrics;
+        Map<String, T> current = snapshot;
+        if (current != null) {
+            metrics.recordFile(dataFile.getName(), dataFile.length(), current.size());
+        }
     }
     
     @Override
     public Optional<T> findById(ID id) {
+        return read("findById", data -> Optional.ofNullable(data.get(String.valueOf(id))).map(this::handOut));
+    }
+    
+    @Override
+    public boolean exists(ID id) {
+        return findById(id).isPresent();
+    }
+    
+    @Override
+    public void save(T entity) {
+        applyChanges(List.of(), Collections.singletonList(entity));
+        logger.debug("Entity saved: {}", entity);
+    }
+    
+    @Override
+    public void delete(ID id) {
+        if (applyChanges(Collections.singletonList(id), List.of()) > 0) {
+            logger.debug("Entity deleted with id: {}", id);
+        }
+    }
+    
+    @Override
+    public void saveAll(Collection<? extends T> entities) {
+        if (!entities.isEmpty()) {
+            applyChanges(List.of(), entities);
+            logger.debug("Saved {} entities", entities.size());
+        }
+    }
+    
+    @Override
+    public void deleteAll(Collection<? extends ID> ids) {
+        if (!ids.isEmpty()) {
+            int deleted = applyChanges(ids, List.of());
+            logger.debug("Deleted {} entities", deleted);
+        }
+    }
+    
+    @Override
+    public List<T> findAll() {
+        return read("findAll", data -> data.values().stream().map(this::handOut).toList());
+    }
+    
+    // File mode parses the data file incrementally, so only the entity being visited is ever materialized
+    @Override
+    public Stream<T> stream() {
+        if (storageConfig.isMemoryResident()) {
+            return snapshot.values().stream().map(this::copyOf);
+        }
+        
+        long requested = System.nanoTime();
         lock.readLock().lock();
+        long acquired = System.nanoTime();
         try {
-            Map<String, T> data = loadDataFromFile();
-            T entity = data.get(String.valueOf(id));
-            return Optional.ofNullable(entity);
-        } finally {
+            if (!dataFile.exists() || dataFile.length() == 0) {
+                lock.readLock().unlock();
+                metrics.recordLock(dataFile.getName(), acquired - requested, System.nanoTime() - acquired);
+                return Stream.empty();
+            }
+            ObjectMapper mapper = StorageCodec.mapper(StorageCodec.detect(dataFile.toPath()));
+            metrics.recordRead(dataFile.getName(), dataFile.length());
+            EntityCursor cursor = new EntityCursor(mapper, mapper.createParser(dataFile), requested, acquired);
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (IOException e) {
             lock.readLock().unlock();
+            metrics.recordLock(dataFile.getName(), acquired - requested, System.nanoTime() - acquired);
+            logger.error("Failed to load data from file: {}", dataFile.getAbsolutePath(), e);
+            throw new RepositoryException("Failed to load data from file: " + e.getMessage(), e);
         }
     }
     
     @Override
-    public boolean exists(ID id) {
-        return findById(id).isPresent();
+    public void flush() {
+        if (storageConfig.mode() != StorageMode.WRITE_BEHIND) {
+            return;
+        }
+        
+        synchronized (flushMonitor) {
+            maintenanceRequested.set(false);
+            // Writers publish before counting, so every change counted here is already in the snapshot read below
+            int flushedChanges = dirtyCount.getAndSet(0);
+            if (flushedChanges == 0) {
+                return;
+            }
+            
+            long started = System.nanoTime();
+            try {
+                metrics.recordWrite(dataFile.getName(), flushedChanges, saveDataToFile(snapshot));
+                metrics.recordOperation(dataFile.getName(), "flush", System.nanoTime() - started);
+                logger.debug("Flushed {} buffered changes to {}", flushedChanges, dataFile.getName());
+            } catch (RepositoryException e) {
+                dirtyCount.addAndGet(flushedChanges);
+                throw e;
+            }
+        }
     }
     
     @Override
-    public void save(T entity) {
+    public long storageBytes() {
+        return dataFile.length() + (journal != null ? journal.sizeBytes() : 0);
+    }
+    
+    // File mode already rewrites the whole file on every change, so there is nothing to fold
+    @Override
+    public void compact() {
+        switch (storageConfig.mode()) {
+            case JOURNAL -> compactJournal();
+            case WRITE_BEHIND -> flush();
+            default -> {
+            }
+        }
+    }
+    
+    @Override
+    public void close() {
+        if (maintenanceExecutor == null || maintenanceExecutor.isShutdown()) {
+            return;
+        }
+        
+        maintenanceExecutor.shutdown();
+        try {
+            if (!maintenanceExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                maintenanceExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            maintenanceExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        
+        if (journal != null) {
+            compactJournal();
+            journal.close();
+        } else {
+            flush();
+        }
+        logger.info("Repository {} closed", dataFile.getName());
+    }
+    
+    protected abstract ID getId(T entity);
+    
+    // Invoked under the write lock in every mode, just before the entity replaces previous (null for an insert)
+    protected void beforeSave(T previous, T entity) {
+    }
+    
+    // Invoked under the write lock in memory-resident modes once the write has been accepted, before the new
+    // snapshot is published, so subclasses can keep secondary indexes in step
+    protected void onSaved(String key, T previous, T entity) {
+    }
+    
+    protected void onDeleted(String key, T removed) {
+    }
+    
+    // Deletions are applied before saves, all under one lock acquisition and persisted as a single write.
+    // The write lock only serializes writers; in memory-resident modes readers keep using the previous snapshot
+    // until the write has gone through, and a journal write is only shown to them once it is durable.
+    protected int applyChanges(Collection<? extends ID> deletions, Collection<? extends T> saves) {
+        return completeWrite(stageChanges(deletions, saves));
+    }
+    
+    // First half of applyChanges, for writers that work out their changes under the write lock themselves: it
+    // applies the changes to the writers' view and starts the write. The caller releases the lock and then calls
+    // completeWrite, so the wait for a journal append never holds other writers out of the same group commit.
+    protected PendingWrite stageChanges(Collection<? extends ID> deletions, Collection<? extends T> saves) {
+        PendingWrite pending = new PendingWrite(deletions.size(), saves.size());
         lock.writeLock().lock();
+        long acquired = System.nanoTime();
         try {
-            Map<String, T> data = loadDataFromFile();
-            data.put(String.valueOf(getId(entity)), entity);
-            saveDataToFile(data);
-            logger.debug("Entity saved: {}", entity);
+            Map<String, T> data = isMemoryResident() ? new HashMap<>(latest) : loadDataFromFile();
+            for (ID id : deletions) {
+                String key = String.valueOf(id);
+                T removed = data.remove(key);
+                if (removed != null) {
+                    pending.changes.add(new Change<>(key, null));
+                    pending.replaced.add(removed);
+                }
+            }
+            for (T entity : saves) {
+                String key = String.valueOf(getId(entity));
+                beforeSave(data.get(key), entity);
+                T stored = isMemoryResident() ? copyOf(entity) : entity;
+                pending.changes.add(new Change<>(key, stored));
+                pending.replaced.add(data.put(key, stored));
+            }
+            if (!pending.changes.isEmpty()) {
+                pending.durable = writeData(data, pending.changes);
+                if (isMemoryResident()) {
+                    pending.published = Collections.unmodifiableMap(data);
+                    latest = pending.published;
+                    pending.version = ++latestVersion;
+                    for (int i = 0; i < pending.changes.size(); i++) {
+                        Change<T> change = pending.changes.get(i);
+                        if (change.entity() == null) {
+                            onDeleted(change.key(), pending.replaced.get(i));
+                        } else {
+                            onSaved(change.key(), pending.replaced.get(i), change.entity());
+                        }
+                    }
+                    if (pending.durable == null) {
+                        publish(pending.published, pending.version);
+                    }
+                }
+                if (storageConfig.mode() == StorageMode.WRITE_BEHIND) {
+                    markDirty(pending.changes.size());
+                }
+            }
         } finally {
             lock.writeLock().unlock();
+            metrics.recordLock(dataFile.getName(), acquired - pending.requested, System.nanoTime() - acquired);
         }
+        return pending;
     }
     
-    @Override
-    public void delete(ID id) {
+    // Second half of applyChanges; must be called without holding the write lock
+    protected int completeWrite(PendingWrite pending) {
+        if (pending.durable != null) {
+            try {
+                awaitDurable(pending.durable);
+            } catch (RepositoryException e) {
+                rollBack(pending);
+                throw e;
+            }
+            publish(pending.published, pending.version);
+        }
+        String operation = pending.saves == 0 ? "delete" : pending.deletions == 0 ? "save" : "write";
+        metrics.recordOperation(dataFile.getName(), operation, System.nanoTime() - pending.requested);
+        return pending.changes.size() - pending.saves;
+    }
+    
+    // The update gets the writers' current entity and must return a modified copy, or null to leave it as it is:
+    // the original may be shared with readers through the published snapshot
+    protected void updateAll(Collection<String> keys, UnaryOperator<T> update) {
+        PendingWrite pending = null;
         lock.writeLock().lock();
         try {
-            Map<String, T> data = loadDataFromFile();
-            T removed = data.remove(String.valueOf(id));
-            if (removed != null) {
-                saveDataToFile(data);
-                logger.debug("Entity deleted with id: {}", id);
+            Map<String, T> data = isMemoryResident() ? latest : loadDataFromFile();
+            List<T> updated = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                T entity = data.get(key);
+                T replacement = entity != null ? update.apply(entity) : null;
+                if (replacement != null) {
+                    updated.add(replacement);
+                }
+            }
+            if (!updated.isEmpty()) {
+                pending = stageChanges(List.of(), updated);
             }
         } finally {
             lock.writeLock().unlock();
         }
+        if (pending != null) {
+            completeWrite(pending);
+        }
     }
     
-    @Override
-    public List<T> findAll() {
+    protected List<T> findAllByKeys(Collection<String> keys) {
+        return read("findByKeys", data -> {
+            List<T> result = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                T entity = data.get(key);
+                if (entity != null) {
+                    result.add(handOut(entity));
+                }
+            }
+            return result;
+        });
+    }
+    
+    // Memory-resident modes share stored entities with every reader; a repository whose callers modify what they
+    // read hands out copies and stores one on save, so nothing reaches readers before it is saved
+    protected T copyOf(T entity) {
+        return entity;
+    }
+    
+    protected boolean isMemoryResident() {
+        return storageConfig.isMemoryResident();
+    }
+    
+    // File mode parses fresh entities on every read
+    private T handOut(T entity) {
+        return isMemoryResident() ? copyOf(entity) : entity;
+    }
+    
+    // File mode still reads under the lock because file-mode writes rewrite the data file in place
+    private <R> R read(String operation, Function<Map<String, T>, R> reader) {
+        long requested = System.nanoTime();
+        if (storageConfig.isMemoryResident()) {
+            R result = reader.apply(snapshot);
+            metrics.recordOperation(dataFile.getName(), operation, System.nanoTime() - requested);
+            return result;
+        }
         lock.readLock().lock();
+        long acquired = System.nanoTime();
         try {
-            Map<String, T> data = loadDataFromFile();
-            return List.copyOf(data.values());
+            return reader.apply(loadDataFromFile());
         } finally {
             lock.readLock().unlock();
+            long released = System.nanoTime();
+            metrics.recordLock(dataFile.getName(), acquired - requested, released - acquired);
+            metrics.recordOperation(dataFile.getName(), operation, released - requested);
         }
     }
     
-    protected abstract ID getId(T entity);
+    // Journal appends complete asynchronously: group commits finish in order, but their callers may wake out of order,
+    // so an older map never replaces a newer one
+    private void publish(Map<String, T> data, long version) {
+        synchronized (publishMonitor) {
+            if (version > publishedVersion) {
+                snapshot = data;
+                publishedVersion = version;
+            }
+        }
+    }
+    
+    // Counted only after publishing, so a flush that sees the count also sees the change
+    private void markDirty(int changes) {
+        if (dirtyCount.addAndGet(changes) >= storageConfig.flushDirtyThreshold()) {
+            requestMaintenance(this::flush);
+        }
+    }
+    
+    private CompletableFuture<Long> writeData(Map<String, T> data, List<Change<T>> changes) {
+        switch (storageConfig.mode()) {
+            case WRITE_BEHIND -> {
+                return null;
+            }
+            case JOURNAL -> {
+                List<String> lines = changes.stream()
+                        .map(change -> change.entity() == null
+                                ? journal.deleteLine(change.key())
+                                : journal.upsertLine(change.key(), change.entity()))
+                        .toList();
+                // Counted as characters plus newline; journal lines are JSON and almost always ASCII
+                metrics.recordWrite(dataFile.getName(), changes.size(),
+                        lines.stream().mapToLong(line -> line.length() + 1L).sum());
+                CompletableFuture<Long> durable = journal.append(lines);
+                if (journal.entriesSinceRotation() >= storageConfig.compactionJournalThreshold()) {
+                    requestMaintenance(this::compactJournal);
+                }
+                return durable;
+            }
+            default -> {
+                metrics.recordWrite(dataFile.getName(), changes.size(), saveDataToFile(data));
+                return null;
+            }
+        }
+    }
+    
+    private void awaitDurable(CompletableFuture<Long> durable) {
+        if (durable == null) {
+            return;
+        }
+        try {
+            durable.join();
+        } catch (CompletionException e) {
+            throw new RepositoryException("Failed to save data to file: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+    
+    // Snapshot plus journal always replay to the same state, so a crash between these steps loses nothing
+    private void compactJournal() {
+        synchronized (flushMonitor) {
+            maintenanceRequested.set(false);
+            Map<String, T> compacted;
+            CompletableFuture<Long> rotation;
+            
+            // Held only so no writer appends between taking the writers' view and sealing the segment; that view
+            // already holds appends still in flight, which the sealed segment would otherwise take with it
+            long requested = System.nanoTime();
+            lock.writeLock().lock();
+            long acquired = System.nanoTime();
+            try {
+                compacted = latest;
+                rotation = journal.rotate();
+            } finally {
+                lock.writeLock().unlock();
+                metrics.recordLock(dataFile.getName(), acquired - requested, System.nanoTime() - acquired);
+            }
+            
+            long sealedSegment = rotation.join();
+            // Rewriting the snapshot changes no records, so all of it counts towards write amplification
+            metrics.recordWrite(dataFile.getName(), 0, saveDataToFile(compacted));
+            journal.deleteSegmentsUpTo(sealedSegment);
+            metrics.recordOperation(dataFile.getName(), "compact", System.nanoTime() - requested);
+            logger.debug("Compacted journal of {} into a snapshot of {} records", dataFile.getName(), compacted.size());
+        }
+    }
+    
+    private void requestMaintenance(Runnable action) {
+        if (!maintenanceExecutor.isShutdown() && maintenanceRequested.compareAndSet(false, true)) {
+            maintenanceExecutor.execute(() -> runQuietly(action));
+        }
+    }
+    
+    private void startMaintenanceExecutor() {
+        maintenanceExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "repository-maintenance-" + dataFile.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        if (storageConfig.mode() == StorageMode.WRITE_BEHIND) {
+            long interval = storageConfig.flushIntervalSeconds();
+            maintenanceExecutor.scheduleWithFixedDelay(() -> runQuietly(this::flush), interval, interval, TimeUnit.SECONDS);
+            logger.info("Write-behind enabled for {}: flush every {}s or {} changes",
+                    dataFile.getName(), interval, storageConfig.flushDirtyThreshold());
+        } else {
+            long interval = storageConfig.compactionIntervalSeconds();
+            maintenanceExecutor.scheduleWithFixedDelay(() -> runQuietly(this::compactJournal), interval, interval, TimeUnit.SECONDS);
+            logger.info("Journal enabled for {}: compaction every {}s or {} entries",
+                    dataFile.getName(), interval, storageConfig.compactionJournalThreshold());
+        }
+    }
+    
+    private void runQuietly(Runnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            logger.error("Background maintenance failed for {}", dataFile.getAbsolutePath(), e);
+        }
+    }
+    
+    private JavaType entityType() {
+        return objectMapper.getTypeFactory().constructType(typeReference).getContentType();
+    }
     
     private Map<String, T> loadDataFromFile() {
         try {
             if (!dataFile.exists() || dataFile.length() == 0) {
                 return new HashMap<>();
             }
-            return objectMapper.readValue(dataFile, typeReference);
+            byte[] content = Files.readAllBytes(dataFile.toPath());
+            Map<String, T> data = StorageCodec.mapper(StorageCodec.detect(content)).readValue(content, typeReference);
+            metrics.recordRead(dataFile.getName(), content.length);
+            metrics.recordFile(dataFile.getName(), content.length, data.size());
+            return data;
         } catch (IOException e) {
             logger.error("Failed to load data from file: {}", dataFile.getAbsolutePath(), e);
             throw new RepositoryException("Failed to load data from file: " + e.getMessage(), e);
         }
     }
     
-    private void saveDataToFile(Map<String, T> data) {
+    // Returns the number of bytes written
+    private long saveDataToFile(Map<String, T> data) {
         try {
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(dataFile, data);
+            if (storageConfig.isMemoryResident()) {
+                writeAtomically(StorageCodec.writer(storageConfig.format()).writeValueAsBytes(data));
+            } else {
+                StorageCodec.writer(storageConfig.format()).writeValue(dataFile, data);
+            }
+            long bytes = dataFile.length();
+            metrics.recordFile(dataFile.getName(), bytes, data.size());
+            return bytes;
         } catch (IOException e) {
             logger.error("Failed to save data to file: {}", dataFile.getAbsolutePath(), e);
             throw new RepositoryException("Failed to save data to file: " + e.getMessage(), e);
         }
     }
+    
+    // Background writers must never leave a half-written file behind
+    private void writeAtomically(byte[] content) throws IOException {
+        Path tempFile = dataFile.toPath().resolveSibling(dataFile.getName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tempFile, dataFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    // The append failed after the writers' view took the changes. Readers never saw them, since the snapshot is only
+    // published once durable, but compaction would persist them; they are undone unless a later writer has already
+    // replaced them. Later appends in the same group commit fail with this one and roll back their own changes.
+    private void rollBack(PendingWrite pending) {
+        lock.writeLock().lock();
+        try {
+            Map<String, T> data = new HashMap<>(latest);
+            for (int i = pending.changes.size() - 1; i >= 0; i--) {
+                Change<T> change = pending.changes.get(i);
+                T previous = pending.replaced.get(i);
+                if (data.get(change.key()) != change.entity()) {
+                    continue;
+                }
+                if (previous == null) {
+                    data.remove(change.key());
+                    onDeleted(change.key(), change.entity());
+                } else {
+                    data.put(change.key(), previous);
+                    onSaved(change.key(), change.entity(), previous);
+                }
+            }
+            latest = Collections.unmodifiableMap(data);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private record Change<T>(String key, T entity) {
+    }
+    
+    // A write between stageChanges and completeWrite
+    protected final class PendingWrite {
+        private final long requested = System.nanoTime();
+        private final List<Change<T>> changes;
+        private final List<T> replaced;
+        private final int deletions;
+        private final int saves;
+        private CompletableFuture<Long> durable;
+        private Map<String, T> published;
+        private long version;
+        
+        private PendingWrite(int deletions, int saves) {
+            this.changes = new ArrayList<>(deletions + saves);
+            this.replaced = new ArrayList<>(deletions + saves);
+            this.deletions = deletions;
+            this.saves = saves;
+        }
+    }
+    
+    // Holds the read lock from creation until the stream is exhausted or closed, whichever comes first
+    private final class EntityCursor extends Spliterators.AbstractSpliterator<T> {
+        private final ObjectMapper mapper;
+        private final JsonParser parser;
+        private final JavaType type = entityType();
+        private final long lockRequested;
+        private final long lockAcquired;
+        private boolean released;
+        
+        private EntityCursor(ObjectMapper mapper, JsonParser parser, long lockRequested, long lockAcquired) throws IOException {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.mapper = mapper;
+            this.parser = parser;
+            this.lockRequested = lockRequested;
+            this.lockAcquired = lockAcquired;
+            try {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new IOException("Expected a JSON object in " + dataFile.getName());
+                }
+            } catch (IOException e) {
+                parser.close();
+                throw e;
+            }
+        }
+        
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (released) {
+                return false;
+            }
+            try {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    parser.nextToken();
+                    T entity = mapper.readValue(parser, type);
+                    if (entity != null) {
+                        action.accept(entity);
+                        return true;
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                logger.error("Failed to load data from file: {}", dataFile.getAbsolutePath(), e);
+                throw new RepositoryException("Failed to load data from file: " + e.getMessage(), e);
+            }
+            close();
+            return false;
+        }
+        
+        private void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            try {
+                parser.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close parser for {}", dataFile.getName(), e);
+            } finally {
+                lock.readLock().unlock();
+                long closed = System.nanoTime();
+                metrics.recordLock(dataFile.getName(), lockAcquired - lockRequested, closed - lockAcquired);
+                metrics.recordOperation(dataFile.getName(), "stream", closed - lockRequested);
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,305 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.skillbox.vacancytracker.exception.RepositoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+class ChangeJournal implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeJournal.class);
+    private static final String OP_UPSERT = "upsert";
+    private static final String OP_DELETE = "delete";
+    
+    private final Path directory;
+    private final String segmentPrefix;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger entriesSinceRotation = new AtomicInteger();
+    private final Thread committer;
+    private FileChannel channel;
+    private long currentSegment;
+    private volatile boolean closed;
+    
+    ChangeJournal(Path dataFile, ObjectMapper objectMapper) {
+        this.directory = dataFile.toAbsolutePath().getParent();
+        this.segmentPrefix = dataFile.getFileName() + ".journal-";
+        this.objectMapper = objectMapper;
+        this.currentSegment = listSegments().stream().mapToLong(this::segmentNumber).max().orElse(0) + 1;
+        this.channel = openSegment(currentSegment);
+        this.committer = new Thread(this::commitLoop, "journal-" + dataFile.getFileName());
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+    
+    <T> void replay(Map<String, T> data, JavaType entityType) {
+        int applied = 0;
+        for (Path segment : listSegments()) {
+            if (segmentNumber(segment) >= currentSegment) {
+                continue;
+            }
+            applied += replaySegment(segment, data, entityType);
+        }
+        if (applied > 0) {
+            logger.info("Replayed {} journal entries for {}", applied, segmentPrefix);
+        }
+    }
+    
+    CompletableFuture<Long> append(List<String> lines) {
+        Request request = new Request(lines, Kind.APPEND);
+        enqueue(request);
+        entriesSinceRotation.addAndGet(lines.size());
+        return request.future;
+    }
+    
+    // Seals the current segment; every entry appended before this call lands in a segment <= the returned number
+    CompletableFuture<Long> rotate() {
+        Request request = new Request(List.of(), Kind.ROTATE);
+        enqueue(request);
+        entriesSinceRotation.set(0);
+        return request.future;
+    }
+    
+    void deleteSegmentsUpTo(long segment) {
+        for (Path path : listSegments()) {
+            if (segmentNumber(path) <= segment) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    logger.warn("Failed to delete journal segment {}", path, e);
+                }
+            }
+        }
+    }
+    
+    long sizeBytes() {
+        long total = 0;
+        for (Path segment : listSegments()) {
+            try {
+                total += Files.size(segment);
+            } catch (IOException e) {
+                logger.debug("Journal segment {} vanished while sizing", segment.getFileName());
+            }
+        }
+        return total;
+    }
+    
+    int entriesSinceRotation() {
+        return entriesSinceRotation.get();
+    }
+    
+    String upsertLine(String id, Object entity) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("op", OP_UPSERT);
+        node.put("id", id);
+        node.set("entity", objectMapper.valueToTree(entity));
+        return node.toString();
+    }
+    
+    String deleteLine(String id) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("op", OP_DELETE);
+        node.put("id", id);
+        return node.toString();
+    }
+    
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(new Request(List.of(), Kind.SHUTDOWN));
+        try {
+            committer.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Request pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(new RepositoryException("Journal is closed: " + segmentPrefix));
+        }
+        try {
+            channel.close();
+            Path current = directory.resolve(segmentPrefix + currentSegment);
+            if (Files.size(current) == 0) {
+                Files.delete(current);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to close journal segment", e);
+        }
+    }
+    
+    private void enqueue(Request request) {
+        if (closed) {
+            throw new RepositoryException("Journal is closed: " + segmentPrefix);
+        }
+        queue.add(request);
+    }
+    
+    private void commitLoop() {
+        List<Request> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch);
+            running = commit(batch);
+            batch.clear();
+        }
+    }
+    
+    private boolean commit(List<Request> batch) {
+        int start = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Kind kind = batch.get(i).kind;
+            if (kind == Kind.APPEND) {
+                continue;
+            }
+            writeAndComplete(batch.subList(start, i));
+            start = i + 1;
+            if (kind == Kind.SHUTDOWN) {
+                batch.subList(start, batch.size()).forEach(queue::add);
+                return false;
+            }
+            completeRotation(batch.get(i));
+        }
+        writeAndComplete(batch.subList(start, batch.size()));
+        return true;
+    }
+    
+    // One write and one fsync for every entry that queued up while the previous batch was being forced
+    private void writeAndComplete(List<Request> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        try {
+            StringBuilder content = new StringBuilder();
+            for (Request request : requests) {
+                for (String line : request.lines) {
+                    content.append(line).append('\n');
+                }
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            requests.forEach(request -> request.future.complete(currentSegment));
+        } catch (IOException e) {
+            logger.error("Failed to append to journal segment {}", currentSegment, e);
+            requests.forEach(request -> request.future.completeExceptionally(e));
+        }
+    }
+    
+    private void completeRotation(Request request) {
+        long sealed = currentSegment;
+        try {
+            channel.close();
+            currentSegment++;
+            channel = openSegment(currentSegment);
+            request.future.complete(sealed);
+        } catch (RuntimeException | IOException e) {
+            logger.error("Failed to rotate journal segment {}", sealed, e);
+            request.future.completeExceptionally(e);
+        }
+    }
+    
+    private <T> int replaySegment(Path segment, Map<String, T> data, JavaType entityType) {
+        int applied = 0;
+        try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JsonNode entry = objectMapper.readTree(line);
+                    String id = entry.path("id").asText();
+                    if (OP_DELETE.equals(entry.path("op").asText())) {
+                        data.remove(id);
+                    } else {
+                        data.put(id, objectMapper.treeToValue(entry.path("entity"), entityType));
+                    }
+                    applied++;
+                } catch (JsonProcessingException e) {
+                    // A torn tail is expected after a crash mid-append; the write was never acknowledged
+                    logger.warn("Skipping unreadable journal entry in {}: {}", segment.getFileName(), e.getOriginalMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to replay journal " + segment + ": " + e.getMessage(), e);
+        }
+        return applied;
+    }
+    
+    private FileChannel openSegment(long segment) {
+        try {
+            return FileChannel.open(directory.resolve(segmentPrefix + segment),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to open journal segment: " + e.getMessage(), e);
+        }
+    }
+    
+    private List<Path> listSegments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> path.getFileName().toString().startsWith(segmentPrefix))
+                    .filter(path -> segmentNumber(path) > 0)
+                    .sorted((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)))
+                    .toList();
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to list journal segments: " + e.getMessage(), e);
+        }
+    }
+    
+    private long segmentNumber(Path path) {
+        try {
+            return Long.parseLong(path.getFileName().toString().substring(segmentPrefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    private enum Kind {
+        APPEND,
+        ROTATE,
+        SHUTDOWN
+    }
+    
+    private static final class Request {
+        private final List<String> lines;
+        private final Kind kind;
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+        
+        private Request(List<String> lines, Kind kind) {
+            this.lines = lines;
+            this.kind = kind;
+        }
+    }
+}
\ No newline at end of file
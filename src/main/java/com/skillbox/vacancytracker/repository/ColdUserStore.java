@@ -0,0 +1,129 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillbox.vacancytracker.exception.RepositoryException;
+import com.skillbox.vacancytracker.model.UserVacancy;
+import com.skillbox.vacancytracker.util.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// One gzipped file per hibernated user, read only when that user comes back
+public class ColdUserStore {
+    public static final String COLD_USER_DIRECTORY = "cold_users";
+    private static final String FILE_SUFFIX = ".json.gz";
+    
+    private final Path directory;
+    private final ObjectMapper objectMapper = JsonMapper.getInstance();
+    private volatile RepositoryMetrics metrics = RepositoryMetrics.NONE;
+    
+    public ColdUserStore(String dataDirectory) {
+        this.directory = Path.of(dataDirectory).resolve(COLD_USER_DIRECTORY);
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to initialize cold user store: " + e.getMessage(), e);
+        }
+    }
+    
+    public void setMetrics(RepositoryMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    // Merges with anything already parked, so hibernating again after an interrupted wake-up loses nothing
+    public synchronized void put(Long userId, List<UserVacancy> userVacancies, long[] seen) {
+        long started = System.nanoTime();
+        Map<String, UserVacancy> merged = new LinkedHashMap<>();
+        long[] allSeen = seen;
+        Optional<ColdUser> existing = get(userId);
+        if (existing.isPresent()) {
+            existing.get().userVacancies().forEach(userVacancy -> merged.put(userVacancy.getId(), userVacancy));
+            allSeen = LongStream.concat(Arrays.stream(existing.get().seen()), Arrays.stream(seen)).distinct().toArray();
+        }
+        userVacancies.forEach(userVacancy -> merged.put(userVacancy.getId(), userVacancy));
+        
+        Path file = fileOf(userId);
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tempFile))) {
+                objectMapper.writeValue(out, new ColdUser(new ArrayList<>(merged.values()), allSeen));
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            metrics.recordWrite(COLD_USER_DIRECTORY, merged.size(), Files.size(file));
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to save cold user " + userId + ": " + e.getMessage(), e);
+        }
+        metrics.recordOperation(COLD_USER_DIRECTORY, "put", System.nanoTime() - started);
+    }
+    
+    public synchronized Optional<ColdUser> get(Long userId) {
+        long started = System.nanoTime();
+        Path file = fileOf(userId);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            ColdUser coldUser = objectMapper.readValue(in, ColdUser.class);
+            metrics.recordRead(COLD_USER_DIRECTORY, Files.size(file));
+            metrics.recordOperation(COLD_USER_DIRECTORY, "get", System.nanoTime() - started);
+            return Optional.of(coldUser);
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to load cold user " + userId + ": " + e.getMessage(), e);
+        }
+    }
+    
+    public synchronized void remove(Long userId) {
+        long started = System.nanoTime();
+        try {
+            Files.deleteIfExists(fileOf(userId));
+            metrics.recordOperation(COLD_USER_DIRECTORY, "remove", System.nanoTime() - started);
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to delete cold user " + userId + ": " + e.getMessage(), e);
+        }
+    }
+    
+    // Each file is replaced atomically, so any listed file can be copied as it is
+    public List<Path> files() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(FILE_SUFFIX)).sorted().toList();
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to list cold users: " + e.getMessage(), e);
+        }
+    }
+    
+    private Path fileOf(Long userId) {
+        return directory.resolve(userId + FILE_SUFFIX);
+    }
+    
+    public record ColdUser(
+        @JsonProperty("user_vacancies")
+        List<UserVacancy> userVacancies,
+        
+        @JsonProperty("seen")
+        long[] seen
+    ) {
+        public ColdUser {
+            if (userVacancies == null) {
+                userVacancies = List.of();
+            }
+            if (seen == null) {
+                seen = new long[0];
+            }
+        }
+    }
+}
\ No newline at end of file
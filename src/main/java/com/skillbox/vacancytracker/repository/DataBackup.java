@@ -0,0 +1,252 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillbox.vacancytracker.config.BackupConfig;
+import com.skillbox.vacancytracker.exception.RepositoryException;
+import com.skillbox.vacancytracker.model.BotUser;
+import com.skillbox.vacancytracker.model.UserVacancy;
+import com.skillbox.vacancytracker.model.Vacancy;
+import com.skillbox.vacancytracker.util.JsonMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+// Archives hold the canonical single-file JSON layout, so a restore is picked up by the same startup
+// imports that already handle legacy files for every backend, shard count and storage format
+public final class DataBackup {
+    private static final Logger logger = LoggerFactory.getLogger(DataBackup.class);
+    public static final String RESTORE_FILE = "restore.zip";
+    private static final String RESTORED_SUFFIX = ".restored";
+    private static final String ARCHIVE_PREFIX = "vacancy-tracker-";
+    private static final String ARCHIVE_SUFFIX = ".zip";
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final Set<String> ENTRIES = Set.of(JsonUserRepository.USER_DATA_FILE,
+            JsonVacancyRepository.VACANCY_DATA_FILE, JsonUserVacancyRepository.USER_VACANCY_DATA_FILE,
+            HashedSeenVacancyRepository.SEEN_VACANCY_DATA_FILE, QueryWatermarkStore.WATERMARK_FILE);
+    private static final Pattern COLD_USER_ENTRY = Pattern.compile(ColdUserStore.COLD_USER_DIRECTORY + "/\\d+\\.json\\.gz");
+    private static final Pattern HISTORY_ENTRY = Pattern.compile(TieredUserVacancyRepository.HISTORY_DIRECTORY
+            + "/(index\\.json|\\d{4}-\\d{2}\\.jsonl\\.gz)");
+    
+    private final Path backupDirectory;
+    private final int keep;
+    private final UserRepository userRepository;
+    private final VacancyRepository vacancyRepository;
+    private final UserVacancyRepository userVacancyRepository;
+    private final ColdUserStore coldUserStore;
+    private final SeenVacancyRepository seenVacancyRepository;
+    private final QueryWatermarkStore watermarks;
+    
+    public DataBackup(BackupConfig config, UserRepository userRepository, VacancyRepository vacancyRepository,
+                      UserVacancyRepository userVacancyRepository) {
+        this(config, userRepository, vacancyRepository, userVacancyRepository, null);
+    }
+    
+    // Hibernated users keep their vacancies in the cold store, so those files travel with the archive
+    public DataBackup(BackupConfig config, UserRepository userRepository, VacancyRepository vacancyRepository,
+                      UserVacancyRepository userVacancyRepository, ColdUserStore coldUserStore) {
+        this(config, userRepository, vacancyRepository, userVacancyRepository, coldUserStore, null, null);
+    }
+    
+    // Without the seen index a restored bot would offer every vacancy again; without the watermarks
+    // each query would fall back to a full one-day window
+    public DataBackup(BackupConfig config, UserRepository userRepository, VacancyRepository vacancyRepository,
+                      UserVacancyRepository userVacancyRepository, ColdUserStore coldUserStore,
+                      SeenVacancyRepository seenVacancyRepository, QueryWatermarkStore watermarks) {
+        this.backupDirectory = Path.of(config.directory());
+        this.keep = config.keep();
+        this.userRepository = userRepository;
+        this.vacancyRepository = vacancyRepository;
+        this.userVacancyRepository = userVacancyRepository;
+        this.coldUserStore = coldUserStore;
+        this.seenVacancyRepository = seenVacancyRepository;
+        this.watermarks = watermarks;
+    }
+    
+    // Entities are streamed straight into the archive, one repository at a time: memory-resident modes read
+    // a snapshot with no lock held, file mode holds the read lock only while its own entry is written.
+    // User vacancies are written first, so every record's user is in the archive too.
+    // Cold files are read both before and after, so a user hibernating or waking meanwhile is still covered.
+    // Archived history is copied as its compressed files, after the hot tier: a record moved meanwhile then
+    // ends up in both copies rather than in neither.
+    public Path backup() {
+        Map<String, byte[]> coldUsers = readColdUsers();
+        TieredUserVacancyRepository tiered = userVacancyRepository instanceof TieredUserVacancyRepository t ? t : null;
+        UserVacancyRepository hot = tiered != null ? tiered.hotTier() : userVacancyRepository;
+        
+        Path archive = backupDirectory.resolve(ARCHIVE_PREFIX + LocalDateTime.now().format(TIMESTAMP) + ARCHIVE_SUFFIX);
+        Path tempFile = archive.resolveSibling(archive.getFileName() + ".tmp");
+        int userVacancies;
+        int vacancies;
+        int users;
+        try {
+            Files.createDirectories(backupDirectory);
+            try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                try (Stream<UserVacancy> stream = hot.stream()) {
+                    userVacancies = writeEntry(zip, JsonUserVacancyRepository.USER_VACANCY_DATA_FILE, stream,
+                            UserVacancy::getId);
+                }
+                Map<String, byte[]> history = tiered != null ? tiered.exportCold() : Map.of();
+                try (Stream<Vacancy> stream = vacancyRepository.stream()) {
+                    vacancies = writeEntry(zip, JsonVacancyRepository.VACANCY_DATA_FILE, stream, Vacancy::getId);
+                }
+                try (Stream<BotUser> stream = userRepository.stream()) {
+                    users = writeEntry(zip, JsonUserRepository.USER_DATA_FILE, stream,
+                            user -> String.valueOf(user.getUserId()));
+                }
+                if (seenVacancyRepository != null) {
+                    zip.putNextEntry(new ZipEntry(HashedSeenVacancyRepository.SEEN_VACANCY_DATA_FILE));
+                    seenVacancyRepository.export(zip);
+                    zip.closeEntry();
+                }
+                if (watermarks != null) {
+                    writeFile(zip, QueryWatermarkStore.WATERMARK_FILE, watermarks.export());
+                }
+                coldUsers.putAll(readColdUsers());
+                for (Map.Entry<String, byte[]> coldUser : coldUsers.entrySet()) {
+                    writeFile(zip, ColdUserStore.COLD_USER_DIRECTORY + "/" + coldUser.getKey(), coldUser.getValue());
+                }
+                for (Map.Entry<String, byte[]> month : history.entrySet()) {
+                    writeFile(zip, TieredUserVacancyRepository.HISTORY_DIRECTORY + "/" + month.getKey(), month.getValue());
+                }
+            }
+            Files.move(tempFile, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to write backup: " + e.getMessage(), e);
+        }
+        logger.info("Backed up {} users, {} vacancies and {} user vacancies to {} ({} bytes)",
+                users, vacancies, userVacancies, archive, archive.toFile().length());
+        prune();
+        return archive;
+    }
+    
+    // Runs before any repository is opened. Everything in the data directory is moved aside rather than
+    // deleted, and the archive is renamed afterwards so the restore happens once.
+    public static boolean restoreIfRequested(String dataDirectory) {
+        Path dataPath = Path.of(dataDirectory);
+        Path archive = dataPath.resolve(RESTORE_FILE);
+        if (!Files.isRegularFile(archive)) {
+            return false;
+        }
+        
+        Path previous = dataPath.resolve("pre-restore-" + LocalDateTime.now().format(TIMESTAMP));
+        try {
+            Files.createDirectories(previous);
+            try (Stream<Path> files = Files.list(dataPath)) {
+                for (Path file : files.toList()) {
+                    String name = file.getFileName().toString();
+                    if (!file.equals(archive) && !file.equals(previous) && !name.startsWith("pre-restore-")
+                            && !name.startsWith(RESTORE_FILE)) {
+                        Files.move(file, previous.resolve(name));
+                    }
+                }
+            }
+            
+            int restored = 0;
+            try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive))) {
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    // Only known file names are written, so an entry can never point outside the data directory
+                    if (COLD_USER_ENTRY.matcher(entry.getName()).matches()) {
+                        Files.createDirectories(dataPath.resolve(ColdUserStore.COLD_USER_DIRECTORY));
+                    } else if (HISTORY_ENTRY.matcher(entry.getName()).matches()) {
+                        Files.createDirectories(dataPath.resolve(TieredUserVacancyRepository.HISTORY_DIRECTORY));
+                    } else if (!ENTRIES.contains(entry.getName())) {
+                        logger.warn("Skipping unknown backup entry {}", entry.getName());
+                        continue;
+                    }
+                    Files.copy(zip, dataPath.resolve(entry.getName()));
+                    restored++;
+                }
+            }
+            Files.move(archive, archive.resolveSibling(RESTORE_FILE + RESTORED_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+            logger.info("Restored {} data files from {}; previous data moved to {}", restored, archive, previous);
+            return true;
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to restore backup: " + e.getMessage(), e);
+        }
+    }
+    
+    private static <T> int writeEntry(ZipOutputStream zip, String name, Stream<T> entities,
+                                      Function<T, String> keyOf) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        ObjectMapper mapper = JsonMapper.getInstance();
+        int written = 0;
+        // Streamed entity by entity; the generator must not close the archive along with itself
+        try (JsonGenerator generator = mapper.createGenerator((OutputStream) zip)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            Iterator<T> cursor = entities.iterator();
+            while (cursor.hasNext()) {
+                T entity = cursor.next();
+                generator.writeFieldName(keyOf.apply(entity));
+                mapper.writeValue(generator, entity);
+                written++;
+            }
+            generator.writeEndObject();
+        }
+        zip.closeEntry();
+        return written;
+    }
+    
+    private static void writeFile(ZipOutputStream zip, String name, byte[] content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content);
+        zip.closeEntry();
+    }
+    
+    private Map<String, byte[]> readColdUsers() {
+        Map<String, byte[]> coldUsers = new TreeMap<>();
+        if (coldUserStore == null) {
+            return coldUsers;
+        }
+        for (Path file : coldUserStore.files()) {
+            try {
+                coldUsers.put(file.getFileName().toString(), Files.readAllBytes(file));
+            } catch (NoSuchFileException e) {
+                logger.debug("Cold user file {} disappeared before it was read", file);
+            } catch (IOException e) {
+                throw new RepositoryException("Failed to read cold user file: " + e.getMessage(), e);
+            }
+        }
+        return coldUsers;
+    }
+    
+    private void prune() {
+        try (Stream<Path> files = Files.list(backupDirectory)) {
+            List<Path> archives = files
+                    .filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(ARCHIVE_PREFIX) && name.endsWith(ARCHIVE_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+            for (Path old : archives.subList(0, Math.max(0, archives.size() - keep))) {
+                Files.delete(old);
+                logger.debug("Deleted old backup {}", old);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to prune old backups in {}", backupDirectory, e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,282 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.skillbox.vacancytracker.model.UserVacancy;
+import com.skillbox.vacancytracker.model.Vacancy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Stores user vacancy records without their Vacancy payload and keeps one shared copy per vacancy id
+public class DeduplicatedUserVacancyRepository implements UserVacancyRepository {
+    private static final Logger logger = LoggerFactory.getLogger(DeduplicatedUserVacancyRepository.class);
+    private static final int STREAM_BATCH_SIZE = 256;
+    
+    private final UserVacancyRepository records;
+    private final SharedVacancyRepository vacancies;
+    // Reference bookkeeping is derived from the records at startup, so it can never drift from what is on disk
+    private final Map<String, String> vacancyIdByRecord = new HashMap<>();
+    private final Map<String, Integer> referenceCounts = new HashMap<>();
+    
+    public DeduplicatedUserVacancyRepository(UserVacancyRepository records, SharedVacancyRepository vacancies) {
+        this.records = records;
+        this.vacancies = vacancies;
+        
+        List<UserVacancy> embedded = new ArrayList<>();
+        for (UserVacancy record : records.findAll()) {
+            addReference(record);
+            if (record.getVacancy() != null) {
+                embedded.add(record);
+            }
+        }
+        if (!embedded.isEmpty()) {
+            moveToSharedStore(embedded);
+            logger.info("Moved {} embedded vacancies into the shared vacancy store", embedded.size());
+        }
+        removeUnreferenced(vacancies.findAll().stream().map(Vacancy::getId).toList());
+    }
+    
+    @Override
+    public Optional<UserVacancy> findById(String id) {
+        return records.findById(id).map(record -> hydrate(List.of(record)).get(0));
+    }
+    
+    @Override
+    public boolean exists(String id) {
+        return records.exists(id);
+    }
+    
+    @Override
+    public void save(UserVacancy entity) {
+        saveAll(Collections.singletonList(entity));
+    }
+    
+    @Override
+    public void saveAll(Collection<? extends UserVacancy> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        // Vacancy first, record second: a reader can never see a record whose vacancy is missing
+        List<String> released = new ArrayList<>();
+        synchronized (referenceCounts) {
+            List<Vacancy> payloads = new ArrayList<>();
+            for (UserVacancy entity : entities) {
+                String previous = vacancyIdByRecord.get(entity.getId());
+                if (previous != null && !previous.equals(entity.getVacancyId())) {
+                    removeReference(entity.getId()).ifPresent(released::add);
+                }
+                addReference(entity);
+                if (entity.getVacancy() != null) {
+                    payloads.add(entity.getVacancy());
+                }
+            }
+            vacancies.saveAll(payloads);
+        }
+        records.saveAll(entities.stream().map(this::strip).toList());
+        deleteVacancies(released);
+    }
+    
+    @Override
+    public void delete(String id) {
+        deleteAll(Collections.singletonList(id));
+    }
+    
+    @Override
+    public void deleteAll(Collection<? extends String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        records.deleteAll(ids);
+        releaseReferences(ids);
+    }
+    
+    @Override
+    public List<UserVacancy> findAll() {
+        return hydrate(records.findAll());
+    }
+    
+    // Records are hydrated a bounded batch at a time, so the whole view is never held in memory at once
+    @Override
+    public Stream<UserVacancy> stream() {
+        Stream<UserVacancy> stored = records.stream();
+        Iterator<UserVacancy> cursor = stored.iterator();
+        Spliterator<UserVacancy> hydrated = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private Iterator<UserVacancy> batch = Collections.emptyIterator();
+            
+            @Override
+            public boolean tryAdvance(Consumer<? super UserVacancy> action) {
+                if (!batch.hasNext()) {
+                    List<UserVacancy> next = new ArrayList<>(STREAM_BATCH_SIZE);
+                    while (next.size() < STREAM_BATCH_SIZE && cursor.hasNext()) {
+                        next.add(cursor.next());
+                    }
+                    if (next.isEmpty()) {
+                        return false;
+                    }
+                    batch = hydrate(next).iterator();
+                }
+                action.accept(batch.next());
+                return true;
+            }
+        };
+        return StreamSupport.stream(hydrated, false).onClose(stored::close);
+    }
+    
+    @Override
+    public List<UserVacancy> findByUserId(Long userId) {
+        return hydrate(records.findByUserId(userId));
+    }
+    
+    @Override
+    public List<UserVacancy> findNewByUserId(Long userId) {
+        return hydrate(records.findNewByUserId(userId));
+    }
+    
+    @Override
+    public List<UserVacancy> findNewByUserId(Long userId, long notifiedSequence) {
+        return hydrate(records.findNewByUserId(userId, notifiedSequence));
+    }
+    
+    @Override
+    public void pruneNotified(Long userId, long notifiedSequence) {
+        records.pruneNotified(userId, notifiedSequence);
+    }
+    
+    @Override
+    public void markAsNotified(String id) {
+        records.markAsNotified(id);
+    }
+    
+    @Override
+    public void markAllAsNotified(Collection<String> ids) {
+        records.markAllAsNotified(ids);
+    }
+    
+    @Override
+    public void deleteByUserId(Long userId) {
+        List<String> ids = records.findByUserId(userId).stream()
+                .map(UserVacancy::getId)
+                .toList();
+        records.deleteByUserId(userId);
+        releaseReferences(ids);
+    }
+    
+    @Override
+    public void flush() {
+        vacancies.flush();
+        records.flush();
+    }
+    
+    @Override
+    public long storageBytes() {
+        return records.storageBytes() + vacancies.storageBytes();
+    }
+    
+    @Override
+    public void compact() {
+        vacancies.compact();
+        records.compact();
+    }
+    
+    @Override
+    public void close() {
+        records.close();
+        vacancies.close();
+    }
+    
+    int sharedVacancyCount() {
+        synchronized (referenceCounts) {
+            return referenceCounts.size();
+        }
+    }
+    
+    private void moveToSharedStore(List<UserVacancy> embedded) {
+        vacancies.saveAll(embedded.stream().map(UserVacancy::getVacancy).toList());
+        records.saveAll(embedded.stream().map(this::strip).toList());
+    }
+    
+    private void releaseReferences(Collection<? extends String> ids) {
+        List<String> released = new ArrayList<>();
+        synchronized (referenceCounts) {
+            for (String id : ids) {
+                removeReference(id).ifPresent(released::add);
+            }
+        }
+        deleteVacancies(released);
+    }
+    
+    private void deleteVacancies(List<String> released) {
+        if (released.isEmpty()) {
+            return;
+        }
+        synchronized (referenceCounts) {
+            // A concurrent save may have picked the vacancy up again in the meantime
+            vacancies.deleteAll(released.stream().filter(id -> !referenceCounts.containsKey(id)).toList());
+        }
+        logger.debug("Collected {} unreferenced vacancies", released.size());
+    }
+    
+    private void removeUnreferenced(List<String> storedIds) {
+        List<String> orphans;
+        synchronized (referenceCounts) {
+            orphans = storedIds.stream().filter(id -> !referenceCounts.containsKey(id)).toList();
+        }
+        if (!orphans.isEmpty()) {
+            vacancies.deleteAll(orphans);
+            logger.info("Removed {} unreferenced vacancies from the shared vacancy store", orphans.size());
+        }
+    }
+    
+    private void addReference(UserVacancy record) {
+        if (record.getVacancyId() == null || vacancyIdByRecord.containsKey(record.getId())) {
+            return;
+        }
+        vacancyIdByRecord.put(record.getId(), record.getVacancyId());
+        referenceCounts.merge(record.getVacancyId(), 1, Integer::sum);
+    }
+    
+    // Returns the vacancy id when this was its last reference
+    private Optional<String> removeReference(String recordId) {
+        String vacancyId = vacancyIdByRecord.remove(recordId);
+        if (vacancyId == null) {
+            return Optional.empty();
+        }
+        Integer remaining = referenceCounts.computeIfPresent(vacancyId, (id, count) -> count > 1 ? count - 1 : null);
+        return remaining == null ? Optional.of(vacancyId) : Optional.empty();
+    }
+    
+    private UserVacancy strip(UserVacancy record) {
+        return record.getVacancy() == null ? record : record.withVacancy(null);
+    }
+    
+    private List<UserVacancy> hydrate(List<UserVacancy> found) {
+        List<String> vacancyIds = found.stream()
+                .filter(record -> record.getVacancy() == null && record.getVacancyId() != null)
+                .map(UserVacancy::getVacancyId)
+                .distinct()
+                .toList();
+        if (vacancyIds.isEmpty()) {
+            return found;
+        }
+        Map<String, Vacancy> byId = vacancies.findAllById(vacancyIds);
+        List<UserVacancy> hydrated = new ArrayList<>(found.size());
+        for (UserVacancy record : found) {
+            Vacancy vacancy = record.getVacancy() != null ? record.getVacancy() : byId.get(record.getVacancyId());
+            hydrated.add(record.withVacancy(vacancy));
+        }
+        return hydrated;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,255 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.skillbox.vacancytracker.exception.RepositoryException;
+import com.skillbox.vacancytracker.model.UserVacancy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Per-user sorted arrays of 64-bit id hashes, persisted as an append-only log of (userId, hash) pairs.
+// A collision would hide one vacancy from one user; at 64 bits that stays negligible for any realistic set size.
+public class HashedSeenVacancyRepository implements SeenVacancyRepository {
+    private static final Logger logger = LoggerFactory.getLogger(HashedSeenVacancyRepository.class);
+    public static final String SEEN_VACANCY_DATA_FILE = "seen_vacancies.bin";
+    private static final int RECORD_BYTES = 2 * Long.BYTES;
+    // Hash value reserved for "forget everything about this user"
+    private static final long TOMBSTONE = 0L;
+    private static final int EXPORT_BUFFER_RECORDS = 4096;
+    
+    private final Path dataFile;
+    private final Map<Long, long[]> hashesByUser = new HashMap<>();
+    private final boolean created;
+    private final FileChannel log;
+    
+    public HashedSeenVacancyRepository(String dataDirectory) {
+        this.dataFile = Path.of(dataDirectory).resolve(SEEN_VACANCY_DATA_FILE);
+        try {
+            Files.createDirectories(dataFile.getParent());
+            this.created = !Files.exists(dataFile);
+            if (!created) {
+                load();
+            }
+            this.log = FileChannel.open(dataFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to open seen vacancy index: " + e.getMessage(), e);
+        }
+    }
+    
+    // Seeds a freshly created index from the existing records so upgrading does not re-announce old vacancies
+    public static HashedSeenVacancyRepository open(String dataDirectory, UserVacancyRepository userVacancyRepository) {
+        HashedSeenVacancyRepository repository = new HashedSeenVacancyRepository(dataDirectory);
+        if (repository.created) {
+            Map<Long, List<String>> seen;
+            try (Stream<UserVacancy> userVacancies = userVacancyRepository.stream()) {
+                seen = userVacancies
+                        .filter(userVacancy -> userVacancy.getUserId() != null && userVacancy.getVacancyId() != null)
+                        .collect(Collectors.groupingBy(UserVacancy::getUserId,
+                                Collectors.mapping(UserVacancy::getVacancyId, Collectors.toList())));
+            }
+            seen.forEach(repository::markSeen);
+            logger.info("Seeded seen vacancy index for {} users", seen.size());
+        }
+        return repository;
+    }
+    
+    @Override
+    public synchronized List<String> filterUnseen(Long userId, Collection<String> vacancyIds) {
+        long[] hashes = hashesByUser.getOrDefault(userId, new long[0]);
+        List<String> unseen = new ArrayList<>();
+        for (String vacancyId : vacancyIds) {
+            if (vacancyId != null && Arrays.binarySearch(hashes, hash(vacancyId)) < 0) {
+                unseen.add(vacancyId);
+            }
+        }
+        return unseen;
+    }
+    
+    @Override
+    public synchronized void markSeen(Long userId, Collection<String> vacancyIds) {
+        addHashes(userId, vacancyIds.stream()
+                .filter(Objects::nonNull)
+                .mapToLong(HashedSeenVacancyRepository::hash)
+                .toArray());
+    }
+    
+    @Override
+    public synchronized void forgetUser(Long userId) {
+        if (hashesByUser.remove(userId) != null) {
+            append(ByteBuffer.allocate(RECORD_BYTES).putLong(userId).putLong(TOMBSTONE).flip());
+        }
+    }
+    
+    @Override
+    public synchronized long[] exportUser(Long userId) {
+        return hashesByUser.getOrDefault(userId, new long[0]).clone();
+    }
+    
+    @Override
+    public synchronized void importUser(Long userId, long[] entries) {
+        addHashes(userId, entries);
+    }
+    
+    // Stored arrays are replaced rather than changed in place, so they are written out after the lock is released
+    @Override
+    public void export(OutputStream out) throws IOException {
+        Map<Long, long[]> copy;
+        synchronized (this) {
+            copy = new HashMap<>(hashesByUser);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(EXPORT_BUFFER_RECORDS * RECORD_BYTES);
+        for (Map.Entry<Long, long[]> entry : copy.entrySet()) {
+            for (long hash : entry.getValue()) {
+                if (!buffer.hasRemaining()) {
+                    out.write(buffer.array(), 0, buffer.position());
+                    buffer.clear();
+                }
+                buffer.putLong(entry.getKey()).putLong(hash);
+            }
+        }
+        out.write(buffer.array(), 0, buffer.position());
+    }
+    
+    synchronized int seenCount(Long userId) {
+        return hashesByUser.getOrDefault(userId, new long[0]).length;
+    }
+    
+    @Override
+    public synchronized void close() {
+        try {
+            if (log.isOpen()) {
+                log.force(false);
+                log.close();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to close seen vacancy index", e);
+        }
+    }
+    
+    // FNV-1a followed by a 64-bit finalizer: stable across JVMs, unlike String.hashCode widened to long
+    static long hash(String vacancyId) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : vacancyId.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash == TOMBSTONE ? 1L : hash;
+    }
+    
+    private void addHashes(Long userId, long[] hashes) {
+        long[] existing = hashesByUser.getOrDefault(userId, new long[0]);
+        long[] added = Arrays.stream(hashes)
+                .filter(hash -> hash != TOMBSTONE && Arrays.binarySearch(existing, hash) < 0)
+                .sorted()
+                .distinct()
+                .toArray();
+        if (added.length == 0) {
+            return;
+        }
+        hashesByUser.put(userId, merge(existing, added));
+        
+        ByteBuffer buffer = ByteBuffer.allocate(added.length * RECORD_BYTES);
+        for (long hash : added) {
+            buffer.putLong(userId).putLong(hash);
+        }
+        append(buffer.flip());
+    }
+    
+    private void append(ByteBuffer buffer) {
+        try {
+            while (buffer.hasRemaining()) {
+                log.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to write seen vacancy index: " + e.getMessage(), e);
+        }
+    }
+    
+    private void load() throws IOException {
+        byte[] content = Files.readAllBytes(dataFile);
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        Map<Long, List<Long>> pending = new HashMap<>();
+        int records = 0;
+        // A torn trailing record from a crash mid-append is simply ignored
+        while (buffer.remaining() >= RECORD_BYTES) {
+            long userId = buffer.getLong();
+            long hash = buffer.getLong();
+            records++;
+            if (hash == TOMBSTONE) {
+                pending.remove(userId);
+            } else {
+                pending.computeIfAbsent(userId, id -> new ArrayList<>()).add(hash);
+            }
+        }
+        
+        int live = 0;
+        for (Map.Entry<Long, List<Long>> entry : pending.entrySet()) {
+            long[] hashes = entry.getValue().stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+            hashesByUser.put(entry.getKey(), hashes);
+            live += hashes.length;
+        }
+        if (records != live || buffer.hasRemaining()) {
+            rewrite();
+            logger.info("Compacted seen vacancy index from {} to {} entries", records, live);
+        }
+    }
+    
+    private void rewrite() throws IOException {
+        int total = hashesByUser.values().stream().mapToInt(hashes -> hashes.length).sum();
+        ByteBuffer buffer = ByteBuffer.allocate(total * RECORD_BYTES);
+        hashesByUser.forEach((userId, hashes) -> {
+            for (long hash : hashes) {
+                buffer.putLong(userId).putLong(hash);
+            }
+        });
+        buffer.flip();
+        
+        Path tempFile = dataFile.resolveSibling(dataFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tempFile, dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private static long[] merge(long[] existing, long[] added) {
+        long[] merged = new long[existing.length + added.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < existing.length && j < added.length) {
+            merged[k++] = existing[i] <= added[j] ? existing[i++] : added[j++];
+        }
+        while (i < existing.length) {
+            merged[k++] = existing[i++];
+        }
+        while (j < added.length) {
+            merged[k++] = added[j++];
+        }
+        return merged;
+    }
+}
\ No newline at end of file
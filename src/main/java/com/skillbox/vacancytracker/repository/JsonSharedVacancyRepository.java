@@ -0,0 +1,36 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.skillbox.vacancytracker.config.StorageConfig;
+import com.skillbox.vacancytracker.model.Vacancy;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+// One record per trudvsem vacancy id, shared by every user that matched it
+public class JsonSharedVacancyRepository extends AbstractJsonRepository<Vacancy, String> implements SharedVacancyRepository {
+    public static final String SHARED_VACANCY_DATA_FILE = "shared_vacancies.json";
+    
+    public JsonSharedVacancyRepository(String dataDirectory) {
+        this(dataDirectory, StorageConfig.defaults());
+    }
+    
+    public JsonSharedVacancyRepository(String dataDirectory, StorageConfig storageConfig) {
+        super(dataDirectory, SHARED_VACANCY_DATA_FILE, new TypeReference<Map<String, Vacancy>>() {}, storageConfig);
+    }
+    
+    @Override
+    protected String getId(Vacancy entity) {
+        return entity.getId();
+    }
+    
+    @Override
+    public Map<String, Vacancy> findAllById(Collection<String> ids) {
+        Map<String, Vacancy> found = new HashMap<>();
+        for (Vacancy vacancy : findAllByKeys(ids)) {
+            found.put(vacancy.getId(), vacancy);
+        }
+        return found;
+    }
+}
\ No newline at end of file
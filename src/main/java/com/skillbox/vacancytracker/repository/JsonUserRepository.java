@@ -1,19 +1,51 @@
 package com.skillbox.vacancytracker.repository;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.skillbox.vacancytracker.config.StorageConfig;
 import com.skillbox.vacancytracker.model.BotUser;
 
+import java.util.List;
 import java.util.Map;
 
 public class JsonUserRepository extends AbstractJsonRepository<BotUser, Long> implements UserRepository {
-    private static final String USER_DATA_FILE = "users.json";
+    public static final String USER_DATA_FILE = "users.json";
     
     public JsonUserRepository(String dataDirectory) {
-        super(dataDirectory, USER_DATA_FILE, new TypeReference<Map<String, BotUser>>() {});
+        this(dataDirectory, StorageConfig.defaults());
+    }
+    
+    public JsonUserRepository(String dataDirectory, StorageConfig storageConfig) {
+        super(dataDirectory, USER_DATA_FILE, new TypeReference<Map<String, BotUser>>() {}, storageConfig);
     }
     
     @Override
     protected Long getId(BotUser entity) {
         return entity.getUserId();
     }
+    
+    // Commands and services change users they have read before saving them
+    @Override
+    protected BotUser copyOf(BotUser entity) {
+        return entity.copy();
+    }
+    
+    // Users are saved from stale copies all the time, and none of them may undo an acknowledged digest
+    @Override
+    protected void beforeSave(BotUser previous, BotUser entity) {
+        if (previous != null && previous.getNotifiedSequence() > entity.getNotifiedSequence()) {
+            entity.setNotifiedSequence(previous.getNotifiedSequence());
+        }
+    }
+    
+    @Override
+    public void advanceNotifiedSequence(Long userId, long notifiedSequence) {
+        updateAll(List.of(String.valueOf(userId)), user -> {
+            if (notifiedSequence <= user.getNotifiedSequence()) {
+                return null;
+            }
+            BotUser advanced = user.copy();
+            advanced.setNotifiedSequence(notifiedSequence);
+            return advanced;
+        });
+    }
 }
\ No newline at end of file
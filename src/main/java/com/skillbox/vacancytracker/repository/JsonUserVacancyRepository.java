@@ -1,6 +1,7 @@
 package com.skillbox.vacancytracker.repository;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.skillbox.vacancytracker.config.StorageConfig;
 import com.skillbox.vacancytracker.model.UserVacancy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,17 +9,45 @@ import org.slf4j.LoggerFactory;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class JsonUserVacancyRepository extends AbstractJsonRepository<UserVacancy, String> 
         implements UserVacancyRepository {
     
     private static final Logger logger = LoggerFactory.getLogger(JsonUserVacancyRepository.class);
+    public static final String USER_VACANCY_DATA_FILE = "user_vacancies";
+    private static final Comparator<UserVacancy> NEWEST_FIRST =
+            Comparator.comparingLong(UserVacancy::effectiveSequence).reversed();
+    
+    // userId -> ids, maintained only while the data is memory-resident; file mode re-reads on every call anyway.
+    // Each user's set is replaced rather than mutated, so readers can use it without the lock.
+    private final Map<Long, Set<String>> idsByUser = new ConcurrentHashMap<>();
+    // Unnotified records per user ordered by sequence, read newest first; a watermark turns "new" into a tail view
+    private final TimeOrderedIndex<Long> newBySequence = new TimeOrderedIndex<>();
     
     public JsonUserVacancyRepository(String dataDirectory) {
-        super(dataDirectory, "user_vacancies", new TypeReference<Map<String, UserVacancy>>() {});
+        this(dataDirectory, StorageConfig.defaults());
+    }
+    
+    public JsonUserVacancyRepository(String dataDirectory, StorageConfig storageConfig) {
+        this(dataDirectory, USER_VACANCY_DATA_FILE, storageConfig);
+    }
+    
+    public JsonUserVacancyRepository(String dataDirectory, String fileName, StorageConfig storageConfig) {
+        super(dataDirectory, fileName, new TypeReference<Map<String, UserVacancy>>() {}, storageConfig);
+        if (isMemoryResident()) {
+            buildIndexes();
+        }
     }
     
     @Override
@@ -29,33 +58,152 @@ public class JsonUserVacancyRepository extends AbstractJsonRepository<UserVacanc
     
     @Override
     public List<UserVacancy> findByUserId(Long userId) {
-        return findAll().stream()
-                .filter(uv -> userId.equals(uv.getUserId()))
-                .collect(Collectors.toList());
+        if (!isMemoryResident()) {
+            try (Stream<UserVacancy> userVacancies = stream()) {
+                return userVacancies
+                        .filter(uv -> userId.equals(uv.getUserId()))
+                        .collect(Collectors.toList());
+            }
+        }
+        return findAllByKeys(idsByUser.getOrDefault(userId, Set.of()));
     }
     
     @Override
     public List<UserVacancy> findNewByUserId(Long userId) {
-        return findByUserId(userId).stream()
+        if (!isMemoryResident()) {
+            return findByUserId(userId).stream()
+                    .filter(UserVacancy::isNew)
+                    .sorted(NEWEST_FIRST)
+                    .collect(Collectors.toList());
+        }
+        // Cached entities are shared, so a caller may have flipped the flag without saving yet
+        return findAllByKeys(newBySequence.newest(userId, Integer.MAX_VALUE)).stream()
                 .filter(UserVacancy::isNew)
                 .collect(Collectors.toList());
     }
     
+    @Override
+    public List<UserVacancy> findNewByUserId(Long userId, long notifiedSequence) {
+        if (!isMemoryResident()) {
+            return UserVacancyRepository.super.findNewByUserId(userId, notifiedSequence);
+        }
+        return findAllByKeys(newBySequence.newestAfter(userId, notifiedSequence)).stream()
+                .filter(UserVacancy::isNew)
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    public void pruneNotified(Long userId, long notifiedSequence) {
+        if (!isMemoryResident()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            newBySequence.removeUpTo(userId, notifiedSequence);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
     @Override
     public void markAsNotified(String id) {
-        findById(id).ifPresent(userVacancy -> {
-            userVacancy.setNotifiedAt(LocalDateTime.now());
-            userVacancy.setNew(false);
-            save(userVacancy);
+        markAllAsNotified(Collections.singletonList(id));
+    }
+    
+    @Override
+    public void markAllAsNotified(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        LocalDateTime notifiedAt = LocalDateTime.now();
+        updateAll(ids, userVacancy -> {
+            UserVacancy notified = userVacancy.withVacancy(userVacancy.getVacancy());
+            notified.setNotifiedAt(notifiedAt);
+            notified.setNew(false);
+            return notified;
         });
     }
     
     @Override
     public void deleteByUserId(Long userId) {
-        List<UserVacancy> userVacancies = findByUserId(userId);
-        for (UserVacancy uv : userVacancies) {
-            delete(uv.getId());
+        List<String> ids = findByUserId(userId).stream()
+                .map(UserVacancy::getId)
+                .toList();
+        deleteAll(ids);
+        logger.info("Deleted {} vacancies for user {}", ids.size(), userId);
+    }
+    
+    @Override
+    protected void beforeSave(UserVacancy previous, UserVacancy entity) {
+        entity.assignSequence(previous);
+    }
+    
+    @Override
+    protected void onSaved(String key, UserVacancy previous, UserVacancy entity) {
+        if (previous != null) {
+            unindex(key, previous);
+        }
+        index(key, entity);
+    }
+    
+    @Override
+    protected void onDeleted(String key, UserVacancy removed) {
+        unindex(key, removed);
+    }
+    
+    // Built in bulk once at startup; copying a user's set per record would be quadratic for heavy users
+    private void buildIndexes() {
+        Map<Long, Set<String>> all = new HashMap<>();
+        for (UserVacancy userVacancy : findAll()) {
+            if (userVacancy.getUserId() == null) {
+                continue;
+            }
+            all.computeIfAbsent(userVacancy.getUserId(), userId -> new LinkedHashSet<>()).add(userVacancy.getId());
+            if (userVacancy.isNew()) {
+                newBySequence.put(userVacancy.getUserId(), userVacancy.getId(), userVacancy.effectiveSequence());
+            }
+        }
+        all.forEach((userId, keys) -> idsByUser.put(userId, Collections.unmodifiableSet(keys)));
+    }
+    
+    private void index(String key, UserVacancy userVacancy) {
+        addToIndex(idsByUser, userVacancy.getUserId(), key);
+        if (userVacancy.isNew()) {
+            newBySequence.put(userVacancy.getUserId(), key, userVacancy.effectiveSequence());
+        } else {
+            newBySequence.remove(key);
+        }
+    }
+    
+    private void unindex(String key, UserVacancy userVacancy) {
+        removeFromIndex(idsByUser, userVacancy.getUserId(), key);
+        newBySequence.remove(key);
+    }
+    
+    private static void addToIndex(Map<Long, Set<String>> index, Long userId, String key) {
+        if (userId == null) {
+            return;
+        }
+        Set<String> keys = index.get(userId);
+        if (keys != null && keys.contains(key)) {
+            return;
+        }
+        Set<String> updated = keys == null ? new LinkedHashSet<>() : new LinkedHashSet<>(keys);
+        updated.add(key);
+        index.put(userId, Collections.unmodifiableSet(updated));
+    }
+    
+    private static void removeFromIndex(Map<Long, Set<String>> index, Long userId, String key) {
+        Set<String> keys = userId == null ? null : index.get(userId);
+        if (keys == null || !keys.contains(key)) {
+            return;
+        }
+        if (keys.size() == 1) {
+            index.remove(userId);
+            return;
         }
-        logger.info("Deleted {} vacancies for user {}", userVacancies.size(), userId);
+        Set<String> updated = new LinkedHashSet<>(keys);
+        updated.remove(key);
+        index.put(userId, Collections.unmodifiableSet(updated));
     }
 }
\ No newline at end of file
@@ -1,18 +1,33 @@
 package com.skillbox.vacancytracker.repository;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.skillbox.vacancytracker.config.StorageConfig;
 import com.skillbox.vacancytracker.model.Vacancy;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class JsonVacancyRepository extends AbstractJsonRepository<Vacancy, String> implements VacancyRepository {
-    private static final String VACANCY_DATA_FILE = "vacancies.json";
+    public static final String VACANCY_DATA_FILE = "vacancies.json";
+    
+    // userId -> ids ordered by created date, maintained only while the data is memory-resident
+    private final TimeOrderedIndex<LocalDateTime> byCreatedDate = new TimeOrderedIndex<>();
     
     public JsonVacancyRepository(String dataDirectory) {
-        super(dataDirectory, VACANCY_DATA_FILE, new TypeReference<Map<String, Vacancy>>() {});
+        this(dataDirectory, StorageConfig.defaults());
+    }
+    
+    public JsonVacancyRepository(String dataDirectory, StorageConfig storageConfig) {
+        super(dataDirectory, VACANCY_DATA_FILE, new TypeReference<Map<String, Vacancy>>() {}, storageConfig);
+        if (isMemoryResident()) {
+            for (Vacancy vacancy : findAll()) {
+                byCreatedDate.put(ownerOf(vacancy.getId()), vacancy.getId(), vacancy.getCreatedDate());
+            }
+        }
     }
     
     @Override
@@ -22,32 +37,35 @@ public class JsonVacancyRepository extends AbstractJsonRepository<Vacancy, Strin
     
     @Override
     public List<Vacancy> findByUserId(Long userId) {
+        if (isMemoryResident()) {
+            return findAllByKeys(byCreatedDate.ids(userId));
+        }
         // In this implementation, we store vacancies with composite key: userId_vacancyId
-        lock.readLock().lock();
-        try {
-            return findAll().stream()
+        try (Stream<Vacancy> vacancies = stream()) {
+            return vacancies
                     .filter(vacancy -> vacancy.getId().startsWith(userId + "_"))
                     .collect(Collectors.toList());
-        } finally {
-            lock.readLock().unlock();
         }
     }
     
     @Override
     public void deleteByUserId(Long userId) {
+        // Same lock as saveUserVacancies, so a concurrent save can't slip in between lookup and delete
+        PendingWrite pending;
         lock.writeLock().lock();
         try {
-            List<Vacancy> userVacancies = findByUserId(userId);
-            for (Vacancy vacancy : userVacancies) {
-                delete(vacancy.getId());
-            }
+            pending = stageChanges(userVacancyIds(userId), List.of());
         } finally {
             lock.writeLock().unlock();
         }
+        completeWrite(pending);
     }
     
     @Override
     public List<Vacancy> findByUserIdAndCreatedAfter(Long userId, LocalDateTime after) {
+        if (isMemoryResident()) {
+            return findAllByKeys(byCreatedDate.idsAfter(userId, after));
+        }
         return findByUserId(userId).stream()
                 .filter(vacancy -> vacancy.getCreatedDate() != null && vacancy.getCreatedDate().isAfter(after))
                 .collect(Collectors.toList());
@@ -55,21 +73,56 @@ public class JsonVacancyRepository extends AbstractJsonRepository<Vacancy, Strin
     
     @Override
     public void saveUserVacancies(Long userId, List<Vacancy> vacancies) {
+        PendingWrite pending;
         lock.writeLock().lock();
         try {
-            // First delete existing vacancies for the user
-            deleteByUserId(userId);
-            
-            // Then save new vacancies with composite keys
+            List<Vacancy> replacements = new ArrayList<>(vacancies.size());
             for (int i = 0; i < vacancies.size(); i++) {
                 Vacancy vacancy = vacancies.get(i);
                 // Create composite key: userId_originalId or userId_index if no original ID
                 String compositeId = userId + "_" + (vacancy.getId() != null ? vacancy.getId() : String.valueOf(i));
                 vacancy.setId(compositeId);
-                save(vacancy);
+                replacements.add(vacancy);
             }
+            
+            // Existing vacancies for the user are dropped and the new ones stored in the same write
+            pending = stageChanges(userVacancyIds(userId), replacements);
         } finally {
             lock.writeLock().unlock();
         }
+        completeWrite(pending);
+    }
+    
+    @Override
+    protected void onSaved(String key, Vacancy previous, Vacancy entity) {
+        byCreatedDate.put(ownerOf(key), key, entity.getCreatedDate());
+    }
+    
+    @Override
+    protected void onDeleted(String key, Vacancy removed) {
+        byCreatedDate.remove(key);
+    }
+    
+    // Callers hold the write lock; the index already reflects writes that are not yet published
+    private List<String> userVacancyIds(Long userId) {
+        if (isMemoryResident()) {
+            return byCreatedDate.ids(userId);
+        }
+        return findByUserId(userId).stream()
+                .map(Vacancy::getId)
+                .toList();
+    }
+    
+    // Vacancies are keyed userId_vacancyId; ids without that prefix belong to no user
+    private static Long ownerOf(String id) {
+        int separator = id == null ? -1 : id.indexOf('_');
+        if (separator <= 0) {
+            return null;
+        }
+        try {
+            return Long.parseLong(id.substring(0, separator));
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 }
\ No newline at end of file
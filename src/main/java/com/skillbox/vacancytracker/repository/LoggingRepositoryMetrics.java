@@ -0,0 +1,156 @@
+package com.skillbox.vacancytracker.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Aggregates measurements in memory and logs one summary per repository each time it runs.
+// Counters and histograms cover the interval since the previous summary; file size and record count are the latest seen.
+public class LoggingRepositoryMetrics implements RepositoryMetrics, Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(LoggingRepositoryMetrics.class);
+    
+    private final Map<String, RepositoryStats> stats = new ConcurrentSkipListMap<>();
+    
+    @Override
+    public void recordOperation(String repository, String operation, long nanos) {
+        statsOf(repository).operations.computeIfAbsent(operation, key -> new Histogram()).record(nanos);
+    }
+    
+    @Override
+    public void recordLock(String repository, long waitNanos, long holdNanos) {
+        RepositoryStats repositoryStats = statsOf(repository);
+        repositoryStats.lockWait.record(waitNanos);
+        repositoryStats.lockHold.record(holdNanos);
+    }
+    
+    @Override
+    public void recordRead(String repository, long bytes) {
+        statsOf(repository).bytesRead.add(bytes);
+    }
+    
+    @Override
+    public void recordWrite(String repository, int changes, long bytes) {
+        RepositoryStats repositoryStats = statsOf(repository);
+        repositoryStats.changes.add(changes);
+        repositoryStats.bytesWritten.add(bytes);
+    }
+    
+    @Override
+    public void recordFile(String repository, long bytes, int records) {
+        RepositoryStats repositoryStats = statsOf(repository);
+        repositoryStats.fileBytes = bytes;
+        repositoryStats.records = records;
+    }
+    
+    @Override
+    public void run() {
+        stats.forEach((repository, repositoryStats) -> {
+            String summary = repositoryStats.summarizeAndReset();
+            if (summary != null) {
+                logger.info("Repository {}: {}", repository, summary);
+            }
+        });
+    }
+    
+    private RepositoryStats statsOf(String repository) {
+        return stats.computeIfAbsent(repository, key -> new RepositoryStats());
+    }
+    
+    private static final class RepositoryStats {
+        private final Map<String, Histogram> operations = new ConcurrentHashMap<>();
+        private final Histogram lockWait = new Histogram();
+        private final Histogram lockHold = new Histogram();
+        private final LongAdder bytesRead = new LongAdder();
+        private final LongAdder bytesWritten = new LongAdder();
+        private final LongAdder changes = new LongAdder();
+        private volatile long fileBytes;
+        private volatile int records;
+        
+        // Null when the repository saw no operations during the interval; idle operations are left out
+        private String summarizeAndReset() {
+            StringBuilder summary = new StringBuilder();
+            new ConcurrentSkipListMap<>(operations).forEach((operation, histogram) -> {
+                String operationSummary = histogram.summarizeAndReset();
+                if (operationSummary != null) {
+                    summary.append(operation).append(' ').append(operationSummary).append("; ");
+                }
+            });
+            if (summary.isEmpty()) {
+                lockWait.summarizeAndReset();
+                lockHold.summarizeAndReset();
+                bytesRead.reset();
+                bytesWritten.reset();
+                changes.reset();
+                return null;
+            }
+            long read = bytesRead.sumThenReset();
+            long written = bytesWritten.sumThenReset();
+            long changed = changes.sumThenReset();
+            String wait = lockWait.summarizeAndReset();
+            String hold = lockHold.summarizeAndReset();
+            if (wait != null) {
+                summary.append("lock wait ").append(wait).append(", hold ").append(hold).append("; ");
+            }
+            summary.append("read ").append(read).append(" B, wrote ").append(written).append(" B for ")
+                    .append(changed).append(" changes");
+            if (changed > 0) {
+                summary.append(" (").append(written / changed).append(" B per change)");
+            }
+            summary.append("; file ").append(fileBytes).append(" B, ").append(records).append(" records");
+            return summary.toString();
+        }
+    }
+    
+    // Power-of-two microsecond buckets: bucket i holds durations below 2^i us, so percentiles are upper bounds
+    private static final class Histogram {
+        private static final int BUCKETS = 40;
+        
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder totalNanos = new LongAdder();
+        
+        private void record(long nanos) {
+            long micros = Math.max(0, nanos / 1_000);
+            int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            counts.incrementAndGet(bucket);
+            totalNanos.add(nanos);
+        }
+        
+        private String summarizeAndReset() {
+            long[] snapshot = new long[BUCKETS];
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = counts.getAndSet(i, 0);
+                count += snapshot[i];
+            }
+            long total = totalNanos.sumThenReset();
+            if (count == 0) {
+                return null;
+            }
+            return String.format("n=%d avg=%.2fms p50<%s p99<%s max<%s", count, total / 1e6 / count,
+                    format(percentile(snapshot, count, 0.50)), format(percentile(snapshot, count, 0.99)),
+                    format(percentile(snapshot, count, 1.0)));
+        }
+        
+        private static int percentile(long[] snapshot, long count, double quantile) {
+            long rank = (long) Math.ceil(count * quantile);
+            long seen = 0;
+            for (int i = 0; i < snapshot.length; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    return i;
+                }
+            }
+            return snapshot.length - 1;
+        }
+        
+        private static String format(int bucket) {
+            long micros = 1L << bucket;
+            return micros < 1_000 ? micros + "us" : micros < 1_000_000 ? micros / 1_000 + "ms" : micros / 1_000_000 + "s";
+        }
+    }
+}
@@ -0,0 +1,679 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.skillbox.vacancytracker.config.StorageConfig;
+import com.skillbox.vacancytracker.exception.RepositoryException;
+import com.skillbox.vacancytracker.model.UserVacancy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Append-only log of user vacancy records in memory-mapped regions, with the offset of every live record kept in memory.
+// A record is: length, status, is_new, user id, notified_at, id, then the entity in the configured storage format.
+// The length is written last, so a record torn by a crash reads as the end of the log.
+public class MappedUserVacancyRepository implements UserVacancyRepository {
+    private static final Logger logger = LoggerFactory.getLogger(MappedUserVacancyRepository.class);
+    public static final String USER_VACANCY_LOG_FILE = "user_vacancies.log";
+    private static final String MIGRATED_SUFFIX = ".migrated";
+    static final int DEFAULT_REGION_BYTES = 64 * 1024 * 1024;
+    
+    private static final int STATUS_OFFSET = 4;
+    private static final int NEW_OFFSET = 5;
+    private static final int USER_OFFSET = 6;
+    private static final int NOTIFIED_SECONDS_OFFSET = 14;
+    private static final int NOTIFIED_NANOS_OFFSET = 22;
+    private static final int ID_LENGTH_OFFSET = 26;
+    private static final int HEADER_BYTES = 28;
+    
+    private static final byte LIVE = 1;
+    private static final byte DEAD = 0;
+    // Fills the tail of a region when the next record does not fit in it
+    private static final int REGION_END = -1;
+    private static final long NO_VALUE = Long.MIN_VALUE;
+    // Below this much garbage a rewrite costs more than the space it gives back
+    private static final long MIN_DEAD_BYTES_TO_COMPACT = 1024 * 1024;
+    private static final Comparator<UserVacancy> NEWEST_FIRST =
+            Comparator.comparingLong(UserVacancy::effectiveSequence).reversed();
+    
+    private final Path logFile;
+    private final int regionBytes;
+    private final ObjectWriter writer;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService compactor;
+    private volatile RepositoryMetrics metrics = RepositoryMetrics.NONE;
+    
+    // Guarded by lock: reads take the read lock, appends, flag flips and compaction the write lock
+    private MappedLog log;
+    private Map<String, Long> offsets = new HashMap<>();
+    private final Map<Long, Set<String>> idsByUser = new HashMap<>();
+    private long liveBytes;
+    private long deadBytes;
+    private boolean closed;
+    
+    public MappedUserVacancyRepository(String dataDirectory, StorageConfig storageConfig) {
+        this(dataDirectory, storageConfig, DEFAULT_REGION_BYTES);
+    }
+    
+    MappedUserVacancyRepository(String dataDirectory, StorageConfig storageConfig, int regionBytes) {
+        this.logFile = Path.of(dataDirectory, USER_VACANCY_LOG_FILE);
+        this.regionBytes = regionBytes;
+        this.writer = StorageCodec.mapper(storageConfig.format()).writerFor(UserVacancy.class);
+        try {
+            Files.createDirectories(logFile.getParent());
+            this.log = new MappedLog(logFile, regionBytes, false);
+            scan();
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to open user vacancy log: " + e.getMessage(), e);
+        }
+        importLegacyFile(dataDirectory, storageConfig);
+        
+        this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "repository-maintenance-" + USER_VACANCY_LOG_FILE);
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = storageConfig.compactionIntervalSeconds();
+        compactor.scheduleWithFixedDelay(this::compactIfWorthwhile, interval, interval, TimeUnit.SECONDS);
+        logger.info("User vacancy log opened with {} records, {} live and {} dead bytes",
+                offsets.size(), liveBytes, deadBytes);
+    }
+    
+    public void setMetrics(RepositoryMetrics metrics) {
+        this.metrics = metrics;
+        lock.readLock().lock();
+        try {
+            metrics.recordFile(USER_VACANCY_LOG_FILE, log.end, offsets.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public Optional<UserVacancy> findById(String id) {
+        long requested = System.nanoTime();
+        lock.readLock().lock();
+        long acquired = System.nanoTime();
+        try {
+            Long offset = offsets.get(id);
+            return offset == null ? Optional.empty() : Optional.of(read(offset));
+        } finally {
+            lock.readLock().unlock();
+            record("findById", requested, acquired);
+        }
+    }
+    
+    @Override
+    public boolean exists(String id) {
+        lock.readLock().lock();
+        try {
+            return offsets.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public void save(UserVacancy entity) {
+        saveAll(Collections.singletonList(entity));
+    }
+    
+    @Override
+    public void saveAll(Collection<? extends UserVacancy> entities) {
+        long requested = System.nanoTime();
+        lock.writeLock().lock();
+        long acquired = System.nanoTime();
+        try {
+            long start = log.end;
+            for (UserVacancy entity : entities) {
+                put(entity);
+            }
+            metrics.recordWrite(USER_VACANCY_LOG_FILE, entities.size(), log.end - start);
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to append to user vacancy log: " + e.getMessage(), e);
+        } finally {
+            lock.writeLock().unlock();
+            record("save", requested, acquired);
+        }
+    }
+    
+    @Override
+    public void delete(String id) {
+        deleteAll(Collections.singletonList(id));
+    }
+    
+    @Override
+    public void deleteAll(Collection<? extends String> ids) {
+        long requested = System.nanoTime();
+        lock.writeLock().lock();
+        long acquired = System.nanoTime();
+        try {
+            for (String id : ids) {
+                Long offset = offsets.remove(id);
+                if (offset != null) {
+                    retire(id, offset, NO_VALUE);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+            record("delete", requested, acquired);
+        }
+    }
+    
+    @Override
+    public List<UserVacancy> findAll() {
+        long requested = System.nanoTime();
+        lock.readLock().lock();
+        long acquired = System.nanoTime();
+        try {
+            List<UserVacancy> all = new ArrayList<>(offsets.size());
+            for (String id : idsInLogOrder()) {
+                all.add(read(offsets.get(id)));
+            }
+            return all;
+        } finally {
+            lock.readLock().unlock();
+            record("findAll", requested, acquired);
+        }
+    }
+    
+    // Records are decoded one at a time; ids removed or moved by compaction since the stream began are looked up afresh
+    @Override
+    public Stream<UserVacancy> stream() {
+        List<String> ids;
+        lock.readLock().lock();
+        try {
+            ids = idsInLogOrder();
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ids.stream().map(this::findById).flatMap(Optional::stream);
+    }
+    
+    @Override
+    public List<UserVacancy> findByUserId(Long userId) {
+        long requested = System.nanoTime();
+        lock.readLock().lock();
+        long acquired = System.nanoTime();
+        try {
+            List<UserVacancy> userVacancies = new ArrayList<>();
+            for (String id : idsByUser.getOrDefault(userId, Set.of())) {
+                userVacancies.add(read(offsets.get(id)));
+            }
+            return userVacancies;
+        } finally {
+            lock.readLock().unlock();
+            record("findByUserId", requested, acquired);
+        }
+    }
+    
+    // The flag lives in the record header, so already notified records are skipped without being decoded
+    @Override
+    public List<UserVacancy> findNewByUserId(Long userId) {
+        long requested = System.nanoTime();
+        lock.readLock().lock();
+        long acquired = System.nanoTime();
+        try {
+            List<UserVacancy> userVacancies = new ArrayList<>();
+            for (String id : idsByUser.getOrDefault(userId, Set.of())) {
+                long offset = offsets.get(id);
+                if (log.buffer(offset).get(log.position(offset) + NEW_OFFSET) == 1) {
+                    userVacancies.add(read(offset));
+                }
+            }
+            userVacancies.sort(NEWEST_FIRST);
+            return userVacancies;
+        } finally {
+            lock.readLock().unlock();
+            record("findNewByUserId", requested, acquired);
+        }
+    }
+    
+    @Override
+    public void markAsNotified(String id) {
+        markAllAsNotified(Collections.singletonList(id));
+    }
+    
+    // Notification only rewrites header fields in place; the encoded entity is never touched
+    @Override
+    public void markAllAsNotified(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        LocalDateTime notifiedAt = LocalDateTime.now();
+        long requested = System.nanoTime();
+        lock.writeLock().lock();
+        long acquired = System.nanoTime();
+        try {
+            for (String id : ids) {
+                Long offset = offsets.get(id);
+                if (offset != null) {
+                    MappedByteBuffer buffer = log.buffer(offset);
+                    int position = log.position(offset);
+                    writeNotifiedAt(buffer, position, notifiedAt);
+                    buffer.put(position + NEW_OFFSET, (byte) 0);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+            record("markAsNotified", requested, acquired);
+        }
+    }
+    
+    @Override
+    public void deleteByUserId(Long userId) {
+        long requested = System.nanoTime();
+        lock.writeLock().lock();
+        long acquired = System.nanoTime();
+        try {
+            Set<String> ids = idsByUser.remove(userId);
+            if (ids == null) {
+                return;
+            }
+            for (String id : ids) {
+                Long offset = offsets.remove(id);
+                if (offset != null) {
+                    markDead(offset);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+            record("deleteByUserId", requested, acquired);
+        }
+    }
+    
+    // Mapped pages reach the disk on their own; this forces them so a power loss cannot take back earlier writes
+    @Override
+    public void flush() {
+        long requested = System.nanoTime();
+        lock.readLock().lock();
+        long acquired = System.nanoTime();
+        try {
+            log.force();
+        } finally {
+            lock.readLock().unlock();
+            record("flush", requested, acquired);
+        }
+    }
+    
+    @Override
+    public long storageBytes() {
+        lock.readLock().lock();
+        try {
+            return log.end;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public void compact() {
+        long requested = System.nanoTime();
+        lock.writeLock().lock();
+        long acquired = System.nanoTime();
+        try {
+            if (!closed && deadBytes > 0) {
+                rewrite();
+            }
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to compact user vacancy log: " + e.getMessage(), e);
+        } finally {
+            lock.writeLock().unlock();
+            record("compact", requested, acquired);
+        }
+    }
+    
+    @Override
+    public void close() {
+        compactor.shutdown();
+        try {
+            if (!compactor.awaitTermination(10, TimeUnit.SECONDS)) {
+                compactor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            compactor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        
+        lock.writeLock().lock();
+        try {
+            if (!closed) {
+                closed = true;
+                log.close(true);
+                logger.info("Repository {} closed", USER_VACANCY_LOG_FILE);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to close user vacancy log", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    long deadBytes() {
+        lock.readLock().lock();
+        try {
+            return deadBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void compactIfWorthwhile() {
+        try {
+            long requested = System.nanoTime();
+            lock.writeLock().lock();
+            long acquired = System.nanoTime();
+            boolean rewritten = false;
+            try {
+                if (!closed && deadBytes >= MIN_DEAD_BYTES_TO_COMPACT && deadBytes > liveBytes) {
+                    rewrite();
+                    rewritten = true;
+                }
+            } finally {
+                lock.writeLock().unlock();
+                // Most runs find nothing to do; only real compactions are worth measuring
+                if (rewritten) {
+                    record("compact", requested, acquired);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Background maintenance failed for {}", logFile.toAbsolutePath(), e);
+        }
+    }
+    
+    private void record(String operation, long requested, long acquired) {
+        long released = System.nanoTime();
+        metrics.recordLock(USER_VACANCY_LOG_FILE, acquired - requested, released - acquired);
+        metrics.recordOperation(USER_VACANCY_LOG_FILE, operation, released - requested);
+    }
+    
+    private void put(UserVacancy entity) throws IOException {
+        if (entity.getSequence() == null) {
+            Long existing = offsets.get(entity.getId());
+            entity.assignSequence(existing == null ? null : read(existing));
+        }
+        byte[] id = entity.getId().getBytes(StandardCharsets.UTF_8);
+        byte[] payload = writer.writeValueAsBytes(entity);
+        int length = HEADER_BYTES + id.length + payload.length;
+        if (length > regionBytes) {
+            throw new RepositoryException("User vacancy " + entity.getId() + " does not fit in a log region");
+        }
+        
+        long userId = entity.getUserId() == null ? NO_VALUE : entity.getUserId();
+        ByteBuffer record = ByteBuffer.allocate(length)
+                .putInt(0, length)
+                .put(STATUS_OFFSET, LIVE)
+                .put(NEW_OFFSET, (byte) (entity.isNew() ? 1 : 0))
+                .putLong(USER_OFFSET, userId)
+                .putShort(ID_LENGTH_OFFSET, (short) id.length)
+                .put(HEADER_BYTES, id)
+                .put(HEADER_BYTES + id.length, payload);
+        writeNotifiedAt(record, 0, entity.getNotifiedAt());
+        
+        long offset = log.append(record.array());
+        Long previous = offsets.put(entity.getId(), offset);
+        // The old version is only marked dead once the new one is complete; after a crash in between, the later copy wins
+        if (previous != null) {
+            retire(entity.getId(), previous, userId);
+        }
+        index(entity.getId(), userId, length);
+    }
+    
+    private void index(String id, long userId, int length) {
+        if (userId != NO_VALUE) {
+            idsByUser.computeIfAbsent(userId, key -> new LinkedHashSet<>()).add(id);
+        }
+        liveBytes += length;
+    }
+    
+    private void retire(String id, long offset, long keptUserId) {
+        long userId = log.buffer(offset).getLong(log.position(offset) + USER_OFFSET);
+        if (userId != keptUserId && userId != NO_VALUE) {
+            Set<String> ids = idsByUser.get(userId);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                idsByUser.remove(userId);
+            }
+        }
+        markDead(offset);
+    }
+    
+    private void markDead(long offset) {
+        MappedByteBuffer buffer = log.buffer(offset);
+        int position = log.position(offset);
+        buffer.put(position + STATUS_OFFSET, DEAD);
+        int length = buffer.getInt(position);
+        liveBytes -= length;
+        deadBytes += length;
+    }
+    
+    private UserVacancy read(long offset) {
+        MappedByteBuffer buffer = log.buffer(offset);
+        int position = log.position(offset);
+        int length = buffer.getInt(position);
+        int idLength = buffer.getShort(position + ID_LENGTH_OFFSET) & 0xffff;
+        byte[] payload = new byte[length - HEADER_BYTES - idLength];
+        buffer.get(position + HEADER_BYTES + idLength, payload);
+        try {
+            UserVacancy userVacancy = StorageCodec.mapper(StorageCodec.detect(payload))
+                    .readValue(payload, UserVacancy.class);
+            // Header fields are updated in place and take precedence over the encoded copy
+            userVacancy.setNew(buffer.get(position + NEW_OFFSET) == 1);
+            userVacancy.setNotifiedAt(readNotifiedAt(buffer, position));
+            return userVacancy;
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to read user vacancy at offset " + offset + ": " + e.getMessage(), e);
+        }
+    }
+    
+    private static String readId(ByteBuffer buffer, int position) {
+        byte[] id = new byte[buffer.getShort(position + ID_LENGTH_OFFSET) & 0xffff];
+        buffer.get(position + HEADER_BYTES, id);
+        return new String(id, StandardCharsets.UTF_8);
+    }
+    
+    private static void writeNotifiedAt(ByteBuffer buffer, int position, LocalDateTime notifiedAt) {
+        buffer.putLong(position + NOTIFIED_SECONDS_OFFSET,
+                notifiedAt == null ? NO_VALUE : notifiedAt.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(position + NOTIFIED_NANOS_OFFSET, notifiedAt == null ? 0 : notifiedAt.getNano());
+    }
+    
+    private static LocalDateTime readNotifiedAt(ByteBuffer buffer, int position) {
+        long seconds = buffer.getLong(position + NOTIFIED_SECONDS_OFFSET);
+        return seconds == NO_VALUE
+                ? null
+                : LocalDateTime.ofEpochSecond(seconds, buffer.getInt(position + NOTIFIED_NANOS_OFFSET), ZoneOffset.UTC);
+    }
+    
+    private List<String> idsInLogOrder() {
+        List<String> ids = new ArrayList<>(offsets.keySet());
+        ids.sort(Comparator.comparingLong(offsets::get));
+        return ids;
+    }
+    
+    // Rebuilds the index by walking the log from the start; runs once, before the repository is shared
+    private void scan() throws IOException {
+        long offset = 0;
+        long limit = log.size();
+        while (offset < limit) {
+            MappedByteBuffer buffer = log.map(log.regionIndex(offset));
+            int position = log.position(offset);
+            int length = position + Integer.BYTES <= regionBytes ? buffer.getInt(position) : REGION_END;
+            if (length == REGION_END) {
+                offset = (log.regionIndex(offset) + 1L) * regionBytes;
+                continue;
+            }
+            // Zero marks the end of the log; anything else out of range is a record torn by a crash
+            if (length < HEADER_BYTES || position + length > regionBytes) {
+                break;
+            }
+            
+            if (buffer.get(position + STATUS_OFFSET) == LIVE) {
+                String id = readId(buffer, position);
+                long userId = buffer.getLong(position + USER_OFFSET);
+                Long previous = offsets.put(id, offset);
+                if (previous != null) {
+                    retire(id, previous, userId);
+                }
+                index(id, userId, length);
+            } else {
+                deadBytes += length;
+            }
+            offset += length;
+        }
+        log.end = offset;
+    }
+    
+    // Copies live records into a fresh log, oldest first, then swaps it in atomically
+    private void rewrite() throws IOException {
+        long sizeBefore = log.end;
+        Path tempFile = logFile.resolveSibling(USER_VACANCY_LOG_FILE + ".compacting");
+        MappedLog compacted = new MappedLog(tempFile, regionBytes, true);
+        Map<String, Long> moved = new HashMap<>(offsets.size() * 4 / 3 + 1);
+        try {
+            for (String id : idsInLogOrder()) {
+                moved.put(id, compacted.append(log.copy(offsets.get(id))));
+            }
+            compacted.force();
+            Files.move(tempFile, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            compacted.close(false);
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        
+        log.close(false);
+        log = compacted;
+        offsets = moved;
+        deadBytes = 0;
+        metrics.recordWrite(USER_VACANCY_LOG_FILE, 0, log.end);
+        metrics.recordFile(USER_VACANCY_LOG_FILE, log.end, offsets.size());
+        logger.debug("Compacted user vacancy log from {} to {} bytes", sizeBefore, log.end);
+    }
+    
+    private void importLegacyFile(String dataDirectory, StorageConfig storageConfig) {
+        Path legacyFile = Path.of(dataDirectory, JsonUserVacancyRepository.USER_VACANCY_DATA_FILE);
+        if (!Files.isRegularFile(legacyFile)) {
+            return;
+        }
+        
+        // Saving is an upsert by id, so an import interrupted before the file is retired simply repeats
+        int imported = 0;
+        try (JsonUserVacancyRepository legacy = new JsonUserVacancyRepository(dataDirectory, storageConfig)) {
+            List<UserVacancy> userVacancies = legacy.findAll();
+            saveAll(userVacancies);
+            imported = userVacancies.size();
+        }
+        flush();
+        try {
+            Files.move(legacyFile, legacyFile.resolveSibling(legacyFile.getFileName() + MIGRATED_SUFFIX),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to retire migrated file " + legacyFile + ": " + e.getMessage(), e);
+        }
+        logger.info("Imported {} user vacancies from {} into the log", imported, legacyFile.getFileName());
+    }
+    
+    // A file mapped in fixed-size regions; records never straddle two regions, so each read is a single mapped get
+    private static final class MappedLog {
+        private final FileChannel channel;
+        private final int regionBytes;
+        private final List<MappedByteBuffer> regions = new ArrayList<>();
+        private long end;
+        
+        MappedLog(Path file, int regionBytes, boolean truncate) throws IOException {
+            this.channel = truncate
+                    ? FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+                    : FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                            StandardOpenOption.WRITE);
+            this.regionBytes = regionBytes;
+        }
+        
+        long size() throws IOException {
+            return channel.size();
+        }
+        
+        int regionIndex(long offset) {
+            return (int) (offset / regionBytes);
+        }
+        
+        int position(long offset) {
+            return (int) (offset % regionBytes);
+        }
+        
+        MappedByteBuffer buffer(long offset) {
+            return regions.get(regionIndex(offset));
+        }
+        
+        // Mapping past the end grows the file; the new pages read as zeros, which is the end-of-log marker
+        MappedByteBuffer map(int region) throws IOException {
+            while (regions.size() <= region) {
+                regions.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) regions.size() * regionBytes, regionBytes));
+            }
+            return regions.get(region);
+        }
+        
+        long append(byte[] record) throws IOException {
+            int position = position(end);
+            if (position + record.length > regionBytes) {
+                if (position + Integer.BYTES <= regionBytes) {
+                    map(regionIndex(end)).putInt(position, REGION_END);
+                }
+                end = (regionIndex(end) + 1L) * regionBytes;
+                position = 0;
+            }
+            long offset = end;
+            MappedByteBuffer buffer = map(regionIndex(offset));
+            buffer.put(position + Integer.BYTES, record, Integer.BYTES, record.length - Integer.BYTES);
+            buffer.putInt(position, record.length);
+            end = offset + record.length;
+            return offset;
+        }
+        
+        byte[] copy(long offset) {
+            MappedByteBuffer buffer = buffer(offset);
+            int position = position(offset);
+            byte[] record = new byte[buffer.getInt(position)];
+            buffer.get(position, record);
+            return record;
+        }
+        
+        void force() {
+            regions.forEach(MappedByteBuffer::force);
+        }
+        
+        // Trimming drops the zero-filled tail of the last region; mapped regions must not be read afterwards
+        void close(boolean trim) throws IOException {
+            force();
+            if (trim) {
+                channel.truncate(end);
+            }
+            channel.close();
+        }
+    }
+}
\ No newline at end of file
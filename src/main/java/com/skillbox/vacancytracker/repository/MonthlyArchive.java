@@ -0,0 +1,337 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillbox.vacancytracker.exception.RepositoryException;
+import com.skillbox.vacancytracker.model.UserVacancy;
+import com.skillbox.vacancytracker.util.JsonMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// One gzip file of JSON lines per month. Every append is a separate gzip member, which readers see as one stream.
+// The index records which months hold each user and how many bytes of every file are committed; bytes past that
+// are the remains of an interrupted append and are cut off on open.
+final class MonthlyArchive {
+    private static final Logger logger = LoggerFactory.getLogger(MonthlyArchive.class);
+    private static final String INDEX_FILE = "index.json";
+    private static final String FILE_SUFFIX = ".jsonl.gz";
+    
+    private final Path directory;
+    private final ObjectMapper objectMapper = JsonMapper.getInstance();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, NavigableSet<YearMonth>> monthsByUser = new HashMap<>();
+    private final Map<YearMonth, Long> committedBytes = new TreeMap<>();
+    
+    MonthlyArchive(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+            loadIndex();
+            for (Map.Entry<YearMonth, Long> month : committedBytes.entrySet()) {
+                Path file = fileOf(month.getKey());
+                if (Files.exists(file) && Files.size(file) > month.getValue()) {
+                    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                        channel.truncate(month.getValue());
+                    }
+                    logger.warn("Discarded an interrupted append to {}", file.getFileName());
+                }
+            }
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to open vacancy history: " + e.getMessage(), e);
+        }
+    }
+    
+    // The index is widened before the data is written and its lengths advanced after,
+    // so a crash can leave a month listed for a user without entries but never the reverse
+    void append(YearMonth month, Collection<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Entry entry : entries) {
+                monthsByUser.computeIfAbsent(entry.userId(), user -> new TreeSet<>()).add(month);
+            }
+            committedBytes.putIfAbsent(month, 0L);
+            saveIndex();
+            
+            Path file = fileOf(month);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.position(committedBytes.get(month));
+                ByteBuffer buffer = ByteBuffer.wrap(compress(entries));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+                committedBytes.put(month, channel.position());
+            }
+            saveIndex();
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to append vacancy history: " + e.getMessage(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Replays the month in order: later entries replace earlier ones and tombstones remove them
+    List<UserVacancy> read(YearMonth month, Long userId) {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(replay(month, userId).values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    NavigableSet<YearMonth> monthsOf(Long userId) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<YearMonth> months = monthsByUser.get(userId);
+            return months == null ? new TreeSet<>() : new TreeSet<>(months);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    NavigableSet<YearMonth> months() {
+        lock.readLock().lock();
+        try {
+            return new TreeSet<>(committedBytes.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    void forgetUser(Long userId) {
+        lock.writeLock().lock();
+        try {
+            monthsByUser.remove(userId);
+            saveIndex();
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to update vacancy history index: " + e.getMessage(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Folds superseded entries and tombstones into a single member
+    void compact(YearMonth month) {
+        lock.writeLock().lock();
+        try {
+            rewrite(month, replay(month, null).values());
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to compact vacancy history: " + e.getMessage(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // The selector sees the month's live records and returns the ids to drop; the month is then compacted without them
+    int purge(YearMonth month, Function<List<UserVacancy>, Collection<String>> selector) {
+        lock.writeLock().lock();
+        try {
+            Map<String, UserVacancy> live = replay(month, null);
+            Collection<String> expired = selector.apply(new ArrayList<>(live.values()));
+            int before = live.size();
+            live.keySet().removeAll(expired);
+            if (live.size() < before) {
+                rewrite(month, live.values());
+            }
+            return before - live.size();
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to purge vacancy history: " + e.getMessage(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // The index and the committed part of every month file, taken under one lock so they describe each other
+    Map<String, byte[]> export() {
+        lock.readLock().lock();
+        try {
+            Map<String, byte[]> files = new TreeMap<>();
+            Path indexFile = directory.resolve(INDEX_FILE);
+            if (Files.exists(indexFile)) {
+                files.put(INDEX_FILE, Files.readAllBytes(indexFile));
+            }
+            for (Map.Entry<YearMonth, Long> month : committedBytes.entrySet()) {
+                Path file = fileOf(month.getKey());
+                if (Files.exists(file)) {
+                    byte[] content = Files.readAllBytes(file);
+                    files.put(file.getFileName().toString(),
+                            Arrays.copyOf(content, (int) Math.min(content.length, month.getValue())));
+                }
+            }
+            return files;
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to read vacancy history: " + e.getMessage(), e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    long sizeBytes() {
+        lock.readLock().lock();
+        try {
+            return committedBytes.values().stream().mapToLong(Long::longValue).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void rewrite(YearMonth month, Collection<UserVacancy> records) throws IOException {
+        List<Entry> live = records.stream()
+                .map(Entry::of)
+                .toList();
+        Path file = fileOf(month);
+        Path tempFile = file.resolveSibling(file.getFileName() + ".compacting");
+        Files.write(tempFile, live.isEmpty() ? new byte[0] : compress(live));
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        committedBytes.put(month, Files.size(file));
+        saveIndex();
+    }
+    
+    private Map<String, UserVacancy> replay(YearMonth month, Long userId) {
+        Map<String, UserVacancy> records = new LinkedHashMap<>();
+        Path file = fileOf(month);
+        Long committed = committedBytes.get(month);
+        if (committed == null || committed == 0 || !Files.exists(file)) {
+            return records;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Entry entry = objectMapper.readValue(line, Entry.class);
+                if (userId != null && !userId.equals(entry.userId())) {
+                    continue;
+                }
+                if (entry.record() != null) {
+                    records.put(entry.id(), entry.record());
+                } else if (entry.id() != null) {
+                    records.remove(entry.id());
+                } else {
+                    records.values().removeIf(record -> entry.userId().equals(record.getUserId()));
+                }
+            }
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to read vacancy history: " + e.getMessage(), e);
+        }
+        return records;
+    }
+    
+    private byte[] compress(Collection<Entry> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            for (Entry entry : entries) {
+                writer.write(objectMapper.writeValueAsString(entry));
+                writer.write('\n');
+            }
+        }
+        return bytes.toByteArray();
+    }
+    
+    private void loadIndex() throws IOException {
+        Path indexFile = directory.resolve(INDEX_FILE);
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        Index index = objectMapper.readValue(indexFile.toFile(), Index.class);
+        index.users().forEach((userId, months) -> {
+            NavigableSet<YearMonth> parsed = new TreeSet<>();
+            months.forEach(month -> parsed.add(YearMonth.parse(month)));
+            monthsByUser.put(userId, parsed);
+        });
+        index.lengths().forEach((month, length) -> committedBytes.put(YearMonth.parse(month), length));
+    }
+    
+    private void saveIndex() throws IOException {
+        Map<Long, List<String>> users = new TreeMap<>();
+        monthsByUser.forEach((userId, months) -> users.put(userId, months.stream().map(YearMonth::toString).toList()));
+        Map<String, Long> lengths = new TreeMap<>();
+        committedBytes.forEach((month, length) -> lengths.put(month.toString(), length));
+        
+        Path indexFile = directory.resolve(INDEX_FILE);
+        Path tempFile = indexFile.resolveSibling(INDEX_FILE + ".tmp");
+        Files.write(tempFile, objectMapper.writeValueAsBytes(new Index(users, lengths)));
+        Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private Path fileOf(YearMonth month) {
+        return directory.resolve(month + FILE_SUFFIX);
+    }
+    
+    // A record, a tombstone for one id (no record), or a tombstone for all of a user's entries (no id either)
+    record Entry(
+        @JsonProperty("id")
+        String id,
+        
+        @JsonProperty("user_id")
+        Long userId,
+        
+        @JsonProperty("record")
+        UserVacancy record
+    ) {
+        static Entry of(UserVacancy record) {
+            return new Entry(record.getId(), record.getUserId(), record);
+        }
+        
+        static Entry deleted(String id, Long userId) {
+            return new Entry(id, userId, null);
+        }
+        
+        static Entry userDeleted(Long userId) {
+            return new Entry(null, userId, null);
+        }
+    }
+    
+    private record Index(
+        @JsonProperty("users")
+        Map<Long, List<String>> users,
+        
+        @JsonProperty("lengths")
+        Map<String, Long> lengths
+    ) {
+        private Index {
+            if (users == null) {
+                users = Map.of();
+            }
+            if (lengths == null) {
+                lengths = Map.of();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillbox.vacancytracker.exception.RepositoryException;
+import com.skillbox.vacancytracker.model.SearchCriteria;
+import com.skillbox.vacancytracker.util.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+// When each API query last succeeded, so the next poll asks only for vacancies modified since then.
+// Losing the file is harmless: queries without a watermark fall back to the API's default one-day window.
+// Watermarks are UTC, the zone the API reads modifiedFrom in.
+public class QueryWatermarkStore {
+    public static final String WATERMARK_FILE = "query_watermarks.json";
+    // Older watermarks (a long outage, a query nobody polled for a while) are not worth a deeper crawl than a new query
+    public static final Duration MAX_LOOKBACK = Duration.ofDays(1);
+    
+    private final Path file;
+    private final Duration overlap;
+    private final ObjectMapper objectMapper = JsonMapper.getInstance();
+    private final Map<String, LocalDateTime> watermarks = new TreeMap<>();
+    
+    public QueryWatermarkStore(String dataDirectory, Duration overlap) {
+        this.file = Path.of(dataDirectory).resolve(WATERMARK_FILE);
+        this.overlap = overlap;
+        try {
+            if (Files.isRegularFile(file)) {
+                watermarks.putAll(objectMapper.readValue(file.toFile(),
+                        new TypeReference<Map<String, LocalDateTime>>() {}));
+                // Earlier versions stored host-local times; one ahead of UTC would hold its query's window shut
+                LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+                watermarks.values().removeIf(watermark -> watermark.isAfter(now));
+            }
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to load query watermarks: " + e.getMessage(), e);
+        }
+    }
+    
+    // The overlap covers clock skew and vacancies whose modification became visible after the last poll started
+    public synchronized LocalDateTime modifiedSince(SearchCriteria query) {
+        LocalDateTime watermark = watermarks.get(keyOf(query));
+        if (watermark == null) {
+            return null;
+        }
+        LocalDateTime since = watermark.minus(overlap).truncatedTo(ChronoUnit.SECONDS);
+        return since.isBefore(LocalDateTime.now(ZoneOffset.UTC).minus(MAX_LOOKBACK)) ? null : since;
+    }
+    
+    // Takes the time each query was sent, not when it finished, and never moves a watermark back
+    public synchronized void advance(Map<SearchCriteria, LocalDateTime> fetched) {
+        if (fetched.isEmpty()) {
+            return;
+        }
+        fetched.forEach((query, sentAt) -> watermarks.merge(keyOf(query), sentAt,
+                (current, next) -> next.isAfter(current) ? next : current));
+        Path tempFile = file.resolveSibling(WATERMARK_FILE + ".tmp");
+        try {
+            Files.write(tempFile, objectMapper.writeValueAsBytes(watermarks));
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to save query watermarks: " + e.getMessage(), e);
+        }
+    }
+    
+    // The file's content as it would be saved now, for backups
+    public synchronized byte[] export() {
+        try {
+            return objectMapper.writeValueAsBytes(watermarks);
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to export query watermarks: " + e.getMessage(), e);
+        }
+    }
+    
+    // Only what reaches the API identifies a query; salary is filtered locally
+    static String keyOf(SearchCriteria query) {
+        return Objects.toString(query.getRegionCode(), "") + "|" + Objects.toString(query.getMinimumExperience(), "")
+                + "|" + Objects.toString(query.getKeyword(), "");
+    }
+}
\ No newline at end of file
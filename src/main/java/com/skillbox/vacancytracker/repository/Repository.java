@@ -1,9 +1,11 @@
 package com.skillbox.vacancytracker.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface Repository<T, ID> {
+public interface Repository<T, ID> extends AutoCloseable {
     Optional<T> findById(ID id);
     
     boolean exists(ID id);
@@ -13,4 +15,37 @@ public interface Repository<T, ID> {
     void delete(ID id);
     
     List<T> findAll();
+    
+    // Entities are produced one at a time; the stream holds resources until closed, so use try-with-resources
+    default Stream<T> stream() {
+        return findAll().stream();
+    }
+    
+    // Batch variants take the lock once and persist once for the whole collection
+    default void saveAll(Collection<? extends T> entities) {
+        entities.forEach(this::save);
+    }
+    
+    default void deleteAll(Collection<? extends ID> ids) {
+        ids.forEach(this::delete);
+    }
+    
+    // Persists buffered changes; repositories that write through on every call have nothing to do
+    default void flush() {
+    }
+    
+    // Bytes currently occupied on disk; 0 when the backend does not track it
+    default long storageBytes() {
+        return 0;
+    }
+    
+    // Rewrites storage so space freed by deletions is given back
+    default void compact() {
+        flush();
+    }
+    
+    @Override
+    default void close() {
+        flush();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.skillbox.vacancytracker.repository;
+
+// Receives measurements from the repository layer; every method defaults to doing nothing,
+// so an implementation only overrides what it aggregates. Calls come from writer and reader threads alike.
+public interface RepositoryMetrics {
+    RepositoryMetrics NONE = new RepositoryMetrics() {
+    };
+    
+    default void recordOperation(String repository, String operation, long nanos) {
+    }
+    
+    default void recordLock(String repository, long waitNanos, long holdNanos) {
+    }
+    
+    default void recordRead(String repository, long bytes) {
+    }
+    
+    // Bytes that reached disk for a number of changed records; their ratio is the write amplification
+    default void recordWrite(String repository, int changes, long bytes) {
+    }
+    
+    default void recordFile(String repository, long bytes, int records) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.skillbox.vacancytracker.repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+
+// Remembers which vacancy ids a user has already been offered, independently of the UserVacancy records
+public interface SeenVacancyRepository extends AutoCloseable {
+    List<String> filterUnseen(Long userId, Collection<String> vacancyIds);
+    
+    void markSeen(Long userId, Collection<String> vacancyIds);
+    
+    void forgetUser(Long userId);
+    
+    // Opaque per-user entries, so a user's state can be parked elsewhere and put back unchanged
+    long[] exportUser(Long userId);
+    
+    void importUser(Long userId, long[] entries);
+    
+    // Writes the whole index in the layout of its data file, so a restored copy loads like any other
+    void export(OutputStream out) throws IOException;
+    
+    @Override
+    void close();
+}
\ No newline at end of file
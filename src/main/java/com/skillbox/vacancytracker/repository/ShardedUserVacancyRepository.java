@@ -0,0 +1,197 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.skillbox.vacancytracker.config.StorageConfig;
+import com.skillbox.vacancytracker.model.UserVacancy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class ShardedUserVacancyRepository implements UserVacancyRepository {
+    private static final Logger logger = LoggerFactory.getLogger(ShardedUserVacancyRepository.class);
+    public static final String SHARD_DIRECTORY = "user_vacancy_shards";
+    
+    private final List<JsonUserVacancyRepository> shards;
+    
+    public ShardedUserVacancyRepository(String dataDirectory, StorageConfig storageConfig) {
+        int shardCount = storageConfig.userVacancyShards();
+        UserVacancyShardMigrator.migrate(dataDirectory, storageConfig);
+        
+        String shardDirectory = Path.of(dataDirectory, SHARD_DIRECTORY).toString();
+        List<JsonUserVacancyRepository> opened = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            opened.add(new JsonUserVacancyRepository(shardDirectory, shardFileName(i, shardCount), storageConfig));
+        }
+        this.shards = List.copyOf(opened);
+        logger.info("User vacancies sharded across {} files in {}", shardCount, shardDirectory);
+    }
+    
+    // Each shard reports under its own file name
+    public void setMetrics(RepositoryMetrics metrics) {
+        shards.forEach(shard -> shard.setMetrics(metrics));
+    }
+    
+    static String shardFileName(int shard, int shardCount) {
+        return "shard-" + shard + "-of-" + shardCount;
+    }
+    
+    static int shardIndex(Long userId, int shardCount) {
+        return Math.floorMod(Long.hashCode(userId == null ? 0L : userId), shardCount);
+    }
+    
+    @Override
+    public Optional<UserVacancy> findById(String id) {
+        Long userId = userIdPrefix(id);
+        if (userId != null) {
+            return shardFor(userId).findById(id);
+        }
+        return shards.stream()
+                .map(shard -> shard.findById(id))
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+    
+    @Override
+    public boolean exists(String id) {
+        return findById(id).isPresent();
+    }
+    
+    @Override
+    public void save(UserVacancy entity) {
+        shardFor(entity.getUserId()).save(entity);
+    }
+    
+    @Override
+    public void saveAll(Collection<? extends UserVacancy> entities) {
+        Map<JsonUserVacancyRepository, List<UserVacancy>> byShard = new LinkedHashMap<>();
+        for (UserVacancy entity : entities) {
+            byShard.computeIfAbsent(shardFor(entity.getUserId()), shard -> new ArrayList<>()).add(entity);
+        }
+        byShard.forEach(JsonUserVacancyRepository::saveAll);
+    }
+    
+    @Override
+    public void delete(String id) {
+        deleteAll(Collections.singletonList(id));
+    }
+    
+    @Override
+    public void deleteAll(Collection<? extends String> ids) {
+        groupByShard(ids).forEach(JsonUserVacancyRepository::deleteAll);
+    }
+    
+    @Override
+    public List<UserVacancy> findAll() {
+        List<UserVacancy> all = new ArrayList<>();
+        for (JsonUserVacancyRepository shard : shards) {
+            all.addAll(shard.findAll());
+        }
+        return all;
+    }
+    
+    @Override
+    public Stream<UserVacancy> stream() {
+        return shards.stream().flatMap(JsonUserVacancyRepository::stream);
+    }
+    
+    @Override
+    public List<UserVacancy> findByUserId(Long userId) {
+        return shardFor(userId).findByUserId(userId);
+    }
+    
+    @Override
+    public List<UserVacancy> findNewByUserId(Long userId) {
+        return shardFor(userId).findNewByUserId(userId);
+    }
+    
+    @Override
+    public List<UserVacancy> findNewByUserId(Long userId, long notifiedSequence) {
+        return shardFor(userId).findNewByUserId(userId, notifiedSequence);
+    }
+    
+    @Override
+    public void pruneNotified(Long userId, long notifiedSequence) {
+        shardFor(userId).pruneNotified(userId, notifiedSequence);
+    }
+    
+    @Override
+    public void markAsNotified(String id) {
+        markAllAsNotified(Collections.singletonList(id));
+    }
+    
+    @Override
+    public void markAllAsNotified(Collection<String> ids) {
+        groupByShard(ids).forEach(JsonUserVacancyRepository::markAllAsNotified);
+    }
+    
+    @Override
+    public void deleteByUserId(Long userId) {
+        shardFor(userId).deleteByUserId(userId);
+    }
+    
+    @Override
+    public void flush() {
+        shards.forEach(JsonUserVacancyRepository::flush);
+    }
+    
+    @Override
+    public long storageBytes() {
+        return shards.stream().mapToLong(JsonUserVacancyRepository::storageBytes).sum();
+    }
+    
+    @Override
+    public void compact() {
+        shards.forEach(JsonUserVacancyRepository::compact);
+    }
+    
+    @Override
+    public void close() {
+        shards.forEach(JsonUserVacancyRepository::close);
+    }
+    
+    private JsonUserVacancyRepository shardFor(Long userId) {
+        return shards.get(shardIndex(userId, shards.size()));
+    }
+    
+    // Ids built by UserVacancy start with the owner's userId, which points straight at the shard a record is saved
+    // to. Each shard gets one batch and ignores ids it does not hold, so no shard file is parsed per id; ids without
+    // that prefix go to every shard.
+    private Map<JsonUserVacancyRepository, List<String>> groupByShard(Collection<? extends String> ids) {
+        Map<JsonUserVacancyRepository, List<String>> byShard = new LinkedHashMap<>();
+        List<String> unrouted = new ArrayList<>();
+        for (String id : ids) {
+            Long userId = userIdPrefix(id);
+            if (userId != null) {
+                byShard.computeIfAbsent(shardFor(userId), shard -> new ArrayList<>()).add(id);
+            } else if (id != null) {
+                unrouted.add(id);
+            }
+        }
+        if (!unrouted.isEmpty()) {
+            for (JsonUserVacancyRepository shard : shards) {
+                byShard.computeIfAbsent(shard, s -> new ArrayList<>()).addAll(unrouted);
+            }
+        }
+        return byShard;
+    }
+    
+    private static Long userIdPrefix(String id) {
+        int separator = id == null ? -1 : id.indexOf('-', 1);
+        if (separator < 0) {
+            return null;
+        }
+        try {
+            return Long.parseLong(id.substring(0, separator));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.skillbox.vacancytracker.model.Vacancy;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface SharedVacancyRepository extends Repository<Vacancy, String> {
+    Map<String, Vacancy> findAllById(Collection<String> ids);
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.skillbox.vacancytracker.config.StorageFormat;
+import com.skillbox.vacancytracker.util.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Writes use the configured format; reads sniff the leading bytes, so files written in another format still load
+public final class StorageCodec {
+    private static final Map<StorageFormat, ObjectMapper> MAPPERS = new EnumMap<>(StorageFormat.class);
+    
+    static {
+        MAPPERS.put(StorageFormat.JSON, JsonMapper.getInstance());
+        MAPPERS.put(StorageFormat.SMILE, JsonMapper.forFactory(new SmileFactory()));
+        MAPPERS.put(StorageFormat.CBOR, JsonMapper.forFactory(new CBORFactory()));
+    }
+    
+    private StorageCodec() {
+    }
+    
+    public static ObjectMapper mapper(StorageFormat format) {
+        return MAPPERS.get(format);
+    }
+    
+    // JSON stays pretty-printed so data files remain readable by hand
+    public static ObjectWriter writer(StorageFormat format) {
+        ObjectMapper mapper = mapper(format);
+        return format == StorageFormat.JSON ? mapper.writerWithDefaultPrettyPrinter() : mapper.writer();
+    }
+    
+    public static StorageFormat detect(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return detect(in.readNBytes(3));
+        }
+    }
+    
+    public static StorageFormat detect(byte[] content) {
+        if (content.length == 0) {
+            return StorageFormat.JSON;
+        }
+        // Smile always starts with the ":)\n" header
+        if (content.length >= 3 && content[0] == ':' && content[1] == ')' && content[2] == '\n') {
+            return StorageFormat.SMILE;
+        }
+        // CBOR maps are major type 5 (0xa0-0xbb, 0xbf indefinite); 0xd9 opens the self-describe tag
+        int first = content[0] & 0xff;
+        if ((first >= 0xa0 && first <= 0xbf) || first == 0xd9) {
+            return StorageFormat.CBOR;
+        }
+        return StorageFormat.JSON;
+    }
+}
\ No newline at end of file
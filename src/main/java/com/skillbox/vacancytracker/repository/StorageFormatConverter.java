@@ -0,0 +1,120 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.skillbox.vacancytracker.config.StorageFormat;
+import com.skillbox.vacancytracker.exception.RepositoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+// Rewrites the data files of a stopped bot into another storage format, token by token without building a tree
+public final class StorageFormatConverter {
+    private static final Logger logger = LoggerFactory.getLogger(StorageFormatConverter.class);
+    
+    private StorageFormatConverter() {
+    }
+    
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            logger.error("Usage: StorageFormatConverter <data_directory> <json|smile|cbor>");
+            System.exit(2);
+        }
+        StorageFormat target = StorageFormat.valueOf(args[1].toUpperCase(Locale.ROOT));
+        List<Report> reports = convert(Path.of(args[0]), target);
+        reports.forEach(report -> logger.info("{}", report.describe()));
+        logger.info("Converted {} files to {}", reports.size(), target);
+    }
+    
+    public static List<Report> convert(Path dataDirectory, StorageFormat target) {
+        List<Report> reports = new ArrayList<>();
+        for (Path file : findDataFiles(dataDirectory)) {
+            try {
+                StorageFormat source = StorageCodec.detect(file);
+                if (source != target) {
+                    reports.add(convertFile(file, source, target));
+                }
+            } catch (IOException e) {
+                throw new RepositoryException("Failed to convert " + file + ": " + e.getMessage(), e);
+            }
+        }
+        return reports;
+    }
+    
+    private static Report convertFile(Path file, StorageFormat source, StorageFormat target) throws IOException {
+        long bytesBefore = Files.size(file);
+        long parseBefore = timeParse(file, source);
+        
+        Path tempFile = file.resolveSibling(file.getFileName() + ".converting");
+        try (JsonParser parser = StorageCodec.mapper(source).createParser(file.toFile());
+             OutputStream out = Files.newOutputStream(tempFile);
+             JsonGenerator generator = StorageCodec.mapper(target).createGenerator(out)) {
+            if (target == StorageFormat.JSON) {
+                generator.useDefaultPrettyPrinter();
+            }
+            if (parser.nextToken() != null) {
+                generator.copyCurrentStructure(parser);
+            }
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        
+        return new Report(file.getFileName().toString(), source, target, bytesBefore, Files.size(file),
+                parseBefore, timeParse(file, target));
+    }
+    
+    // Pure tokenizing cost, which is what every full reread of a data file pays before databinding
+    private static long timeParse(Path file, StorageFormat format) throws IOException {
+        long start = System.nanoTime();
+        try (JsonParser parser = StorageCodec.mapper(format).createParser(file.toFile())) {
+            while (parser.nextToken() != null) {
+                parser.skipChildren();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+    
+    private static List<Path> findDataFiles(Path dataDirectory) {
+        List<Path> files = new ArrayList<>();
+        for (String name : List.of(JsonUserRepository.USER_DATA_FILE, JsonVacancyRepository.VACANCY_DATA_FILE,
+                JsonUserVacancyRepository.USER_VACANCY_DATA_FILE, JsonSharedVacancyRepository.SHARED_VACANCY_DATA_FILE)) {
+            Path file = dataDirectory.resolve(name);
+            if (Files.isRegularFile(file)) {
+                files.add(file);
+            }
+        }
+        Path shardDirectory = dataDirectory.resolve(ShardedUserVacancyRepository.SHARD_DIRECTORY);
+        if (Files.isDirectory(shardDirectory)) {
+            try (Stream<Path> shards = Files.list(shardDirectory)) {
+                shards.filter(path -> path.getFileName().toString().matches("shard-\\d+-of-\\d+"))
+                        .sorted()
+                        .forEach(files::add);
+            } catch (IOException e) {
+                throw new RepositoryException("Failed to list shards in " + shardDirectory + ": " + e.getMessage(), e);
+            }
+        }
+        return files;
+    }
+    
+    public record Report(String file, StorageFormat from, StorageFormat to, long bytesBefore, long bytesAfter,
+                         long parseNanosBefore, long parseNanosAfter) {
+        
+        public String describe() {
+            return String.format(Locale.ROOT, "%s: %s -> %s, %d -> %d bytes (%.1f%%), parse %.2f -> %.2f ms",
+                    file, from, to, bytesBefore, bytesAfter, percent(bytesAfter, bytesBefore),
+                    parseNanosBefore / 1_000_000.0, parseNanosAfter / 1_000_000.0);
+        }
+        
+        private static double percent(long after, long before) {
+            return before == 0 ? 0 : (after - before) * 100.0 / before;
+        }
+    }
+}
\ No newline at end of file
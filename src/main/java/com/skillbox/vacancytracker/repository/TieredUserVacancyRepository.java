@@ -0,0 +1,264 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.skillbox.vacancytracker.model.UserVacancy;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// Keeps recent records in the wrapped repository and moves delivered history into monthly gzip files.
+// Records still waiting for delivery never leave the hot tier, so notification queries only touch it.
+public class TieredUserVacancyRepository implements UserVacancyRepository {
+    public static final String HISTORY_DIRECTORY = "user_vacancy_history";
+    
+    private final UserVacancyRepository hot;
+    private final MonthlyArchive cold;
+    // Months that received tombstones since startup; compaction folds them away
+    private final Set<YearMonth> dirtyMonths = ConcurrentHashMap.newKeySet();
+    // Archive work only; the hot tier reports through its own metrics
+    private volatile RepositoryMetrics metrics = RepositoryMetrics.NONE;
+    
+    public TieredUserVacancyRepository(UserVacancyRepository hot, String dataDirectory) {
+        this.hot = hot;
+        this.cold = new MonthlyArchive(Path.of(dataDirectory).resolve(HISTORY_DIRECTORY));
+    }
+    
+    public void setMetrics(RepositoryMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    // Appended to the archive before leaving the hot tier: a crash in between leaves a duplicate, never a gap
+    public int moveToCold(LocalDateTime cutoff, Predicate<UserVacancy> delivered) {
+        long started = System.nanoTime();
+        Map<YearMonth, List<UserVacancy>> byMonth = new TreeMap<>();
+        for (UserVacancy record : hot.findAll()) {
+            if (record.getFoundAt() != null && record.getFoundAt().isBefore(cutoff) && delivered.test(record)) {
+                byMonth.computeIfAbsent(YearMonth.from(record.getFoundAt()), month -> new ArrayList<>()).add(record);
+            }
+        }
+        int moved = 0;
+        for (Map.Entry<YearMonth, List<UserVacancy>> month : byMonth.entrySet()) {
+            cold.append(month.getKey(), month.getValue().stream().map(MonthlyArchive.Entry::of).toList());
+            hot.deleteAll(month.getValue().stream().map(UserVacancy::getId).toList());
+            moved += month.getValue().size();
+        }
+        record("moveToCold", started);
+        return moved;
+    }
+    
+    // The hot tier alone, for maintenance that must not pull the whole archive into memory
+    public UserVacancyRepository hotTier() {
+        return hot;
+    }
+    
+    // Newest month first, with one month in memory at a time; see MonthlyArchive.purge for the selector
+    public int purgeCold(Function<List<UserVacancy>, Collection<String>> selector) {
+        long started = System.nanoTime();
+        int purged = 0;
+        for (YearMonth month : cold.months().descendingSet()) {
+            purged += cold.purge(month, selector);
+        }
+        record("purge", started);
+        return purged;
+    }
+    
+    // Archive files by name, relative to HISTORY_DIRECTORY, still compressed
+    public Map<String, byte[]> exportCold() {
+        long started = System.nanoTime();
+        Map<String, byte[]> files = cold.export();
+        record("export", started);
+        return files;
+    }
+    
+    @Override
+    public Optional<UserVacancy> findById(String id) {
+        Optional<UserVacancy> record = hot.findById(id);
+        if (record.isPresent()) {
+            return record;
+        }
+        Long userId = ownerOf(id);
+        if (userId == null) {
+            return Optional.empty();
+        }
+        return findColdByUserId(userId).stream()
+                .filter(userVacancy -> id.equals(userVacancy.getId()))
+                .findFirst();
+    }
+    
+    @Override
+    public boolean exists(String id) {
+        return findById(id).isPresent();
+    }
+    
+    @Override
+    public void save(UserVacancy entity) {
+        hot.save(entity);
+    }
+    
+    @Override
+    public void saveAll(Collection<? extends UserVacancy> entities) {
+        hot.saveAll(entities);
+    }
+    
+    @Override
+    public void delete(String id) {
+        deleteAll(Collections.singletonList(id));
+    }
+    
+    @Override
+    public void deleteAll(Collection<? extends String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        hot.deleteAll(ids);
+        Map<YearMonth, List<MonthlyArchive.Entry>> tombstones = new TreeMap<>();
+        for (String id : ids) {
+            Long userId = ownerOf(id);
+            if (userId == null) {
+                continue;
+            }
+            for (YearMonth month : cold.monthsOf(userId)) {
+                tombstones.computeIfAbsent(month, key -> new ArrayList<>()).add(MonthlyArchive.Entry.deleted(id, userId));
+            }
+        }
+        appendTombstones(tombstones);
+    }
+    
+    @Override
+    public List<UserVacancy> findAll() {
+        long started = System.nanoTime();
+        Map<String, UserVacancy> merged = new LinkedHashMap<>();
+        for (YearMonth month : cold.months()) {
+            cold.read(month, null).forEach(record -> merged.put(record.getId(), record));
+        }
+        record("findAll", started);
+        hot.findAll().forEach(record -> merged.put(record.getId(), record));
+        return new ArrayList<>(merged.values());
+    }
+    
+    // A record present in both tiers (an interrupted move) is taken from the hot one
+    @Override
+    public List<UserVacancy> findByUserId(Long userId) {
+        Map<String, UserVacancy> merged = new LinkedHashMap<>();
+        findColdByUserId(userId).forEach(record -> merged.put(record.getId(), record));
+        hot.findByUserId(userId).forEach(record -> merged.put(record.getId(), record));
+        return new ArrayList<>(merged.values());
+    }
+    
+    @Override
+    public List<UserVacancy> findNewByUserId(Long userId) {
+        return hot.findNewByUserId(userId);
+    }
+    
+    @Override
+    public List<UserVacancy> findNewByUserId(Long userId, long notifiedSequence) {
+        return hot.findNewByUserId(userId, notifiedSequence);
+    }
+    
+    @Override
+    public void pruneNotified(Long userId, long notifiedSequence) {
+        hot.pruneNotified(userId, notifiedSequence);
+    }
+    
+    @Override
+    public void markAsNotified(String id) {
+        hot.markAsNotified(id);
+    }
+    
+    @Override
+    public void markAllAsNotified(Collection<String> ids) {
+        hot.markAllAsNotified(ids);
+    }
+    
+    @Override
+    public void deleteByUserId(Long userId) {
+        hot.deleteByUserId(userId);
+        Map<YearMonth, List<MonthlyArchive.Entry>> tombstones = new TreeMap<>();
+        for (YearMonth month : cold.monthsOf(userId)) {
+            tombstones.put(month, List.of(MonthlyArchive.Entry.userDeleted(userId)));
+        }
+        appendTombstones(tombstones);
+        cold.forgetUser(userId);
+    }
+    
+    @Override
+    public void flush() {
+        hot.flush();
+    }
+    
+    @Override
+    public long storageBytes() {
+        return hot.storageBytes() + cold.sizeBytes();
+    }
+    
+    @Override
+    public void compact() {
+        hot.compact();
+        List<YearMonth> months = List.copyOf(dirtyMonths);
+        if (months.isEmpty()) {
+            return;
+        }
+        long started = System.nanoTime();
+        for (YearMonth month : months) {
+            dirtyMonths.remove(month);
+            cold.compact(month);
+        }
+        record("compact", started);
+    }
+    
+    @Override
+    public void close() {
+        hot.close();
+    }
+    
+    private List<UserVacancy> findColdByUserId(Long userId) {
+        long started = System.nanoTime();
+        List<UserVacancy> records = new ArrayList<>();
+        for (YearMonth month : cold.monthsOf(userId)) {
+            records.addAll(cold.read(month, userId));
+        }
+        record("findByUserId", started);
+        return records;
+    }
+    
+    private void appendTombstones(Map<YearMonth, List<MonthlyArchive.Entry>> tombstones) {
+        if (tombstones.isEmpty()) {
+            return;
+        }
+        long started = System.nanoTime();
+        for (Map.Entry<YearMonth, List<MonthlyArchive.Entry>> month : tombstones.entrySet()) {
+            cold.append(month.getKey(), month.getValue());
+            dirtyMonths.add(month.getKey());
+        }
+        record("delete", started);
+    }
+    
+    private void record(String operation, long started) {
+        metrics.recordOperation(HISTORY_DIRECTORY, operation, System.nanoTime() - started);
+    }
+    
+    // Record ids are "<userId>-<vacancyId>"
+    private static Long ownerOf(String id) {
+        int separator = id.indexOf('-', 1);
+        if (separator < 0) {
+            return null;
+        }
+        try {
+            return Long.parseLong(id.substring(0, separator));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.skillbox.vacancytracker.repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Ids of each user's entities ordered by a timestamp or sequence, so ranges and the newest N come from a sorted view instead of a scan.
+// Readers need no lock; every id remembers the key it was filed under, so mutating a cached entity cannot strand it.
+final class TimeOrderedIndex<T extends Comparable<? super T>> {
+    private final Comparator<Key<T>> order = Comparator
+            .comparing((Key<T> key) -> key.time(), Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Key::id, Comparator.nullsLast(Comparator.naturalOrder()));
+    
+    private final Map<Long, NavigableSet<Key<T>>> byUser = new ConcurrentHashMap<>();
+    private final Map<String, Key<T>> keysById = new ConcurrentHashMap<>();
+    
+    void put(Long userId, String id, T time) {
+        remove(id);
+        if (userId == null) {
+            return;
+        }
+        Key<T> key = new Key<>(userId, time, id);
+        keysById.put(id, key);
+        byUser.computeIfAbsent(userId, user -> new ConcurrentSkipListSet<>(order)).add(key);
+    }
+    
+    void remove(String id) {
+        Key<T> key = keysById.remove(id);
+        if (key == null) {
+            return;
+        }
+        byUser.computeIfPresent(key.userId(), (user, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+    
+    // Drops every entry at or before the given time
+    void removeUpTo(Long userId, T upTo) {
+        NavigableSet<Key<T>> keys = byUser.get(userId);
+        if (keys == null) {
+            return;
+        }
+        for (Key<T> key : List.copyOf(keys.headSet(new Key<>(userId, upTo, null), true))) {
+            remove(key.id());
+        }
+    }
+    
+    // Oldest first; entities without a timestamp lead
+    List<String> ids(Long userId) {
+        return collect(byUser.get(userId), Integer.MAX_VALUE);
+    }
+    
+    // Strictly after the given time, oldest first, read off a tail view of the user's set
+    List<String> idsAfter(Long userId, T after) {
+        NavigableSet<Key<T>> keys = byUser.get(userId);
+        return keys == null ? List.of() : collect(tailAfter(keys, userId, after), Integer.MAX_VALUE);
+    }
+    
+    List<String> newest(Long userId, int limit) {
+        NavigableSet<Key<T>> keys = byUser.get(userId);
+        return keys == null ? List.of() : collect(keys.descendingSet(), limit);
+    }
+    
+    // Strictly after the given time, newest first
+    List<String> newestAfter(Long userId, T after) {
+        NavigableSet<Key<T>> keys = byUser.get(userId);
+        return keys == null ? List.of() : collect(tailAfter(keys, userId, after).descendingSet(), Integer.MAX_VALUE);
+    }
+    
+    // A null id sorts after every real id with the same time, so the bound excludes entries exactly at "after"
+    private NavigableSet<Key<T>> tailAfter(NavigableSet<Key<T>> keys, Long userId, T after) {
+        return keys.tailSet(new Key<>(userId, after, null), false);
+    }
+    
+    private static <T> List<String> collect(NavigableSet<Key<T>> keys, int limit) {
+        if (keys == null) {
+            return List.of();
+        }
+        List<String> ids = new ArrayList<>();
+        for (Key<T> key : keys) {
+            if (ids.size() == limit) {
+                break;
+            }
+            ids.add(key.id());
+        }
+        return ids;
+    }
+    
+    private record Key<T>(Long userId, T time, String id) {
+    }
+}
\ No newline at end of file
@@ -3,4 +3,7 @@ package com.skillbox.vacancytracker.repository;
 import com.skillbox.vacancytracker.model.BotUser;
 
 public interface UserRepository extends Repository<BotUser, Long> {
+    // Only ever moves forward, so a late acknowledgement cannot reopen a digest that was already delivered.
+    // Implementations compare and write under one lock: racing deliveries must not save the smaller sequence last.
+    void advanceNotifiedSequence(Long userId, long notifiedSequence);
 }
\ No newline at end of file
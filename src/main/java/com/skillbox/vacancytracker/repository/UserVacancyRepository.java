@@ -2,11 +2,29 @@ package com.skillbox.vacancytracker.repository;
 
 import com.skillbox.vacancytracker.model.UserVacancy;
 
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 
 public interface UserVacancyRepository extends Repository<UserVacancy, String> {
     List<UserVacancy> findByUserId(Long userId);
+    // Newest first, so callers can take a page off the head. Only tracks delivery made through markAllAsNotified:
+    // records acknowledged by a user's watermark keep their flag, so use findNewByUserId(userId, notifiedSequence)
+    @Deprecated
     List<UserVacancy> findNewByUserId(Long userId);
     void markAsNotified(String id);
+    void markAllAsNotified(Collection<String> ids);
     void deleteByUserId(Long userId);
+    
+    // Records above the user's notification watermark, newest first; acknowledging them is a single watermark write
+    default List<UserVacancy> findNewByUserId(Long userId, long notifiedSequence) {
+        return findByUserId(userId).stream()
+                .filter(userVacancy -> userVacancy.isNewSince(notifiedSequence))
+                .sorted(Comparator.comparingLong(UserVacancy::effectiveSequence).reversed())
+                .toList();
+    }
+    
+    // Called once a user's watermark has moved past these records, so an index of new records can let them go
+    default void pruneNotified(Long userId, long notifiedSequence) {
+    }
 }
\ No newline at end of file
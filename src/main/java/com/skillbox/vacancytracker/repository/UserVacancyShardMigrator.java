@@ -0,0 +1,102 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.skillbox.vacancytracker.config.StorageConfig;
+import com.skillbox.vacancytracker.exception.RepositoryException;
+import com.skillbox.vacancytracker.model.UserVacancy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+public final class UserVacancyShardMigrator {
+    private static final Logger logger = LoggerFactory.getLogger(UserVacancyShardMigrator.class);
+    private static final String MIGRATED_SUFFIX = ".migrated";
+    // The layout is told by its shard count, so shard-3-of-14 is not mistaken for a file of a 4-shard layout
+    private static final Pattern SHARD_FILE = Pattern.compile("shard-\\d+-of-(\\d{1,9})");
+    
+    private UserVacancyShardMigrator() {
+    }
+    
+    // Splits the single user_vacancies file, or shards written for a different shard count, into the configured layout
+    public static int migrate(String dataDirectory, StorageConfig storageConfig) {
+        int shardCount = storageConfig.userVacancyShards();
+        Path shardDirectory = Path.of(dataDirectory, ShardedUserVacancyRepository.SHARD_DIRECTORY);
+        List<Path> sources = findSources(Path.of(dataDirectory), shardDirectory, shardCount);
+        if (sources.isEmpty()) {
+            return 0;
+        }
+        
+        Map<Integer, List<UserVacancy>> byShard = new HashMap<>();
+        for (Path source : sources) {
+            JsonUserVacancyRepository repository = new JsonUserVacancyRepository(
+                    source.getParent().toString(), source.getFileName().toString(), storageConfig);
+            try (Stream<UserVacancy> userVacancies = repository.stream()) {
+                userVacancies.forEach(userVacancy -> {
+                    int shard = ShardedUserVacancyRepository.shardIndex(userVacancy.getUserId(), shardCount);
+                    byShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(userVacancy);
+                });
+            } finally {
+                repository.close();
+            }
+        }
+        
+        int migrated = 0;
+        for (Map.Entry<Integer, List<UserVacancy>> entry : byShard.entrySet()) {
+            JsonUserVacancyRepository shard = new JsonUserVacancyRepository(shardDirectory.toString(),
+                    ShardedUserVacancyRepository.shardFileName(entry.getKey(), shardCount), storageConfig);
+            try {
+                shard.saveAll(entry.getValue());
+                migrated += entry.getValue().size();
+            } finally {
+                shard.close();
+            }
+        }
+        
+        // Sources are only set aside once every shard is written, so an interrupted run simply repeats
+        for (Path source : sources) {
+            retire(source);
+        }
+        logger.info("Migrated {} user vacancies from {} files into {} shards", migrated, sources.size(), shardCount);
+        return migrated;
+    }
+    
+    private static List<Path> findSources(Path dataDirectory, Path shardDirectory, int shardCount) {
+        List<Path> sources = new ArrayList<>();
+        Path legacyFile = dataDirectory.resolve(JsonUserVacancyRepository.USER_VACANCY_DATA_FILE);
+        if (Files.isRegularFile(legacyFile)) {
+            sources.add(legacyFile);
+        }
+        if (!Files.isDirectory(shardDirectory)) {
+            return sources;
+        }
+        
+        try (Stream<Path> files = Files.list(shardDirectory)) {
+            files.filter(path -> {
+                Matcher matcher = SHARD_FILE.matcher(path.getFileName().toString());
+                return matcher.matches() && Integer.parseInt(matcher.group(1)) != shardCount;
+            }).forEach(sources::add);
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to list user vacancy shards: " + e.getMessage(), e);
+        }
+        return sources;
+    }
+    
+    private static void retire(Path source) {
+        try {
+            Files.move(source, source.resolveSibling(source.getFileName() + MIGRATED_SUFFIX),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to retire migrated file " + source + ": " + e.getMessage(), e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,285 @@
+package com.skillbox.vacancytracker.repository.jdbc;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillbox.vacancytracker.exception.RepositoryException;
+import com.skillbox.vacancytracker.repository.Repository;
+import com.skillbox.vacancytracker.repository.RepositoryMetrics;
+import com.skillbox.vacancytracker.util.JsonMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Indexed columns are kept alongside a JSON payload of the whole entity, so reads always go through Jackson
+public abstract class AbstractJdbcRepository<T, ID> implements Repository<T, ID> {
+    private static final Logger logger = LoggerFactory.getLogger(AbstractJdbcRepository.class);
+    private static final int STREAM_FETCH_SIZE = 256;
+    
+    protected final JdbcDatabase database;
+    protected final ObjectMapper objectMapper;
+    private final Class<T> entityClass;
+    private final String table;
+    private final String idColumn;
+    private volatile RepositoryMetrics metrics = RepositoryMetrics.NONE;
+    
+    protected AbstractJdbcRepository(JdbcDatabase database, Class<T> entityClass, String table, String idColumn) {
+        this.database = database;
+        this.objectMapper = JsonMapper.getInstance();
+        this.entityClass = entityClass;
+        this.table = table;
+        this.idColumn = idColumn;
+    }
+    
+    public void setMetrics(RepositoryMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    @Override
+    public Optional<T> findById(ID id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        List<T> found = query(idColumn + " = ?", id);
+        return found.stream().findFirst();
+    }
+    
+    @Override
+    public boolean exists(ID id) {
+        return findById(id).isPresent();
+    }
+    
+    @Override
+    public void save(T entity) {
+        saveAll(Collections.singletonList(entity));
+        logger.debug("Entity saved: {}", entity);
+    }
+    
+    @Override
+    public void delete(ID id) {
+        deleteAll(Collections.singletonList(id));
+    }
+    
+    @Override
+    public void saveAll(Collection<? extends T> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        inTransaction("save", connection -> {
+            upsert(connection, entities);
+            return null;
+        });
+    }
+    
+    @Override
+    public void deleteAll(Collection<? extends ID> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        inTransaction("delete", connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "DELETE FROM " + table + " WHERE " + idColumn + " = ?")) {
+                for (ID id : ids) {
+                    statement.setObject(1, id);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            return null;
+        });
+    }
+    
+    @Override
+    public List<T> findAll() {
+        return query("1 = 1");
+    }
+    
+    // Rows are read through an open cursor, so only the current payload is deserialized at a time
+    @Override
+    public Stream<T> stream() {
+        long started = System.nanoTime();
+        Connection connection = database.openConnection();
+        try {
+            PreparedStatement statement = connection.prepareStatement("SELECT " + selectColumns() + " FROM " + table);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            RowCursor cursor = new RowCursor(connection, statement.executeQuery(), started);
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            throw new RepositoryException("Database operation failed: " + e.getMessage(), e);
+        }
+    }
+    
+    protected abstract ID getId(T entity);
+    
+    // MERGE statement whose parameters are filled by bindUpsert
+    protected abstract String upsertSql();
+    
+    protected abstract void bindUpsert(PreparedStatement statement, T entity) throws SQLException;
+    
+    // The payload always comes first; subclasses may select indexed columns after it to override payload fields
+    protected String selectColumns() {
+        return "payload";
+    }
+    
+    protected T fromRow(ResultSet resultSet) throws SQLException {
+        return fromPayload(resultSet.getString(1));
+    }
+    
+    protected void upsert(Connection connection, Collection<? extends T> entities) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(upsertSql())) {
+            for (T entity : entities) {
+                bindUpsert(statement, entity);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+    
+    protected List<T> query(String condition, Object... parameters) {
+        return withConnection("query", connection -> query(connection, condition, parameters));
+    }
+    
+    protected List<T> query(Connection connection, String condition, Object... parameters) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT " + selectColumns() + " FROM " + table + " WHERE " + condition)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                List<T> result = new ArrayList<>();
+                while (resultSet.next()) {
+                    result.add(fromRow(resultSet));
+                }
+                return result;
+            }
+        }
+    }
+    
+    protected int update(String sql, Object... parameters) {
+        return withConnection("update", connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < parameters.length; i++) {
+                    statement.setObject(i + 1, parameters[i]);
+                }
+                return statement.executeUpdate();
+            }
+        });
+    }
+    
+    // Timed from the connection checkout, so waiting for a pooled connection counts towards the operation
+    protected <R> R withConnection(String operation, JdbcDatabase.SqlWork<R> work) {
+        long started = System.nanoTime();
+        try {
+            return database.withConnection(work);
+        } finally {
+            metrics.recordOperation(table, operation, System.nanoTime() - started);
+        }
+    }
+    
+    protected <R> R inTransaction(String operation, JdbcDatabase.SqlWork<R> work) {
+        long started = System.nanoTime();
+        try {
+            return database.inTransaction(work);
+        } finally {
+            metrics.recordOperation(table, operation, System.nanoTime() - started);
+        }
+    }
+    
+    protected String toPayload(T entity) {
+        try {
+            return objectMapper.writeValueAsString(entity);
+        } catch (JsonProcessingException e) {
+            throw new RepositoryException("Failed to serialize " + entityClass.getSimpleName() + ": " + e.getMessage(), e);
+        }
+    }
+    
+    protected static void setTimestamp(PreparedStatement statement, int index, LocalDateTime value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.TIMESTAMP);
+        } else {
+            statement.setObject(index, value);
+        }
+    }
+    
+    protected static void setLong(PreparedStatement statement, int index, Long value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, value);
+        }
+    }
+    
+    private static void closeQuietly(AutoCloseable resource) {
+        try {
+            resource.close();
+        } catch (Exception e) {
+            logger.debug("Failed to close {}", resource, e);
+        }
+    }
+    
+    private T fromPayload(String payload) {
+        try {
+            return objectMapper.readValue(payload, entityClass);
+        } catch (JsonProcessingException e) {
+            throw new RepositoryException("Failed to read " + entityClass.getSimpleName() + " from " + table + ": "
+                    + e.getMessage(), e);
+        }
+    }
+    
+    // Closing the connection also closes the statement and result set behind the cursor
+    private final class RowCursor extends Spliterators.AbstractSpliterator<T> {
+        private final Connection connection;
+        private final ResultSet resultSet;
+        private final long started;
+        private boolean closed;
+        
+        private RowCursor(Connection connection, ResultSet resultSet, long started) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.connection = connection;
+            this.resultSet = resultSet;
+            this.started = started;
+        }
+        
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (resultSet.next()) {
+                    action.accept(fromRow(resultSet));
+                    return true;
+                }
+            } catch (SQLException e) {
+                close();
+                throw new RepositoryException("Database operation failed: " + e.getMessage(), e);
+            }
+            close();
+            return false;
+        }
+        
+        private void close() {
+            if (!closed) {
+                closed = true;
+                closeQuietly(connection);
+                metrics.recordOperation(table, "stream", System.nanoTime() - started);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.skillbox.vacancytracker.repository.jdbc;
+
+import com.skillbox.vacancytracker.exception.RepositoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+public class JdbcDatabase implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcDatabase.class);
+    private static final String DATABASE_NAME = "vacancy_tracker";
+    // Idle connections kept for reuse; a burst beyond this opens extra ones and closes them afterwards
+    private static final int POOL_SIZE = 4;
+    
+    private static final List<String> SCHEMA = List.of(
+        "CREATE TABLE IF NOT EXISTS bot_users ("
+            + "user_id BIGINT PRIMARY KEY, "
+            + "is_active BOOLEAN NOT NULL, "
+            + "payload CHARACTER LARGE OBJECT NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS idx_bot_users_active ON bot_users (is_active)",
+        
+        "CREATE TABLE IF NOT EXISTS user_vacancies ("
+            + "id VARCHAR(2048) PRIMARY KEY, "
+            + "user_id BIGINT, "
+            + "vacancy_id VARCHAR(2048), "
+            + "is_new BOOLEAN NOT NULL, "
+            + "found_at TIMESTAMP, "
+            + "notified_at TIMESTAMP, "
+            + "payload CHARACTER LARGE OBJECT NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS idx_user_vacancies_user ON user_vacancies (user_id, is_new)",
+        "CREATE INDEX IF NOT EXISTS idx_user_vacancies_found_at ON user_vacancies (found_at)",
+        
+        "CREATE TABLE IF NOT EXISTS vacancies ("
+            + "id VARCHAR(2048) PRIMARY KEY, "
+            + "user_id BIGINT, "
+            + "created_date TIMESTAMP, "
+            + "payload CHARACTER LARGE OBJECT NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS idx_vacancies_user ON vacancies (user_id, created_date)"
+    );
+    
+    private final String url;
+    // Held open for the lifetime of the bot so the embedded engine is not torn down between calls
+    private final Connection keepAlive;
+    private final BlockingQueue<Connection> idle = new ArrayBlockingQueue<>(POOL_SIZE);
+    
+    public JdbcDatabase(String url) {
+        this.url = url;
+        try {
+            this.keepAlive = DriverManager.getConnection(url);
+            try (Statement statement = keepAlive.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    statement.execute(ddl);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RepositoryException("Failed to open database " + url + ": " + e.getMessage(), e);
+        }
+        logger.info("Opened database {}", url);
+    }
+    
+    public static JdbcDatabase openH2(String dataDirectory) {
+        Path file = Path.of(dataDirectory).toAbsolutePath().resolve(DATABASE_NAME);
+        return new JdbcDatabase("jdbc:h2:file:" + file);
+    }
+    
+    // The caller owns the returned connection and must close it; meant for long-lived cursors, not pooled
+    public Connection openConnection() {
+        try {
+            return DriverManager.getConnection(url);
+        } catch (SQLException e) {
+            throw new RepositoryException("Database operation failed: " + e.getMessage(), e);
+        }
+    }
+    
+    // A connection that saw an SQLException is closed rather than handed out again
+    public <R> R withConnection(SqlWork<R> work) {
+        Connection connection = null;
+        boolean reusable = false;
+        try {
+            connection = borrow();
+            R result = work.execute(connection);
+            reusable = true;
+            return result;
+        } catch (SQLException e) {
+            throw new RepositoryException("Database operation failed: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            reusable = true;
+            throw e;
+        } finally {
+            if (connection != null) {
+                release(connection, reusable);
+            }
+        }
+    }
+    
+    public <R> R inTransaction(SqlWork<R> work) {
+        return withConnection(connection -> {
+            connection.setAutoCommit(false);
+            try {
+                R result = work.execute(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        });
+    }
+    
+    @Override
+    public void close() {
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            closeQuietly(connection);
+        }
+        try {
+            keepAlive.close();
+            logger.info("Closed database {}", url);
+        } catch (SQLException e) {
+            logger.warn("Failed to close database {}", url, e);
+        }
+    }
+    
+    private Connection borrow() throws SQLException {
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            if (!connection.isClosed()) {
+                return connection;
+            }
+        }
+        return DriverManager.getConnection(url);
+    }
+    
+    private void release(Connection connection, boolean reusable) {
+        if (!reusable || !idle.offer(connection)) {
+            closeQuietly(connection);
+        }
+    }
+    
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.debug("Failed to close connection", e);
+        }
+    }
+    
+    @FunctionalInterface
+    public interface SqlWork<R> {
+        R execute(Connection connection) throws SQLException;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.skillbox.vacancytracker.repository.jdbc;
+
+import com.skillbox.vacancytracker.model.BotUser;
+import com.skillbox.vacancytracker.repository.UserRepository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class JdbcUserRepository extends AbstractJdbcRepository<BotUser, Long> implements UserRepository {
+    
+    public JdbcUserRepository(JdbcDatabase database) {
+        super(database, BotUser.class, "bot_users", "user_id");
+    }
+    
+    @Override
+    protected Long getId(BotUser entity) {
+        return entity.getUserId();
+    }
+    
+    @Override
+    protected String upsertSql() {
+        return "MERGE INTO bot_users (user_id, is_active, payload) KEY (user_id) VALUES (?, ?, ?)";
+    }
+    
+    // Users are saved from stale copies all the time; the stored rows are locked first so none of them can undo
+    // a watermark that a concurrent digest has just advanced
+    @Override
+    protected void upsert(Connection connection, Collection<? extends BotUser> entities) throws SQLException {
+        List<Long> ids = entities.stream().map(BotUser::getUserId).toList();
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        Map<Long, Long> stored = query(connection, "user_id IN (" + placeholders + ") FOR UPDATE", ids.toArray())
+                .stream()
+                .collect(Collectors.toMap(BotUser::getUserId, BotUser::getNotifiedSequence));
+        for (BotUser user : entities) {
+            long notifiedSequence = stored.getOrDefault(user.getUserId(), 0L);
+            if (notifiedSequence > user.getNotifiedSequence()) {
+                user.setNotifiedSequence(notifiedSequence);
+            }
+        }
+        super.upsert(connection, entities);
+    }
+    
+    // Read and written under the row lock in one transaction, so racing digests only ever move it forward
+    @Override
+    public void advanceNotifiedSequence(Long userId, long notifiedSequence) {
+        inTransaction("advanceNotifiedSequence", connection -> {
+            List<BotUser> users = query(connection, "user_id = ? FOR UPDATE", userId);
+            for (BotUser user : users) {
+                if (notifiedSequence > user.getNotifiedSequence()) {
+                    user.setNotifiedSequence(notifiedSequence);
+                    super.upsert(connection, List.of(user));
+                }
+            }
+            return null;
+        });
+    }
+    
+    @Override
+    protected void bindUpsert(PreparedStatement statement, BotUser entity) throws SQLException {
+        setLong(statement, 1, entity.getUserId());
+        statement.setBoolean(2, entity.isActive());
+        statement.setString(3, toPayload(entity));
+    }
+}
\ No newline at end of file
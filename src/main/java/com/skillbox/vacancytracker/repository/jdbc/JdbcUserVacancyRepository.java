@@ -0,0 +1,122 @@
+package com.skillbox.vacancytracker.repository.jdbc;
+
+import com.skillbox.vacancytracker.model.UserVacancy;
+import com.skillbox.vacancytracker.repository.UserVacancyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class JdbcUserVacancyRepository extends AbstractJdbcRepository<UserVacancy, String>
+        implements UserVacancyRepository {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JdbcUserVacancyRepository.class);
+    
+    public JdbcUserVacancyRepository(JdbcDatabase database) {
+        super(database, UserVacancy.class, "user_vacancies", "id");
+    }
+    
+    @Override
+    protected String getId(UserVacancy entity) {
+        return entity.getId();
+    }
+    
+    @Override
+    protected String upsertSql() {
+        return "MERGE INTO user_vacancies (id, user_id, vacancy_id, is_new, found_at, notified_at, payload) "
+                + "KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    }
+    
+    @Override
+    protected void bindUpsert(PreparedStatement statement, UserVacancy entity) throws SQLException {
+        statement.setString(1, entity.getId());
+        setLong(statement, 2, entity.getUserId());
+        statement.setString(3, entity.getVacancyId());
+        statement.setBoolean(4, entity.isNew());
+        setTimestamp(statement, 5, entity.getFoundAt());
+        setTimestamp(statement, 6, entity.getNotifiedAt());
+        statement.setString(7, toPayload(entity));
+    }
+    
+    @Override
+    protected String selectColumns() {
+        return "payload, is_new, notified_at";
+    }
+    
+    @Override
+    protected UserVacancy fromRow(ResultSet resultSet) throws SQLException {
+        UserVacancy userVacancy = super.fromRow(resultSet);
+        userVacancy.setNew(resultSet.getBoolean(2));
+        userVacancy.setNotifiedAt(resultSet.getObject(3, LocalDateTime.class));
+        return userVacancy;
+    }
+    
+    // Sequences are taken and committed under one lock, so no record becomes visible below a number already read
+    @Override
+    public synchronized void saveAll(Collection<? extends UserVacancy> entities) {
+        super.saveAll(entities);
+    }
+    
+    @Override
+    protected void upsert(Connection connection, Collection<? extends UserVacancy> entities) throws SQLException {
+        List<UserVacancy> unnumbered = entities.stream()
+                .filter(entity -> entity.getSequence() == null)
+                .collect(Collectors.toList());
+        if (!unnumbered.isEmpty()) {
+            String placeholders = String.join(", ", Collections.nCopies(unnumbered.size(), "?"));
+            Map<String, UserVacancy> stored = query(connection, "id IN (" + placeholders + ")",
+                    unnumbered.stream().map(UserVacancy::getId).toArray()).stream()
+                    .collect(Collectors.toMap(UserVacancy::getId, Function.identity()));
+            for (UserVacancy entity : unnumbered) {
+                entity.assignSequence(stored.get(entity.getId()));
+            }
+        }
+        super.upsert(connection, entities);
+    }
+    
+    @Override
+    public List<UserVacancy> findByUserId(Long userId) {
+        return query("user_id = ? ORDER BY found_at", userId);
+    }
+    
+    @Override
+    public List<UserVacancy> findNewByUserId(Long userId) {
+        return query("user_id = ? AND is_new = TRUE ORDER BY found_at DESC", userId);
+    }
+    
+    @Override
+    public void markAsNotified(String id) {
+        markAllAsNotified(Collections.singletonList(id));
+    }
+    
+    // One statement for the whole digest: only the indexed columns change, and reads take them over the payload
+    @Override
+    public void markAllAsNotified(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Object> parameters = new ArrayList<>(ids.size() + 1);
+        parameters.add(LocalDateTime.now());
+        parameters.addAll(ids);
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        update("UPDATE user_vacancies SET is_new = FALSE, notified_at = ? WHERE id IN (" + placeholders + ")",
+                parameters.toArray());
+    }
+    
+    @Override
+    public void deleteByUserId(Long userId) {
+        int deleted = update("DELETE FROM user_vacancies WHERE user_id = ?", userId);
+        logger.info("Deleted {} vacancies for user {}", deleted, userId);
+    }
+}
\ No newline at end of file
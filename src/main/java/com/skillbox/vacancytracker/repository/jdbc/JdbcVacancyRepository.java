@@ -0,0 +1,84 @@
+package com.skillbox.vacancytracker.repository.jdbc;
+
+import com.skillbox.vacancytracker.model.Vacancy;
+import com.skillbox.vacancytracker.repository.VacancyRepository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JdbcVacancyRepository extends AbstractJdbcRepository<Vacancy, String> implements VacancyRepository {
+    
+    public JdbcVacancyRepository(JdbcDatabase database) {
+        super(database, Vacancy.class, "vacancies", "id");
+    }
+    
+    @Override
+    protected String getId(Vacancy entity) {
+        return entity.getId();
+    }
+    
+    @Override
+    protected String upsertSql() {
+        return "MERGE INTO vacancies (id, user_id, created_date, payload) KEY (id) VALUES (?, ?, ?, ?)";
+    }
+    
+    @Override
+    protected void bindUpsert(PreparedStatement statement, Vacancy entity) throws SQLException {
+        statement.setString(1, entity.getId());
+        setLong(statement, 2, ownerOf(entity.getId()));
+        setTimestamp(statement, 3, entity.getCreatedDate());
+        statement.setString(4, toPayload(entity));
+    }
+    
+    @Override
+    public List<Vacancy> findByUserId(Long userId) {
+        return query("user_id = ?", userId);
+    }
+    
+    @Override
+    public void deleteByUserId(Long userId) {
+        update("DELETE FROM vacancies WHERE user_id = ?", userId);
+    }
+    
+    @Override
+    public List<Vacancy> findByUserIdAndCreatedAfter(Long userId, LocalDateTime after) {
+        return query("user_id = ? AND created_date > ? ORDER BY created_date", userId, after);
+    }
+    
+    @Override
+    public void saveUserVacancies(Long userId, List<Vacancy> vacancies) {
+        List<Vacancy> replacements = new ArrayList<>(vacancies.size());
+        for (int i = 0; i < vacancies.size(); i++) {
+            Vacancy vacancy = vacancies.get(i);
+            // Same composite key as the JSON store: userId_originalId or userId_index if no original ID
+            String compositeId = userId + "_" + (vacancy.getId() != null ? vacancy.getId() : String.valueOf(i));
+            vacancy.setId(compositeId);
+            replacements.add(vacancy);
+        }
+        
+        inTransaction("saveUserVacancies", connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("DELETE FROM vacancies WHERE user_id = ?")) {
+                statement.setLong(1, userId);
+                statement.executeUpdate();
+            }
+            upsert(connection, replacements);
+            return null;
+        });
+    }
+    
+    // Vacancies are keyed userId_vacancyId; the prefix is stored separately so it can be indexed
+    private static Long ownerOf(String id) {
+        int separator = id == null ? -1 : id.indexOf('_');
+        if (separator <= 0) {
+            return null;
+        }
+        try {
+            return Long.parseLong(id.substring(0, separator));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
\ No newline at end of file
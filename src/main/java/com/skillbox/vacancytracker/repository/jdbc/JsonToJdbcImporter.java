@@ -0,0 +1,89 @@
+package com.skillbox.vacancytracker.repository.jdbc;
+
+import com.skillbox.vacancytracker.config.StorageConfig;
+import com.skillbox.vacancytracker.exception.RepositoryException;
+import com.skillbox.vacancytracker.repository.JsonUserRepository;
+import com.skillbox.vacancytracker.repository.JsonUserVacancyRepository;
+import com.skillbox.vacancytracker.repository.JsonVacancyRepository;
+import com.skillbox.vacancytracker.repository.Repository;
+import com.skillbox.vacancytracker.repository.ShardedUserVacancyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+public final class JsonToJdbcImporter {
+    private static final Logger logger = LoggerFactory.getLogger(JsonToJdbcImporter.class);
+    private static final String IMPORTED_SUFFIX = ".imported";
+    
+    private JsonToJdbcImporter() {
+    }
+    
+    // Copies whatever JSON files are still present into the database and renames them, so the import happens once
+    public static int importAll(String dataDirectory, StorageConfig storageConfig, JdbcDatabase database) {
+        Path dataPath = Path.of(dataDirectory);
+        int imported = 0;
+        
+        imported += importFile(dataPath.resolve(JsonUserRepository.USER_DATA_FILE), new JdbcUserRepository(database),
+                source -> new JsonUserRepository(dataDirectory, storageConfig));
+        imported += importFile(dataPath.resolve(JsonVacancyRepository.VACANCY_DATA_FILE), new JdbcVacancyRepository(database),
+                source -> new JsonVacancyRepository(dataDirectory, storageConfig));
+        
+        JdbcUserVacancyRepository userVacancies = new JdbcUserVacancyRepository(database);
+        for (Path source : userVacancySources(dataPath)) {
+            imported += importFile(source, userVacancies, path -> new JsonUserVacancyRepository(
+                    path.getParent().toString(), path.getFileName().toString(), storageConfig));
+        }
+        
+        if (imported > 0) {
+            logger.info("Imported {} records from JSON files into the database", imported);
+        }
+        return imported;
+    }
+    
+    private static <T, ID> int importFile(Path source, Repository<T, ID> target,
+                                          Function<Path, Repository<T, ID>> sourceRepository) {
+        if (!Files.isRegularFile(source)) {
+            return 0;
+        }
+        
+        List<T> records;
+        // Opening with the configured storage mode replays any journal left next to the file
+        try (Repository<T, ID> repository = sourceRepository.apply(source)) {
+            records = repository.findAll();
+        }
+        target.saveAll(records);
+        
+        try {
+            Files.move(source, source.resolveSibling(source.getFileName() + IMPORTED_SUFFIX),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to retire imported file " + source + ": " + e.getMessage(), e);
+        }
+        logger.info("Imported {} records from {}", records.size(), source);
+        return records.size();
+    }
+    
+    private static List<Path> userVacancySources(Path dataPath) {
+        List<Path> sources = new ArrayList<>();
+        sources.add(dataPath.resolve(JsonUserVacancyRepository.USER_VACANCY_DATA_FILE));
+        
+        Path shardDirectory = dataPath.resolve(ShardedUserVacancyRepository.SHARD_DIRECTORY);
+        if (Files.isDirectory(shardDirectory)) {
+            try (Stream<Path> files = Files.list(shardDirectory)) {
+                files.filter(path -> path.getFileName().toString().matches("shard-\\d+-of-\\d+"))
+                        .forEach(sources::add);
+            } catch (IOException e) {
+                throw new RepositoryException("Failed to list user vacancy shards: " + e.getMessage(), e);
+            }
+        }
+        return sources;
+    }
+}
\ No newline at end of file
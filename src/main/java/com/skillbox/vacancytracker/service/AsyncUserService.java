@@ -0,0 +1,28 @@
+package com.skillbox.vacancytracker.service;
+
+import com.skillbox.vacancytracker.model.BotUser;
+import com.skillbox.vacancytracker.model.SearchCriteria;
+
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// Operations on the same user complete in the order they were called; failures surface through the returned future
+public interface AsyncUserService {
+    CompletableFuture<Optional<BotUser>> findById(Long userId);
+    
+    CompletableFuture<Void> save(BotUser user);
+    
+    CompletableFuture<Void> delete(Long userId);
+    
+    CompletableFuture<List<BotUser>> findAllActive();
+    
+    CompletableFuture<Void> updateSearchCriteria(Long userId, SearchCriteria criteria);
+    
+    CompletableFuture<Void> updateTimezone(Long userId, ZoneOffset timezone);
+    
+    CompletableFuture<Void> updateNotificationTime(Long userId, String notificationTime);
+    
+    CompletableFuture<Void> deactivateUser(Long userId);
+}
\ No newline at end of file
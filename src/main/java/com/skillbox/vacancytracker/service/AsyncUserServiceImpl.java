@@ -0,0 +1,62 @@
+package com.skillbox.vacancytracker.service;
+
+import com.skillbox.vacancytracker.model.BotUser;
+import com.skillbox.vacancytracker.model.SearchCriteria;
+import com.skillbox.vacancytracker.util.OrderedExecutor;
+
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// Runs each call of the synchronous service on the user's lane, so read-modify-write updates of one user never interleave
+public class AsyncUserServiceImpl implements AsyncUserService {
+    private final UserService userService;
+    private final OrderedExecutor executor;
+    
+    public AsyncUserServiceImpl(UserService userService, OrderedExecutor executor) {
+        this.userService = userService;
+        this.executor = executor;
+    }
+    
+    @Override
+    public CompletableFuture<Optional<BotUser>> findById(Long userId) {
+        return executor.submit(userId, () -> userService.findById(userId));
+    }
+    
+    @Override
+    public CompletableFuture<Void> save(BotUser user) {
+        return executor.run(user.getUserId(), () -> userService.save(user));
+    }
+    
+    @Override
+    public CompletableFuture<Void> delete(Long userId) {
+        return executor.run(userId, () -> userService.delete(userId));
+    }
+    
+    // Not tied to any user, so it is not ordered after writes still queued for other lanes
+    @Override
+    public CompletableFuture<List<BotUser>> findAllActive() {
+        return executor.submit(null, userService::findAllActive);
+    }
+    
+    @Override
+    public CompletableFuture<Void> updateSearchCriteria(Long userId, SearchCriteria criteria) {
+        return executor.run(userId, () -> userService.updateSearchCriteria(userId, criteria));
+    }
+    
+    @Override
+    public CompletableFuture<Void> updateTimezone(Long userId, ZoneOffset timezone) {
+        return executor.run(userId, () -> userService.updateTimezone(userId, timezone));
+    }
+    
+    @Override
+    public CompletableFuture<Void> updateNotificationTime(Long userId, String notificationTime) {
+        return executor.run(userId, () -> userService.updateNotificationTime(userId, notificationTime));
+    }
+    
+    @Override
+    public CompletableFuture<Void> deactivateUser(Long userId) {
+        return executor.run(userId, () -> userService.deactivateUser(userId));
+    }
+}
\ No newline at end of file
@@ -37,6 +37,32 @@ public class ScheduledTaskManager {
         logger.info("Scheduled vacancy check for user {}", userId);
     }
     
+    // A single check right away; the check cycle takes over from the next round
+    public void runVacancyCheckOnce(Long userId, Runnable task) {
+        String taskId = "vacancy-check-" + userId;
+        cancelTask(taskId);
+        
+        ScheduledFuture<?> future = scheduler.schedule(wrapTask(task, taskId), 0, TimeUnit.SECONDS);
+        
+        scheduledTasks.put(taskId, future);
+        logger.info("Queued one-off vacancy check for user {}", userId);
+    }
+    
+    public void scheduleCheckCycle(Duration interval, Runnable task) {
+        String taskId = "vacancy-check-cycle";
+        cancelTask(taskId);
+        
+        ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(
+            wrapTask(task, taskId),
+            0,
+            interval.toMinutes(),
+            TimeUnit.MINUTES
+        );
+        
+        scheduledTasks.put(taskId, future);
+        logger.info("Scheduled vacancy check cycle every {}", interval);
+    }
+    
     public void scheduleNotification(Long userId, LocalTime notificationTime, 
                                     ZoneOffset userTimezone, Runnable task) {
         String taskId = "notification-" + userId;
@@ -56,6 +82,31 @@ public class ScheduledTaskManager {
                    userId, notificationTime, userTimezone);
     }
     
+    public void scheduleRetention(Duration interval, Runnable task) {
+        scheduleMaintenance("retention", interval, task);
+        logger.info("Scheduled vacancy retention every {}", interval);
+    }
+    
+    public void scheduleBackup(Duration interval, Runnable task) {
+        scheduleMaintenance("backup", interval, task);
+        logger.info("Scheduled data backup every {}", interval);
+    }
+    
+    public void scheduleHibernation(Duration interval, Runnable task) {
+        scheduleMaintenance("hibernation", interval, task);
+        logger.info("Scheduled user hibernation every {}", interval);
+    }
+    
+    public void scheduleTiering(Duration interval, Runnable task) {
+        scheduleMaintenance("tiering", interval, task);
+        logger.info("Scheduled vacancy history tiering every {}", interval);
+    }
+    
+    public void scheduleMetricsReport(Duration interval, Runnable task) {
+        scheduleMaintenance("metrics", interval, task);
+        logger.info("Scheduled repository metrics summary every {}", interval);
+    }
+    
     public void cancelTask(String taskId) {
         ScheduledFuture<?> future = scheduledTasks.remove(taskId);
         if (future != null) {
@@ -82,6 +133,19 @@ public class ScheduledTaskManager {
         }
     }
     
+    private void scheduleMaintenance(String taskId, Duration interval, Runnable task) {
+        cancelTask(taskId);
+        
+        ScheduledFuture<?> future = scheduler.scheduleWithFixedDelay(
+            wrapTask(task, taskId),
+            interval.toMinutes(),
+            interval.toMinutes(),
+            TimeUnit.MINUTES
+        );
+        
+        scheduledTasks.put(taskId, future);
+    }
+    
     private long calculateInitialDelay(LocalTime notificationTime, ZoneOffset userTimezone) {
         ZonedDateTime now = ZonedDateTime.now(userTimezone);
         ZonedDateTime nextNotification = now.with(notificationTime);
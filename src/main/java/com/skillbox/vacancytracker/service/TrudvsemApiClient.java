@@ -13,8 +13,19 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import com.skillbox.vacancytracker.constant.ApiConstants;
 import com.skillbox.vacancytracker.util.UrlBuilder;
 
@@ -26,11 +37,15 @@ public class TrudvsemApiClient implements VacancyApiClient {
     private final OkHttpClient httpClient;
     private final String baseUrl;
     private final VacancyResponseParser responseParser;
+    private final int pageParallelism;
+    private final ExecutorService pageExecutor;
     
     public TrudvsemApiClient(BotConfig config) {
         this.httpClient = createHttpClient();
         this.baseUrl = config.vacancyApiUrl();
         this.responseParser = new VacancyResponseParser();
+        this.pageParallelism = config.apiPageParallelism();
+        this.pageExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("trudvsem-page-", 0).factory());
         logger.info("TrudvsemApiClient initialized with base URL: {}", baseUrl);
     }
     
@@ -43,7 +58,10 @@ public class TrudvsemApiClient implements VacancyApiClient {
     
     @Override
     public List<Vacancy> searchVacancies(SearchCriteria criteria) {
-        return searchVacancies(criteria, ApiConstants.DEFAULT_LIMIT, 0);
+        Map<String, Vacancy> all = new LinkedHashMap<>();
+        searchPages(criteria, ApiConstants.MAX_QUERY_PAGES,
+                batch -> batch.forEach(vacancy -> all.putIfAbsent(vacancy.getId(), vacancy)));
+        return new ArrayList<>(all.values());
     }
     
     @Override
@@ -58,6 +76,82 @@ public class TrudvsemApiClient implements VacancyApiClient {
         }
     }
     
+    @Override
+    public void searchAllVacancies(SearchCriteria criteria, Consumer<List<Vacancy>> pageConsumer) {
+        searchPages(criteria, ApiConstants.MAX_PAGES, pageConsumer);
+    }
+    
+    // The first page tells how many hits there are; the rest are fetched on virtual threads, at most
+    // pageParallelism at a time per search, and handed over in arrival order.
+    // Paging stops once every counted hit has arrived or maxPages pages have been fetched.
+    private void searchPages(SearchCriteria criteria, int maxPages, Consumer<List<Vacancy>> pageConsumer) {
+        VacancyResponseParser.Page first = fetchPage(criteria, 0);
+        pageConsumer.accept(first.vacancies());
+        if (first.fetched() < ApiConstants.MAX_API_LIMIT) {
+            return;
+        }
+        if (first.total() == null) {
+            logger.debug("API response carries no total, paging sequentially");
+            for (int page = 1; page < maxPages; page++) {
+                VacancyResponseParser.Page next = fetchPage(criteria, page);
+                pageConsumer.accept(next.vacancies());
+                if (next.fetched() < ApiConstants.MAX_API_LIMIT) {
+                    return;
+                }
+            }
+            logger.warn("Search {} stopped after {} full pages; later results were not fetched", criteria, maxPages);
+            return;
+        }
+        
+        int pages = (first.total() + ApiConstants.MAX_API_LIMIT - 1) / ApiConstants.MAX_API_LIMIT;
+        if (pages > maxPages) {
+            logger.warn("Search {} has {} results; only the first {} pages are fetched", criteria, first.total(),
+                    maxPages);
+            pages = maxPages;
+        }
+        CompletionService<VacancyResponseParser.Page> completion = new ExecutorCompletionService<>(pageExecutor);
+        List<Future<VacancyResponseParser.Page>> futures = new ArrayList<>();
+        int nextPage = 1;
+        int fetched = first.fetched();
+        try {
+            while (nextPage < pages && futures.size() < pageParallelism) {
+                int page = nextPage++;
+                futures.add(completion.submit(() -> fetchPage(criteria, page)));
+            }
+            for (int pending = futures.size(); pending > 0 && fetched < first.total(); pending--) {
+                VacancyResponseParser.Page page = completion.take().get();
+                pageConsumer.accept(page.vacancies());
+                fetched += page.fetched();
+                if (nextPage < pages) {
+                    int next = nextPage++;
+                    futures.add(completion.submit(() -> fetchPage(criteria, next)));
+                    pending++;
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof VacancyApiException apiException) {
+                throw apiException;
+            }
+            throw new VacancyApiException("Failed to fetch vacancies: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new VacancyApiException("Interrupted while fetching vacancies", e);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        logger.debug("Fetched {} of {} vacancies in {} pages", fetched, first.total(), pages);
+    }
+    
+    private VacancyResponseParser.Page fetchPage(SearchCriteria criteria, int page) {
+        try {
+            String responseBody = executeRequest(buildSearchUrl(criteria, ApiConstants.MAX_API_LIMIT, page));
+            return responseParser.parsePage(responseBody, criteria);
+        } catch (IOException e) {
+            logger.error("Error making API request", e);
+            throw new VacancyApiException("Failed to fetch vacancies: " + e.getMessage(), e);
+        }
+    }
+    
     private String executeRequest(String url) throws IOException {
         logger.debug("Making API request to: {}", url);
         
@@ -86,8 +180,11 @@ public class TrudvsemApiClient implements VacancyApiClient {
             urlBuilder.appendPath(ApiConstants.API_PATH_REGION + criteria.getRegionCode());
         }
         
-        LocalDateTime oneDayAgo = LocalDateTime.now().minusDays(1);
-        String modifiedFrom = oneDayAgo.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "Z";
+        // The API reads modifiedFrom as UTC, whatever zone this host runs in
+        LocalDateTime since = criteria.getModifiedSince() != null
+                ? criteria.getModifiedSince()
+                : LocalDateTime.now(ZoneOffset.UTC).minusDays(1);
+        String modifiedFrom = since.atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
         
         return urlBuilder
                 .addParam(ApiConstants.PARAM_LIMIT, Math.min(limit, ApiConstants.MAX_API_LIMIT))
@@ -10,6 +10,7 @@ import org.slf4j.LoggerFactory;
 import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class UserServiceImpl implements UserService {
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
@@ -42,9 +43,11 @@ public class UserServiceImpl implements UserService {
     
     @Override
     public List<BotUser> findAllActive() {
-        return userRepository.findAll().stream()
-                .filter(BotUser::isActive)
-                .toList();
+        try (Stream<BotUser> users = userRepository.stream()) {
+            return users
+                    .filter(BotUser::isActive)
+                    .toList();
+        }
     }
     
     @Override
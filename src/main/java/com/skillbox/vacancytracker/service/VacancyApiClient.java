@@ -1,12 +1,43 @@
 package com.skillbox.vacancytracker.service;
 
+import com.skillbox.vacancytracker.constant.ApiConstants;
 import com.skillbox.vacancytracker.model.SearchCriteria;
 import com.skillbox.vacancytracker.model.Vacancy;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface VacancyApiClient {
     List<Vacancy> searchVacancies(SearchCriteria criteria);
     
     List<Vacancy> searchVacancies(SearchCriteria criteria, int limit, int offset);
+    
+    // Each search runs on its own virtual thread, so a caller can keep many in flight without holding platform threads
+    default CompletableFuture<List<Vacancy>> searchVacanciesAsync(SearchCriteria criteria) {
+        return CompletableFuture.supplyAsync(() -> searchVacancies(criteria),
+                Thread.ofVirtual().name("vacancy-search")::start);
+    }
+    
+    // Every result of a search, page by page; the API counts offset in pages. A short page is the last one.
+    // Pages are handed over as they arrive, one call at a time, and may come out of order.
+    default void searchAllVacancies(SearchCriteria criteria, Consumer<List<Vacancy>> pageConsumer) {
+        for (int page = 0; page < ApiConstants.MAX_PAGES; page++) {
+            List<Vacancy> batch = searchVacancies(criteria, ApiConstants.MAX_API_LIMIT, page);
+            pageConsumer.accept(batch);
+            if (batch.size() < ApiConstants.MAX_API_LIMIT) {
+                break;
+            }
+        }
+    }
+    
+    default List<Vacancy> searchAllVacancies(SearchCriteria criteria) {
+        Map<String, Vacancy> all = new LinkedHashMap<>();
+        // Vacancies modified while paging can shift onto the next page and show up twice
+        searchAllVacancies(criteria, batch -> batch.forEach(vacancy -> all.putIfAbsent(vacancy.getId(), vacancy)));
+        return new ArrayList<>(all.values());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.skillbox.vacancytracker.service;
+
+import com.skillbox.vacancytracker.model.SearchCriteria;
+import com.skillbox.vacancytracker.model.Vacancy;
+
+import java.util.List;
+
+// The local half of a search: the API narrows by region, experience and text, this applies what it cannot
+public class VacancyCriteriaMatcher {
+    
+    public List<Vacancy> filter(List<Vacancy> vacancies, SearchCriteria criteria) {
+        return vacancies.stream()
+                .filter(vacancy -> matches(vacancy, criteria))
+                .toList();
+    }
+    
+    public boolean matches(Vacancy vacancy, SearchCriteria criteria) {
+        return matchesSalaryCriteria(vacancy, criteria)
+                && matchesKeywordCriteria(vacancy, criteria)
+                && matchesExperienceCriteria(vacancy, criteria);
+    }
+    
+    private boolean matchesSalaryCriteria(Vacancy vacancy, SearchCriteria criteria) {
+        if (criteria.getMinimumSalary() == null) {
+            return true;
+        }
+        
+        Integer salaryFrom = vacancy.getSalaryFrom();
+        Integer salaryTo = vacancy.getSalaryTo();
+        
+        if (salaryFrom != null && salaryFrom >= criteria.getMinimumSalary()) {
+            return true;
+        }
+        
+        if (salaryTo != null && salaryTo >= criteria.getMinimumSalary()) {
+            return true;
+        }
+        
+        return salaryFrom == null && salaryTo == null;
+    }
+    
+    private boolean matchesKeywordCriteria(Vacancy vacancy, SearchCriteria criteria) {
+        if (criteria.getKeyword() == null || criteria.getKeyword().isEmpty()) {
+            return true;
+        }
+        
+        String keyword = criteria.getKeyword().toLowerCase();
+        String title = vacancy.getTitle() != null ? vacancy.getTitle().toLowerCase() : "";
+        String company = vacancy.getCompanyName() != null ? vacancy.getCompanyName().toLowerCase() : "";
+        String description = vacancy.getDescription() != null ? vacancy.getDescription().toLowerCase() : "";
+        
+        return title.contains(keyword) || company.contains(keyword) || description.contains(keyword);
+    }
+    
+    private boolean matchesExperienceCriteria(Vacancy vacancy, SearchCriteria criteria) {
+        if (criteria.getMinimumExperience() == null) {
+            return true;
+        }
+        
+        Integer experience = vacancy.getExperienceRequired();
+        if (experience == null) {
+            return true;
+        }
+        
+        return experience >= criteria.getMinimumExperience();
+    }
+}
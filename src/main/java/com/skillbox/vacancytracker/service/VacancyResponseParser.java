@@ -20,12 +20,18 @@ public class VacancyResponseParser {
     private static final Logger logger = LoggerFactory.getLogger(VacancyResponseParser.class);
     
     private final ObjectMapper objectMapper;
+    private final VacancyCriteriaMatcher matcher = new VacancyCriteriaMatcher();
     
     public VacancyResponseParser() {
         this.objectMapper = JsonMapper.getInstance();
     }
     
     public List<Vacancy> parseVacancies(String responseBody, SearchCriteria criteria) throws IOException {
+        return parsePage(responseBody, criteria).vacancies();
+    }
+    
+    // Keeps what pagination needs besides the filtered vacancies: how many the page carried and the total hit count
+    public Page parsePage(String responseBody, SearchCriteria criteria) throws IOException {
         JsonNode root = objectMapper.readTree(responseBody);
         
         String status = root.path(ApiConstants.JSON_STATUS).asText();
@@ -37,8 +43,10 @@ public class VacancyResponseParser {
         JsonNode vacanciesNode = results.path(ApiConstants.JSON_VACANCIES);
         
         List<Vacancy> vacancies = new ArrayList<>();
+        int fetched = 0;
         
         if (vacanciesNode.isArray()) {
+            fetched = vacanciesNode.size();
             for (JsonNode vacancyNode : vacanciesNode) {
                 JsonNode vacancy = vacancyNode.path(ApiConstants.JSON_VACANCY);
                 if (!vacancy.isMissingNode() && !vacancy.isNull()) {
@@ -51,7 +59,8 @@ public class VacancyResponseParser {
         }
         
         logger.debug("Parsed {} vacancies from API response", vacancies.size());
-        return filterVacancies(vacancies, criteria);
+        JsonNode total = root.path(ApiConstants.JSON_META).path(ApiConstants.JSON_TOTAL);
+        return new Page(matcher.filter(vacancies, criteria), fetched, total.canConvertToInt() ? total.asInt() : null);
     }
     
     private Vacancy parseVacancy(JsonNode vacancyNode) {
@@ -137,56 +146,6 @@ public class VacancyResponseParser {
         return text.isEmpty() ? null : text;
     }
     
-    private List<Vacancy> filterVacancies(List<Vacancy> vacancies, SearchCriteria criteria) {
-        return vacancies.stream()
-                .filter(vacancy -> matchesSalaryCriteria(vacancy, criteria))
-                .filter(vacancy -> matchesKeywordCriteria(vacancy, criteria))
-                .filter(vacancy -> matchesExperienceCriteria(vacancy, criteria))
-                .toList();
-    }
-    
-    private boolean matchesSalaryCriteria(Vacancy vacancy, SearchCriteria criteria) {
-        if (criteria.getMinimumSalary() == null) {
-            return true;
-        }
-        
-        Integer salaryFrom = vacancy.getSalaryFrom();
-        Integer salaryTo = vacancy.getSalaryTo();
-        
-        if (salaryFrom != null && salaryFrom >= criteria.getMinimumSalary()) {
-            return true;
-        }
-        
-        if (salaryTo != null && salaryTo >= criteria.getMinimumSalary()) {
-            return true;
-        }
-        
-        return salaryFrom == null && salaryTo == null;
-    }
-    
-    private boolean matchesKeywordCriteria(Vacancy vacancy, SearchCriteria criteria) {
-        if (criteria.getKeyword() == null || criteria.getKeyword().isEmpty()) {
-            return true;
-        }
-        
-        String keyword = criteria.getKeyword().toLowerCase();
-        String title = vacancy.getTitle() != null ? vacancy.getTitle().toLowerCase() : "";
-        String company = vacancy.getCompanyName() != null ? vacancy.getCompanyName().toLowerCase() : "";
-        String description = vacancy.getDescription() != null ? vacancy.getDescription().toLowerCase() : "";
-        
-        return title.contains(keyword) || company.contains(keyword) || description.contains(keyword);
-    }
-    
-    private boolean matchesExperienceCriteria(Vacancy vacancy, SearchCriteria criteria) {
-        if (criteria.getMinimumExperience() == null) {
-            return true;
-        }
-        
-        Integer experience = vacancy.getExperienceRequired();
-        if (experience == null) {
-            return true;
-        }
-        
-        return experience >= criteria.getMinimumExperience();
+    public record Page(List<Vacancy> vacancies, int fetched, Integer total) {
     }
 }
\ No newline at end of file
@@ -1,42 +1,83 @@
 package com.skillbox.vacancytracker.service;
 
 import com.skillbox.vacancytracker.model.BotUser;
+import com.skillbox.vacancytracker.model.UserVacancy;
+import com.skillbox.vacancytracker.repository.ColdUserStore;
+import com.skillbox.vacancytracker.repository.QueryWatermarkStore;
+import com.skillbox.vacancytracker.repository.SeenVacancyRepository;
 import com.skillbox.vacancytracker.repository.UserRepository;
 import com.skillbox.vacancytracker.repository.UserVacancyRepository;
 import com.skillbox.vacancytracker.task.NotificationTask;
+import com.skillbox.vacancytracker.task.RegionHarvestCycle;
+import com.skillbox.vacancytracker.task.VacancyCheckCycle;
 import com.skillbox.vacancytracker.task.VacancyCheckTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.telegram.telegrambots.meta.generics.TelegramClient;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 public class VacancyTrackingService {
     private static final Logger logger = LoggerFactory.getLogger(VacancyTrackingService.class);
+    // Recording every single message would turn each update into a user write
+    private static final Duration INTERACTION_SAVE_INTERVAL = Duration.ofHours(1);
     
     private final UserRepository userRepository;
     private final UserVacancyRepository userVacancyRepository;
     private final VacancyApiClient vacancyApiClient;
     private final ScheduledTaskManager taskManager;
     private final TelegramClient telegramClient;
+    private final SeenVacancyRepository seenVacancyRepository;
+    private final ColdUserStore coldUserStore;
+    // Serializes hibernating and waking, so a user writing in mid-sweep is never half parked
+    private final Object hibernationLock = new Object();
+    // Set once the grouped cycle runs; per-user tasks then only cover the first check after tracking starts
+    private volatile boolean checkCycleStarted;
     
     public VacancyTrackingService(UserRepository userRepository,
                                   UserVacancyRepository userVacancyRepository,
                                   VacancyApiClient vacancyApiClient,
                                   ScheduledTaskManager taskManager,
                                   TelegramClient telegramClient) {
+        this(userRepository, userVacancyRepository, vacancyApiClient, taskManager, telegramClient, null);
+    }
+    
+    public VacancyTrackingService(UserRepository userRepository,
+                                  UserVacancyRepository userVacancyRepository,
+                                  VacancyApiClient vacancyApiClient,
+                                  ScheduledTaskManager taskManager,
+                                  TelegramClient telegramClient,
+                                  SeenVacancyRepository seenVacancyRepository) {
+        this(userRepository, userVacancyRepository, vacancyApiClient, taskManager, telegramClient,
+                seenVacancyRepository, null);
+    }
+    
+    public VacancyTrackingService(UserRepository userRepository,
+                                  UserVacancyRepository userVacancyRepository,
+                                  VacancyApiClient vacancyApiClient,
+                                  ScheduledTaskManager taskManager,
+                                  TelegramClient telegramClient,
+                                  SeenVacancyRepository seenVacancyRepository,
+                                  ColdUserStore coldUserStore) {
         this.userRepository = userRepository;
         this.userVacancyRepository = userVacancyRepository;
         this.vacancyApiClient = vacancyApiClient;
         this.taskManager = taskManager;
         this.telegramClient = telegramClient;
+        this.seenVacancyRepository = seenVacancyRepository;
+        this.coldUserStore = coldUserStore;
     }
     
     public void startTrackingForUser(Long userId) {
         userRepository.findById(userId).ifPresent(user -> {
-            if (!user.isActive()) {
+            if (!user.isActive() || user.isHibernated()) {
                 logger.info("User {} is not active, not starting tracking", userId);
                 return;
             }
@@ -56,9 +97,32 @@ public class VacancyTrackingService {
         });
     }
     
+    public void startCheckCycle(Duration interval) {
+        startCheckCycle(interval, false);
+    }
+    
+    public void startCheckCycle(Duration interval, boolean harvestRegions) {
+        startCheckCycle(interval, harvestRegions, null);
+    }
+    
+    // Harvesting crawls whole regions and matches locally instead of querying once per distinct search.
+    // Watermarks, when given, make every poll ask only for what changed since the previous one.
+    public void startCheckCycle(Duration interval, boolean harvestRegions, QueryWatermarkStore watermarks) {
+        checkCycleStarted = true;
+        Runnable cycle = harvestRegions
+                ? new RegionHarvestCycle(userRepository, vacancyApiClient, userVacancyRepository,
+                        seenVacancyRepository, watermarks)
+                : new VacancyCheckCycle(userRepository, vacancyApiClient, userVacancyRepository,
+                        seenVacancyRepository, watermarks);
+        taskManager.scheduleCheckCycle(interval, cycle);
+    }
+    
     public void stopTrackingForUser(Long userId) {
         taskManager.cancelUserTasks(userId);
         userVacancyRepository.deleteByUserId(userId);
+        if (seenVacancyRepository != null) {
+            seenVacancyRepository.forgetUser(userId);
+        }
         logger.info("Stopped tracking for user {}", userId);
     }
     
@@ -79,24 +143,125 @@ public class VacancyTrackingService {
     public void restartAllTasks() {
         logger.info("Restarting all scheduled tasks");
         
-        List<BotUser> activeUsers = userRepository.findAll().stream()
-                .filter(BotUser::isActive)
-                .filter(u -> u.getSearchCriteria() != null && !u.getSearchCriteria().isEmpty())
-                .toList();
+        AtomicInteger restarted = new AtomicInteger();
+        try (Stream<BotUser> users = userRepository.stream()) {
+            users.filter(BotUser::isActive)
+                    .filter(u -> !u.isHibernated())
+                    .filter(u -> u.getSearchCriteria() != null && !u.getSearchCriteria().isEmpty())
+                    .forEach(user -> {
+                        if (!checkCycleStarted) {
+                            scheduleVacancyCheck(user);
+                        }
+                        if (user.getNotificationTime() != null) {
+                            scheduleNotification(user);
+                        }
+                        restarted.incrementAndGet();
+                    });
+        }
         
-        for (BotUser user : activeUsers) {
-            scheduleVacancyCheck(user);
-            if (user.getNotificationTime() != null) {
-                scheduleNotification(user);
-            }
+        logger.info("Restarted tasks for {} active users", restarted.get());
+    }
+    
+    // Users idle for longer than the given period lose their tasks and their vacancy data moves to cold storage.
+    // Users that never recorded an interaction are stamped now, so they get the full period before hibernating.
+    public int hibernateIdleUsers(Duration idle) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minus(idle);
+        List<BotUser> unstamped = new ArrayList<>();
+        List<Long> idleUserIds = new ArrayList<>();
+        try (Stream<BotUser> users = userRepository.stream()) {
+            users.filter(user -> !user.isHibernated()).forEach(user -> {
+                if (user.getLastInteractionAt() == null) {
+                    user.setLastInteractionAt(now);
+                    unstamped.add(user);
+                } else if (user.getLastInteractionAt().isBefore(cutoff)) {
+                    idleUserIds.add(user.getUserId());
+                }
+            });
         }
+        userRepository.saveAll(unstamped);
         
-        logger.info("Restarted tasks for {} active users", activeUsers.size());
+        int hibernated = 0;
+        for (Long userId : idleUserIds) {
+            if (hibernate(userId, cutoff)) {
+                hibernated++;
+            }
+        }
+        logger.info("Hibernated {} users idle since {}", hibernated, cutoff);
+        return hibernated;
+    }
+    
+    // Called for every incoming update; wakes a hibernated user before their command is handled
+    public void recordInteraction(Long userId) {
+        synchronized (hibernationLock) {
+            userRepository.findById(userId).ifPresent(user -> {
+                LocalDateTime now = LocalDateTime.now();
+                boolean waking = user.isHibernated();
+                if (!waking && user.getLastInteractionAt() != null
+                        && user.getLastInteractionAt().isAfter(now.minus(INTERACTION_SAVE_INTERVAL))) {
+                    return;
+                }
+                if (waking) {
+                    restoreFromColdStorage(userId);
+                }
+                user.setLastInteractionAt(now);
+                user.setHibernated(false);
+                userRepository.save(user);
+                if (waking) {
+                    logger.info("Woke up hibernated user {}", userId);
+                    startTrackingForUser(userId);
+                }
+            });
+        }
+    }
+    
+    // Cold copy first, hot data second: a crash in between leaves duplicates, never a gap
+    private boolean hibernate(Long userId, LocalDateTime cutoff) {
+        synchronized (hibernationLock) {
+            BotUser user = userRepository.findById(userId).orElse(null);
+            if (user == null || user.isHibernated() || user.getLastInteractionAt() == null
+                    || !user.getLastInteractionAt().isBefore(cutoff)) {
+                return false;
+            }
+            
+            taskManager.cancelUserTasks(userId);
+            if (coldUserStore != null) {
+                List<UserVacancy> userVacancies = userVacancyRepository.findByUserId(userId);
+                long[] seen = seenVacancyRepository != null ? seenVacancyRepository.exportUser(userId) : new long[0];
+                coldUserStore.put(userId, userVacancies, seen);
+                userVacancyRepository.deleteByUserId(userId);
+                if (seenVacancyRepository != null) {
+                    seenVacancyRepository.forgetUser(userId);
+                }
+            }
+            user.setHibernated(true);
+            userRepository.save(user);
+            logger.debug("Hibernated user {}", userId);
+            return true;
+        }
+    }
+    
+    private void restoreFromColdStorage(Long userId) {
+        if (coldUserStore == null) {
+            return;
+        }
+        coldUserStore.get(userId).ifPresent(coldUser -> {
+            userVacancyRepository.saveAll(coldUser.userVacancies());
+            if (seenVacancyRepository != null) {
+                seenVacancyRepository.importUser(userId, coldUser.seen());
+            }
+            coldUserStore.remove(userId);
+        });
     }
     
     private void scheduleVacancyCheck(BotUser user) {
-        VacancyCheckTask task = new VacancyCheckTask(user, vacancyApiClient, userVacancyRepository);
-        taskManager.scheduleVacancyCheck(user.getUserId(), task);
+        VacancyCheckTask task = new VacancyCheckTask(user, vacancyApiClient, userVacancyRepository,
+                seenVacancyRepository);
+        if (checkCycleStarted) {
+            taskManager.runVacancyCheckOnce(user.getUserId(), task);
+        } else {
+            taskManager.scheduleVacancyCheck(user.getUserId(), task);
+        }
     }
     
     private void scheduleNotification(BotUser user) {
@@ -108,7 +273,7 @@ public class VacancyTrackingService {
             LocalTime notificationTime = LocalTime.parse(user.getNotificationTime());
             ZoneOffset timezone = user.getTimezoneOffset() != null ? user.getTimezoneOffset() : ZoneOffset.UTC;
             
-            NotificationTask task = new NotificationTask(user, userVacancyRepository, telegramClient);
+            NotificationTask task = new NotificationTask(user, userVacancyRepository, userRepository, telegramClient);
             taskManager.scheduleNotification(user.getUserId(), notificationTime, timezone, task);
             
         } catch (Exception e) {
@@ -4,6 +4,7 @@ import com.skillbox.vacancytracker.constant.BotMessages;
 import com.skillbox.vacancytracker.model.BotUser;
 import com.skillbox.vacancytracker.model.UserVacancy;
 import com.skillbox.vacancytracker.model.Vacancy;
+import com.skillbox.vacancytracker.repository.UserRepository;
 import com.skillbox.vacancytracker.repository.UserVacancyRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,13 +25,23 @@ public class NotificationTask implements Runnable {
     
     private final BotUser user;
     private final UserVacancyRepository userVacancyRepository;
+    private final UserRepository userRepository;
     private final TelegramClient telegramClient;
     
     public NotificationTask(BotUser user,
                            UserVacancyRepository userVacancyRepository,
                            TelegramClient telegramClient) {
+        this(user, userVacancyRepository, null, telegramClient);
+    }
+    
+    // With a user repository delivery is tracked by the user's watermark; without one, by flags on every record
+    public NotificationTask(BotUser user,
+                           UserVacancyRepository userVacancyRepository,
+                           UserRepository userRepository,
+                           TelegramClient telegramClient) {
         this.user = user;
         this.userVacancyRepository = userVacancyRepository;
+        this.userRepository = userRepository;
         this.telegramClient = telegramClient;
     }
     
@@ -42,7 +53,7 @@ public class NotificationTask implements Runnable {
         }
         
         try {
-            List<UserVacancy> newVacancies = userVacancyRepository.findNewByUserId(user.getUserId());
+            List<UserVacancy> newVacancies = findNewVacancies();
             
             if (newVacancies.isEmpty()) {
                 logger.debug("No new vacancies to notify user {}", user.getUserId());
@@ -54,19 +65,44 @@ public class NotificationTask implements Runnable {
             
             sendNotificationMessage(newVacancies);
             
-            for (UserVacancy vacancy : newVacancies) {
-                userVacancyRepository.markAsNotified(vacancy.getId());
-            }
+            acknowledge(newVacancies);
             
         } catch (Exception e) {
             logger.error("Error sending notification to user {}", user.getUserId(), e);
         }
     }
     
+    private List<UserVacancy> findNewVacancies() {
+        if (userRepository == null) {
+            return userVacancyRepository.findNewByUserId(user.getUserId());
+        }
+        long notifiedSequence = userRepository.findById(user.getUserId())
+                .map(BotUser::getNotifiedSequence)
+                .orElse(user.getNotifiedSequence());
+        userVacancyRepository.pruneNotified(user.getUserId(), notifiedSequence);
+        return userVacancyRepository.findNewByUserId(user.getUserId(), notifiedSequence);
+    }
+    
+    // The watermark acknowledges the whole digest in one write, however many vacancies it held
+    private void acknowledge(List<UserVacancy> delivered) {
+        if (userRepository == null) {
+            userVacancyRepository.markAllAsNotified(delivered.stream()
+                    .map(UserVacancy::getId)
+                    .toList());
+            return;
+        }
+        long notifiedSequence = delivered.stream()
+                .mapToLong(UserVacancy::effectiveSequence)
+                .max()
+                .orElseThrow();
+        userRepository.advanceNotifiedSequence(user.getUserId(), notifiedSequence);
+    }
+    
     private void sendNotificationMessage(List<UserVacancy> vacancies) throws TelegramApiException {
         StringBuilder messageText = new StringBuilder();
         messageText.append("🔔 Найдены новые вакансии: ").append(vacancies.size()).append("\n\n");
         
+        // The repository returns the newest first, so the first page is the newest N without any sorting here
         int endIndex = Math.min(VACANCIES_PER_PAGE, vacancies.size());
         for (int i = 0; i < endIndex; i++) {
             Vacancy vacancy = vacancies.get(i).getVacancy();
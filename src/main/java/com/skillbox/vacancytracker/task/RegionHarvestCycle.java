@@ -0,0 +1,169 @@
+package com.skillbox.vacancytracker.task;
+
+import com.skillbox.vacancytracker.model.BotUser;
+import com.skillbox.vacancytracker.model.SearchCriteria;
+import com.skillbox.vacancytracker.model.Vacancy;
+import com.skillbox.vacancytracker.repository.QueryWatermarkStore;
+import com.skillbox.vacancytracker.repository.SeenVacancyRepository;
+import com.skillbox.vacancytracker.repository.UserRepository;
+import com.skillbox.vacancytracker.repository.UserVacancyRepository;
+import com.skillbox.vacancytracker.service.VacancyApiClient;
+import com.skillbox.vacancytracker.service.VacancyCriteriaMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+// Crawls every recently modified vacancy of each region that has users, then matches all of them locally.
+// API traffic is bounded by the number of regions; matching is CPU work and runs in parallel.
+// Users without a region would need a nationwide crawl, so they keep one grouped query per distinct search.
+public class RegionHarvestCycle implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(RegionHarvestCycle.class);
+    
+    private final UserRepository userRepository;
+    private final VacancyApiClient vacancyApiClient;
+    private final UserVacancyRepository userVacancyRepository;
+    private final SeenVacancyRepository seenVacancyRepository;
+    private final QueryWatermarkStore watermarks;
+    private final VacancyCriteriaMatcher matcher = new VacancyCriteriaMatcher();
+    
+    public RegionHarvestCycle(UserRepository userRepository,
+                              VacancyApiClient vacancyApiClient,
+                              UserVacancyRepository userVacancyRepository,
+                              SeenVacancyRepository seenVacancyRepository) {
+        this(userRepository, vacancyApiClient, userVacancyRepository, seenVacancyRepository, null);
+    }
+    
+    // With watermarks, a region's corpus holds only what changed since its last fully recorded harvest
+    public RegionHarvestCycle(UserRepository userRepository,
+                              VacancyApiClient vacancyApiClient,
+                              UserVacancyRepository userVacancyRepository,
+                              SeenVacancyRepository seenVacancyRepository,
+                              QueryWatermarkStore watermarks) {
+        this.userRepository = userRepository;
+        this.vacancyApiClient = vacancyApiClient;
+        this.userVacancyRepository = userVacancyRepository;
+        this.seenVacancyRepository = seenVacancyRepository;
+        this.watermarks = watermarks;
+    }
+    
+    @Override
+    public void run() {
+        try {
+            Report report = check();
+            logger.info("Harvest cycle: {} regions ({} vacancies, {} failed), {} nationwide queries, {} users, {} new vacancies",
+                       report.regions(), report.corpusSize(), report.failedRegions(), report.nationwideQueries(),
+                       report.users(), report.newVacancies());
+        } catch (Exception e) {
+            logger.error("Error running region harvest cycle", e);
+        }
+    }
+    
+    public Report check() {
+        Map<SearchCriteria, List<BotUser>> plan;
+        try (Stream<BotUser> users = userRepository.stream()) {
+            plan = VacancyCheckCycle.plan(users);
+        }
+        Map<Integer, List<BotUser>> usersByRegion = new TreeMap<>();
+        Map<SearchCriteria, List<BotUser>> nationwide = new HashMap<>();
+        plan.forEach((query, users) -> {
+            if (query.getRegionCode() != null) {
+                usersByRegion.computeIfAbsent(query.getRegionCode(), region -> new ArrayList<>()).addAll(users);
+            } else {
+                nationwide.put(query, users);
+            }
+        });
+        
+        Map<SearchCriteria, LocalDateTime> sentAt = new HashMap<>();
+        Map<Integer, List<Vacancy>> corpus = harvest(usersByRegion.keySet(), sentAt);
+        List<Candidates> candidates = new ArrayList<>();
+        usersByRegion.forEach((region, users) -> {
+            List<Vacancy> regionVacancies = corpus.get(region);
+            if (regionVacancies != null) {
+                SearchCriteria query = regionQuery(region);
+                users.forEach(user -> candidates.add(new Candidates(user, query, regionVacancies)));
+            }
+        });
+        nationwide.forEach((query, users) -> {
+            try {
+                LocalDateTime sent = prepare(query);
+                List<Vacancy> found = vacancyApiClient.searchVacancies(query);
+                sentAt.put(query, sent);
+                users.forEach(user -> candidates.add(new Candidates(user, query, found)));
+            } catch (Exception e) {
+                logger.error("Error fetching vacancies for {} ({} users)", query, users.size(), e);
+            }
+        });
+        
+        List<Candidates> matches = candidates.parallelStream()
+                .map(candidate -> new Candidates(candidate.user(), candidate.query(),
+                        matcher.filter(candidate.vacancies(), candidate.user().getSearchCriteria())))
+                .toList();
+        
+        int newVacancies = 0;
+        Set<SearchCriteria> incomplete = new HashSet<>();
+        for (Candidates match : matches) {
+            try {
+                newVacancies += new VacancyCheckTask(match.user(), vacancyApiClient, userVacancyRepository,
+                        seenVacancyRepository).recordNewVacancies(match.vacancies());
+            } catch (Exception e) {
+                logger.error("Error checking vacancies for user {}", match.user().getUserId(), e);
+                incomplete.add(match.query());
+            }
+        }
+        if (watermarks != null) {
+            sentAt.keySet().removeAll(incomplete);
+            watermarks.advance(sentAt);
+        }
+        int corpusSize = corpus.values().stream().mapToInt(List::size).sum();
+        return new Report(corpus.size(), usersByRegion.size() - corpus.size(), corpusSize, nationwide.size(),
+                matches.size(), newVacancies);
+    }
+    
+    private Map<Integer, List<Vacancy>> harvest(Iterable<Integer> regions, Map<SearchCriteria, LocalDateTime> sentAt) {
+        Map<Integer, List<Vacancy>> corpus = new HashMap<>();
+        for (Integer region : regions) {
+            SearchCriteria query = regionQuery(region);
+            try {
+                LocalDateTime sent = prepare(query);
+                List<Vacancy> vacancies = vacancyApiClient.searchAllVacancies(query);
+                corpus.put(region, vacancies);
+                sentAt.put(query, sent);
+                logger.debug("Harvested {} vacancies in region {}", vacancies.size(), region);
+            } catch (Exception e) {
+                logger.error("Error harvesting vacancies in region {}", region, e);
+            }
+        }
+        return corpus;
+    }
+    
+    // Narrows the query to what changed since its watermark and returns the time it is sent at, in UTC
+    private LocalDateTime prepare(SearchCriteria query) {
+        if (watermarks != null) {
+            query.setModifiedSince(watermarks.modifiedSince(query));
+        }
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+    
+    private static SearchCriteria regionQuery(Integer region) {
+        SearchCriteria query = new SearchCriteria();
+        query.setRegionCode(region);
+        return query;
+    }
+    
+    private record Candidates(BotUser user, SearchCriteria query, List<Vacancy> vacancies) {
+    }
+    
+    public record Report(int regions, int failedRegions, int corpusSize, int nationwideQueries, int users,
+                         int newVacancies) {
+    }
+}
@@ -0,0 +1,236 @@
+package com.skillbox.vacancytracker.task;
+
+import com.skillbox.vacancytracker.config.RetentionConfig;
+import com.skillbox.vacancytracker.model.BotUser;
+import com.skillbox.vacancytracker.model.UserVacancy;
+import com.skillbox.vacancytracker.repository.TieredUserVacancyRepository;
+import com.skillbox.vacancytracker.repository.UserRepository;
+import com.skillbox.vacancytracker.repository.UserVacancyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class RetentionTask implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(RetentionTask.class);
+    private static final Comparator<UserVacancy> NEWEST_FIRST = Comparator.comparing(UserVacancy::getFoundAt,
+            Comparator.nullsLast(Comparator.reverseOrder()));
+    private static final int PURGE_BATCH_SIZE = 1000;
+    
+    private final UserVacancyRepository userVacancyRepository;
+    private final RetentionConfig retentionConfig;
+    private final UserRepository userRepository;
+    
+    public RetentionTask(UserVacancyRepository userVacancyRepository, RetentionConfig retentionConfig) {
+        this(userVacancyRepository, retentionConfig, null);
+    }
+    
+    // The user repository supplies notification watermarks; without it only per-record flags count as delivered
+    public RetentionTask(UserVacancyRepository userVacancyRepository, RetentionConfig retentionConfig,
+                         UserRepository userRepository) {
+        this.userVacancyRepository = userVacancyRepository;
+        this.retentionConfig = retentionConfig;
+        this.userRepository = userRepository;
+    }
+    
+    @Override
+    public void run() {
+        try {
+            Report report = purge(LocalDateTime.now());
+            if (report.removedRecords() > 0) {
+                logger.info("Retention removed {} notified vacancies, reclaimed {} bytes",
+                           report.removedRecords(), report.reclaimedBytes());
+            } else {
+                logger.debug("Retention found nothing to remove");
+            }
+        } catch (Exception e) {
+            logger.error("Error applying vacancy retention", e);
+        }
+    }
+    
+    // Only notified records are ever dropped: a vacancy the user has not been told about yet always survives.
+    // Expired records are deleted first, then the per-user cap trims what is left; neither holds more than
+    // a bounded batch of records at a time.
+    // A tiered repository is purged one tier at a time: the hot records first, then the archive month by month,
+    // newest first, carrying each user's kept count along so the per-user cap still trims the oldest records.
+    public Report purge(LocalDateTime now) {
+        if (!retentionConfig.isEnabled()) {
+            return new Report(0, 0);
+        }
+        
+        TieredUserVacancyRepository tiered = userVacancyRepository instanceof TieredUserVacancyRepository repository
+                ? repository
+                : null;
+        UserVacancyRepository records = tiered != null ? tiered.hotTier() : userVacancyRepository;
+        Map<Long, Long> notifiedSequences = new HashMap<>();
+        Map<Long, Integer> kept = new HashMap<>();
+        
+        long sizeBefore = userVacancyRepository.storageBytes();
+        int removed = purgeTooOld(records, notifiedSequences, now);
+        removed += purgeOverCap(records, notifiedSequences, kept, now);
+        if (tiered != null) {
+            removed += tiered.purgeCold(archived -> selectExpired(archived, notifiedSequences, kept, now));
+        }
+        if (removed == 0) {
+            return new Report(0, 0);
+        }
+        
+        userVacancyRepository.compact();
+        long reclaimed = Math.max(0, sizeBefore - userVacancyRepository.storageBytes());
+        return new Report(removed, reclaimed);
+    }
+    
+    // The cursor is closed before each delete: in file mode it holds the read lock the delete has to wait for.
+    // A full batch may not be the last one, so the scan then starts over on what is left.
+    private int purgeTooOld(UserVacancyRepository records, Map<Long, Long> notifiedSequences, LocalDateTime now) {
+        if (retentionConfig.notifiedMaxAgeDays() == null) {
+            return 0;
+        }
+        LocalDateTime cutoff = now.minusDays(retentionConfig.notifiedMaxAgeDays());
+        int removed = 0;
+        List<String> batch;
+        do {
+            batch = new ArrayList<>();
+            try (Stream<UserVacancy> userVacancies = records.stream()) {
+                Iterator<UserVacancy> cursor = userVacancies.iterator();
+                while (batch.size() < PURGE_BATCH_SIZE && cursor.hasNext()) {
+                    UserVacancy userVacancy = cursor.next();
+                    // Records without an owner have no watermark to be judged by, so they are left alone
+                    if (userVacancy.getUserId() != null && notifiedBefore(userVacancy,
+                            notifiedSequences.computeIfAbsent(userVacancy.getUserId(), this::notifiedSequence), cutoff)) {
+                        batch.add(userVacancy.getId());
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                records.deleteAll(batch);
+            }
+            removed += batch.size();
+        } while (batch.size() == PURGE_BATCH_SIZE);
+        return removed;
+    }
+    
+    // Records are only counted per user; users over the cap are then read back in groups of about one batch
+    private int purgeOverCap(UserVacancyRepository records, Map<Long, Long> notifiedSequences,
+                             Map<Long, Integer> kept, LocalDateTime now) {
+        Integer maxPerUser = retentionConfig.maxPerUser();
+        if (maxPerUser == null) {
+            return 0;
+        }
+        try (Stream<UserVacancy> userVacancies = records.stream()) {
+            userVacancies.filter(userVacancy -> userVacancy.getUserId() != null)
+                    .forEach(userVacancy -> kept.merge(userVacancy.getUserId(), 1, Integer::sum));
+        }
+        
+        List<Set<Long>> groups = new ArrayList<>();
+        Set<Long> group = new HashSet<>();
+        int groupSize = 0;
+        for (Map.Entry<Long, Integer> entry : kept.entrySet()) {
+            if (entry.getValue() <= maxPerUser) {
+                continue;
+            }
+            if (!group.isEmpty() && groupSize + entry.getValue() > PURGE_BATCH_SIZE) {
+                groups.add(group);
+                group = new HashSet<>();
+                groupSize = 0;
+            }
+            group.add(entry.getKey());
+            groupSize += entry.getValue();
+        }
+        if (!group.isEmpty()) {
+            groups.add(group);
+        }
+        
+        int removed = 0;
+        for (Set<Long> userIds : groups) {
+            List<UserVacancy> owned;
+            try (Stream<UserVacancy> userVacancies = records.stream()) {
+                owned = userVacancies.filter(userVacancy -> userIds.contains(userVacancy.getUserId())).toList();
+            }
+            // Recounted from what was read back, in case records changed since the first pass
+            kept.keySet().removeAll(userIds);
+            List<String> expired = selectExpired(owned, notifiedSequences, kept, now);
+            if (!expired.isEmpty()) {
+                records.deleteAll(expired);
+            }
+            removed += expired.size();
+        }
+        return removed;
+    }
+    
+    // Records newer than these were already counted into kept by an earlier pass
+    private List<String> selectExpired(List<UserVacancy> userVacancies, Map<Long, Long> notifiedSequences,
+                                       Map<Long, Integer> kept, LocalDateTime now) {
+        // Records without an owner have no cap or watermark to be judged by, so they are left alone
+        Map<Long, List<UserVacancy>> byUser = userVacancies.stream()
+                .filter(userVacancy -> userVacancy.getUserId() != null)
+                .collect(Collectors.groupingBy(UserVacancy::getUserId));
+        
+        List<String> expiredIds = new ArrayList<>();
+        for (Map.Entry<Long, List<UserVacancy>> entry : byUser.entrySet()) {
+            Long userId = entry.getKey();
+            long notifiedSequence = notifiedSequences.computeIfAbsent(userId, this::notifiedSequence);
+            List<String> expired = selectExpired(entry.getValue(), notifiedSequence, kept.getOrDefault(userId, 0), now);
+            kept.merge(userId, entry.getValue().size() - expired.size(), Integer::sum);
+            expiredIds.addAll(expired);
+        }
+        return expiredIds;
+    }
+    
+    private long notifiedSequence(Long userId) {
+        if (userRepository == null) {
+            return Long.MIN_VALUE;
+        }
+        return userRepository.findById(userId).map(BotUser::getNotifiedSequence).orElse(Long.MIN_VALUE);
+    }
+    
+    private List<String> selectExpired(List<UserVacancy> userVacancies, long notifiedSequence, int newerKept,
+                                       LocalDateTime now) {
+        List<UserVacancy> sorted = new ArrayList<>(userVacancies);
+        sorted.sort(NEWEST_FIRST);
+        
+        LocalDateTime cutoff = retentionConfig.notifiedMaxAgeDays() != null
+                ? now.minusDays(retentionConfig.notifiedMaxAgeDays())
+                : null;
+        int remaining = newerKept + sorted.size();
+        Integer maxPerUser = retentionConfig.maxPerUser();
+        
+        List<String> expired = new ArrayList<>();
+        // Walk oldest first so the per-user cap trims from the tail
+        for (int i = sorted.size() - 1; i >= 0; i--) {
+            UserVacancy userVacancy = sorted.get(i);
+            if (userVacancy.isNewSince(notifiedSequence)) {
+                continue;
+            }
+            boolean tooOld = notifiedBefore(userVacancy, notifiedSequence, cutoff);
+            boolean overCap = maxPerUser != null && remaining > maxPerUser;
+            if (tooOld || overCap) {
+                expired.add(userVacancy.getId());
+                remaining--;
+            }
+        }
+        return expired;
+    }
+    
+    private static boolean notifiedBefore(UserVacancy userVacancy, long notifiedSequence, LocalDateTime cutoff) {
+        if (cutoff == null || userVacancy.isNewSince(notifiedSequence)) {
+            return false;
+        }
+        // Records acknowledged by the watermark keep no notified_at; they were delivered after being found
+        LocalDateTime notifiedAt = userVacancy.isNew() ? userVacancy.getFoundAt() : userVacancy.getNotifiedAt();
+        return notifiedAt != null && notifiedAt.isBefore(cutoff);
+    }
+    
+    public record Report(int removedRecords, long reclaimedBytes) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.skillbox.vacancytracker.task;
+
+import com.skillbox.vacancytracker.model.BotUser;
+import com.skillbox.vacancytracker.repository.TieredUserVacancyRepository;
+import com.skillbox.vacancytracker.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+public class TieringTask implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(TieringTask.class);
+    
+    private final TieredUserVacancyRepository userVacancyRepository;
+    private final int hotDays;
+    private final UserRepository userRepository;
+    
+    public TieringTask(TieredUserVacancyRepository userVacancyRepository, int hotDays) {
+        this(userVacancyRepository, hotDays, null);
+    }
+    
+    // The user repository supplies notification watermarks; without it only per-record flags count as delivered
+    public TieringTask(TieredUserVacancyRepository userVacancyRepository, int hotDays, UserRepository userRepository) {
+        this.userVacancyRepository = userVacancyRepository;
+        this.hotDays = hotDays;
+        this.userRepository = userRepository;
+    }
+    
+    @Override
+    public void run() {
+        try {
+            int moved = move(LocalDateTime.now());
+            if (moved > 0) {
+                logger.info("Moved {} delivered vacancies older than {} days into the history archive", moved, hotDays);
+            } else {
+                logger.debug("No vacancy history to move");
+            }
+        } catch (Exception e) {
+            logger.error("Error moving vacancy history", e);
+        }
+    }
+    
+    // Undelivered records stay hot however old they are
+    public int move(LocalDateTime now) {
+        Map<Long, Long> watermarks = new HashMap<>();
+        return userVacancyRepository.moveToCold(now.minusDays(hotDays), userVacancy ->
+                !userVacancy.isNewSince(watermarks.computeIfAbsent(userVacancy.getUserId(), this::notifiedSequence)));
+    }
+    
+    private long notifiedSequence(Long userId) {
+        if (userRepository == null) {
+            return Long.MIN_VALUE;
+        }
+        return userRepository.findById(userId).map(BotUser::getNotifiedSequence).orElse(Long.MIN_VALUE);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,174 @@
+package com.skillbox.vacancytracker.task;
+
+import com.skillbox.vacancytracker.model.BotUser;
+import com.skillbox.vacancytracker.model.SearchCriteria;
+import com.skillbox.vacancytracker.model.Vacancy;
+import com.skillbox.vacancytracker.repository.QueryWatermarkStore;
+import com.skillbox.vacancytracker.repository.SeenVacancyRepository;
+import com.skillbox.vacancytracker.repository.UserRepository;
+import com.skillbox.vacancytracker.repository.UserVacancyRepository;
+import com.skillbox.vacancytracker.service.VacancyApiClient;
+import com.skillbox.vacancytracker.service.VacancyCriteriaMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+// Checks every tracked user in one pass: users whose criteria send the same query to the API share one request,
+// and what the API cannot filter on (salary) is applied per user afterwards
+public class VacancyCheckCycle implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(VacancyCheckCycle.class);
+    // Searches run on virtual threads; this only keeps one cycle from flooding the API
+    public static final int MAX_QUERIES_IN_FLIGHT = 64;
+    
+    private final UserRepository userRepository;
+    private final VacancyApiClient vacancyApiClient;
+    private final UserVacancyRepository userVacancyRepository;
+    private final SeenVacancyRepository seenVacancyRepository;
+    private final QueryWatermarkStore watermarks;
+    private final VacancyCriteriaMatcher matcher = new VacancyCriteriaMatcher();
+    
+    public VacancyCheckCycle(UserRepository userRepository,
+                             VacancyApiClient vacancyApiClient,
+                             UserVacancyRepository userVacancyRepository,
+                             SeenVacancyRepository seenVacancyRepository) {
+        this(userRepository, vacancyApiClient, userVacancyRepository, seenVacancyRepository, null);
+    }
+    
+    // With watermarks, each query asks only for vacancies modified since its last fully recorded poll
+    public VacancyCheckCycle(UserRepository userRepository,
+                             VacancyApiClient vacancyApiClient,
+                             UserVacancyRepository userVacancyRepository,
+                             SeenVacancyRepository seenVacancyRepository,
+                             QueryWatermarkStore watermarks) {
+        this.userRepository = userRepository;
+        this.vacancyApiClient = vacancyApiClient;
+        this.userVacancyRepository = userVacancyRepository;
+        this.seenVacancyRepository = seenVacancyRepository;
+        this.watermarks = watermarks;
+    }
+    
+    @Override
+    public void run() {
+        try {
+            Report report = check();
+            logger.info("Check cycle: {} users, {} API queries, {} new vacancies, {} failed queries",
+                       report.users(), report.queries(), report.newVacancies(), report.failedQueries());
+        } catch (Exception e) {
+            logger.error("Error running vacancy check cycle", e);
+        }
+    }
+    
+    public Report check() {
+        Map<SearchCriteria, List<BotUser>> plan;
+        try (Stream<BotUser> users = userRepository.stream()) {
+            plan = plan(users);
+        }
+        
+        Map<SearchCriteria, LocalDateTime> sentAt = new HashMap<>();
+        Map<SearchCriteria, CompletableFuture<List<Vacancy>>> searches = startSearches(plan.keySet(), sentAt);
+        Map<SearchCriteria, LocalDateTime> recorded = new HashMap<>();
+        int users = 0;
+        int newVacancies = 0;
+        int failedQueries = 0;
+        for (Map.Entry<SearchCriteria, List<BotUser>> group : plan.entrySet()) {
+            users += group.getValue().size();
+            CompletableFuture<List<Vacancy>> search = searches.get(group.getKey());
+            if (search == null) {
+                failedQueries++;
+                continue;
+            }
+            List<Vacancy> found;
+            try {
+                found = search.join();
+            } catch (CompletionException e) {
+                logger.error("Error fetching vacancies for {} ({} users)", group.getKey(), group.getValue().size(),
+                        e.getCause());
+                failedQueries++;
+                continue;
+            }
+            boolean allRecorded = true;
+            for (BotUser user : group.getValue()) {
+                try {
+                    List<Vacancy> matching = matcher.filter(found, user.getSearchCriteria());
+                    newVacancies += new VacancyCheckTask(user, vacancyApiClient, userVacancyRepository,
+                            seenVacancyRepository).recordNewVacancies(matching);
+                } catch (Exception e) {
+                    logger.error("Error checking vacancies for user {}", user.getUserId(), e);
+                    allRecorded = false;
+                }
+            }
+            if (allRecorded) {
+                recorded.put(group.getKey(), sentAt.get(group.getKey()));
+            }
+        }
+        if (watermarks != null) {
+            watermarks.advance(recorded);
+        }
+        return new Report(users, plan.size(), newVacancies, failedQueries);
+    }
+    
+    // Every query is sent up front, bounded by MAX_QUERIES_IN_FLIGHT; results are recorded in plan order as the
+    // caller reaches them. An interrupted cycle leaves the remaining queries unsent.
+    private Map<SearchCriteria, CompletableFuture<List<Vacancy>>> startSearches(
+            Iterable<SearchCriteria> queries, Map<SearchCriteria, LocalDateTime> sentAt) {
+        Semaphore inFlight = new Semaphore(MAX_QUERIES_IN_FLIGHT);
+        Map<SearchCriteria, CompletableFuture<List<Vacancy>>> searches = new LinkedHashMap<>();
+        try {
+            for (SearchCriteria query : queries) {
+                inFlight.acquire();
+                if (watermarks != null) {
+                    query.setModifiedSince(watermarks.modifiedSince(query));
+                }
+                sentAt.put(query, LocalDateTime.now(ZoneOffset.UTC));
+                CompletableFuture<List<Vacancy>> search;
+                try {
+                    search = vacancyApiClient.searchVacanciesAsync(query);
+                } catch (RuntimeException e) {
+                    search = CompletableFuture.failedFuture(e);
+                }
+                searches.put(query, search.whenComplete((found, error) -> inFlight.release()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Check cycle interrupted after sending {} queries", searches.size());
+        }
+        return searches;
+    }
+    
+    // Groups trackable users by the query their criteria send to the API
+    public static Map<SearchCriteria, List<BotUser>> plan(Stream<BotUser> users) {
+        Map<SearchCriteria, List<BotUser>> groups = new LinkedHashMap<>();
+        users.filter(BotUser::isActive)
+                .filter(user -> !user.isHibernated())
+                .filter(user -> user.getSearchCriteria() != null && !user.getSearchCriteria().isEmpty())
+                .forEach(user -> groups.computeIfAbsent(apiQueryOf(user.getSearchCriteria()),
+                        query -> new ArrayList<>()).add(user));
+        return groups;
+    }
+    
+    // Only region, experience and text reach the API. The keyword is matched case-insensitively on both sides,
+    // so it is trimmed and lower-cased to let spelling variants share a query.
+    public static SearchCriteria apiQueryOf(SearchCriteria criteria) {
+        SearchCriteria query = new SearchCriteria();
+        query.setRegionCode(criteria.getRegionCode());
+        query.setMinimumExperience(criteria.getMinimumExperience());
+        String keyword = criteria.getKeyword() != null ? criteria.getKeyword().trim().toLowerCase(Locale.ROOT) : null;
+        query.setKeyword(keyword == null || keyword.isEmpty() ? null : keyword);
+        return query;
+    }
+    
+    public record Report(int users, int queries, int newVacancies, int failedQueries) {
+    }
+}
@@ -4,12 +4,15 @@ import com.skillbox.vacancytracker.model.BotUser;
 import com.skillbox.vacancytracker.model.SearchCriteria;
 import com.skillbox.vacancytracker.model.UserVacancy;
 import com.skillbox.vacancytracker.model.Vacancy;
+import com.skillbox.vacancytracker.repository.SeenVacancyRepository;
 import com.skillbox.vacancytracker.repository.UserVacancyRepository;
 import com.skillbox.vacancytracker.service.VacancyApiClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -19,13 +22,22 @@ public class VacancyCheckTask implements Runnable {
     private final BotUser user;
     private final VacancyApiClient vacancyApiClient;
     private final UserVacancyRepository userVacancyRepository;
+    private final SeenVacancyRepository seenVacancyRepository;
     
     public VacancyCheckTask(BotUser user, 
                            VacancyApiClient vacancyApiClient,
                            UserVacancyRepository userVacancyRepository) {
+        this(user, vacancyApiClient, userVacancyRepository, null);
+    }
+    
+    public VacancyCheckTask(BotUser user,
+                           VacancyApiClient vacancyApiClient,
+                           UserVacancyRepository userVacancyRepository,
+                           SeenVacancyRepository seenVacancyRepository) {
         this.user = user;
         this.vacancyApiClient = vacancyApiClient;
         this.userVacancyRepository = userVacancyRepository;
+        this.seenVacancyRepository = seenVacancyRepository;
     }
     
     @Override
@@ -44,31 +56,57 @@ public class VacancyCheckTask implements Runnable {
         try {
             logger.info("Checking vacancies for user {}", user.getUserId());
             
-            List<UserVacancy> existingVacancies = userVacancyRepository.findByUserId(user.getUserId());
-            Set<String> existingVacancyIds = existingVacancies.stream()
-                .map(UserVacancy::getVacancyId)
-                .collect(Collectors.toSet());
-            
             List<Vacancy> currentVacancies = vacancyApiClient.searchVacancies(criteria);
             
-            List<UserVacancy> newUserVacancies = currentVacancies.stream()
-                .filter(v -> !existingVacancyIds.contains(v.getId()))
-                .map(v -> new UserVacancy(user.getUserId(), v))
-                .toList();
-            
-            if (!newUserVacancies.isEmpty()) {
-                logger.info("Found {} new vacancies for user {}", 
-                           newUserVacancies.size(), user.getUserId());
-                
-                for (UserVacancy userVacancy : newUserVacancies) {
-                    userVacancyRepository.save(userVacancy);
-                }
-            } else {
-                logger.debug("No new vacancies found for user {}", user.getUserId());
-            }
+            recordNewVacancies(currentVacancies);
             
         } catch (Exception e) {
             logger.error("Error checking vacancies for user {}", user.getUserId(), e);
         }
     }
+    
+    // Also used by the grouped check cycle, which fetches once for many users and hands each its share
+    public int recordNewVacancies(List<Vacancy> currentVacancies) {
+        Set<String> unseenVacancyIds = findUnseen(currentVacancies);
+        List<UserVacancy> newUserVacancies = currentVacancies.stream()
+            .filter(v -> unseenVacancyIds.contains(v.getId()))
+            .map(v -> new UserVacancy(user.getUserId(), v))
+            .toList();
+        
+        if (!newUserVacancies.isEmpty()) {
+            logger.info("Found {} new vacancies for user {}", 
+                       newUserVacancies.size(), user.getUserId());
+            
+            userVacancyRepository.saveAll(newUserVacancies);
+            // Marked only once the records are stored, so a failed save is retried on the next check
+            if (seenVacancyRepository != null) {
+                seenVacancyRepository.markSeen(user.getUserId(), unseenVacancyIds);
+            }
+        } else {
+            logger.debug("No new vacancies found for user {}", user.getUserId());
+        }
+        return newUserVacancies.size();
+    }
+    
+    private Set<String> findUnseen(List<Vacancy> currentVacancies) {
+        List<String> currentIds = currentVacancies.stream()
+            .map(Vacancy::getId)
+            .distinct()
+            .toList();
+        
+        // The index stores hashes of ids, and a vacancy without one cannot be remembered as seen
+        if (seenVacancyRepository != null) {
+            List<String> identified = currentIds.stream()
+                .filter(Objects::nonNull)
+                .toList();
+            return new HashSet<>(seenVacancyRepository.filterUnseen(user.getUserId(), identified));
+        }
+        
+        Set<String> existingVacancyIds = userVacancyRepository.findByUserId(user.getUserId()).stream()
+            .map(UserVacancy::getVacancyId)
+            .collect(Collectors.toSet());
+        return currentIds.stream()
+            .filter(id -> !existingVacancyIds.contains(id))
+            .collect(Collectors.toSet());
+    }
 }
\ No newline at end of file
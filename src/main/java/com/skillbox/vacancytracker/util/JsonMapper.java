@@ -1,5 +1,6 @@
 package com.skillbox.vacancytracker.util;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
@@ -9,10 +10,7 @@ public final class JsonMapper {
     private static final ObjectMapper INSTANCE;
     
     static {
-        INSTANCE = new ObjectMapper();
-        INSTANCE.registerModule(new JavaTimeModule());
-        INSTANCE.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        INSTANCE.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        INSTANCE = forFactory(new JsonFactory());
     }
     
     private JsonMapper() {
@@ -21,4 +19,13 @@ public final class JsonMapper {
     public static ObjectMapper getInstance() {
         return INSTANCE;
     }
+    
+    // Same settings as the shared instance, for binary formats such as Smile or CBOR
+    public static ObjectMapper forFactory(JsonFactory factory) {
+        ObjectMapper mapper = new ObjectMapper(factory);
+        mapper.registerModule(new JavaTimeModule());
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        return mapper;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.skillbox.vacancytracker.util;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Microseconds since the epoch, bumped past the last value handed out so no two calls ever return the same number.
+// Seeding from the clock keeps values increasing across restarts as long as the clock does not jump back further than the downtime.
+public final class MonotonicSequence {
+    private static final AtomicLong last = new AtomicLong();
+    
+    private MonotonicSequence() {
+    }
+    
+    public static long next() {
+        long now = ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+        return last.accumulateAndGet(now, (previous, candidate) -> Math.max(previous + 1, candidate));
+    }
+    
+    // The same scale for values that only carry a local timestamp
+    public static long of(LocalDateTime time) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, time.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
\ No newline at end of file
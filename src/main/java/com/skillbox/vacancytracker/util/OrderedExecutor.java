@@ -0,0 +1,65 @@
+package com.skillbox.vacancytracker.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// A fixed number of single-threaded lanes; work for the same key always lands on the same lane, so it runs in submission order
+public final class OrderedExecutor implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(OrderedExecutor.class);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    
+    private final ExecutorService[] lanes;
+    
+    public OrderedExecutor(String name, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        lanes = new ExecutorService[threads];
+        for (int i = 0; i < threads; i++) {
+            String threadName = name + "-" + i;
+            lanes[i] = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+    
+    public <T> CompletableFuture<T> submit(Object key, Supplier<T> work) {
+        return CompletableFuture.supplyAsync(work, lane(key));
+    }
+    
+    public CompletableFuture<Void> run(Object key, Runnable work) {
+        return CompletableFuture.runAsync(work, lane(key));
+    }
+    
+    private ExecutorService lane(Object key) {
+        return lanes[Math.floorMod(Objects.hashCode(key), lanes.length)];
+    }
+    
+    // Drains queued work first, so writes already acknowledged to callers still reach storage
+    @Override
+    public void close() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            try {
+                if (!lane.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    logger.warn("Queued work did not finish within {} seconds", SHUTDOWN_TIMEOUT_SECONDS);
+                    lane.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                lane.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.skillbox.vacancytracker.model;
+
+public final class UserVacancyFixtures {
+    
+    private UserVacancyFixtures() {
+    }
+    
+    public static UserVacancy userVacancy(Long userId, String vacancyId) {
+        Vacancy vacancy = new Vacancy();
+        vacancy.setId(vacancyId);
+        vacancy.setTitle("Vacancy " + vacancyId);
+        vacancy.setDescription("Description of " + vacancyId);
+        return new UserVacancy(userId, vacancy);
+    }
+}
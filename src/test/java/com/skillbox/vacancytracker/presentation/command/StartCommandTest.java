@@ -2,6 +2,7 @@ package com.skillbox.vacancytracker.presentation.command;
 
 import com.skillbox.vacancytracker.model.BotUser;
 import com.skillbox.vacancytracker.presentation.dto.UserMessage;
+import com.skillbox.vacancytracker.service.AsyncUserService;
 import com.skillbox.vacancytracker.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -115,4 +117,24 @@ class StartCommandTest {
         verify(userService).save(any(BotUser.class));
         assertThat(response.getText()).contains("Вы успешно зарегистрированы в Vacancy Tracker Bot!");
     }
+    
+    @Test
+    void shouldRespondBeforeAsyncSaveCompletes() {
+        Long userId = 123L;
+        Long chatId = 456L;
+        UserMessage message = new UserMessage(
+            userId, chatId, "/start", "New", "User", "newuser", true, "start", null
+        );
+        AsyncUserService asyncUserService = mock(AsyncUserService.class);
+        when(userService.findById(userId)).thenReturn(Optional.empty());
+        when(asyncUserService.save(any(BotUser.class))).thenReturn(new CompletableFuture<>());
+        command = new StartCommand(userService, asyncUserService);
+        
+        SendMessage response = command.handle(message);
+        
+        verify(asyncUserService).save(any(BotUser.class));
+        verify(asyncUserService, never()).findById(any());
+        verify(userService, never()).save(any());
+        assertThat(response.getText()).contains("Вы успешно зарегистрированы в Vacancy Tracker Bot!");
+    }
 }
\ No newline at end of file
@@ -15,6 +15,7 @@ import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -353,6 +354,62 @@ class AbstractJsonRepositoryTest {
             .containsExactlyInAnyOrder(1L, 3L, 5L, 7L, 9L);
     }
 
+    @Test
+    void shouldSaveAllEntitiesInOneBatch() {
+        BotUser user1 = new BotUser(1L, 10L);
+        BotUser user2 = new BotUser(2L, 20L);
+        
+        repository.saveAll(List.of(user1, user2));
+        
+        TestJsonRepository reopened = new TestJsonRepository(tempDir.toString());
+        assertThat(reopened.findAll()).extracting(BotUser::getUserId)
+            .containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void shouldDeleteAllEntitiesInOneBatch() {
+        repository.saveAll(List.of(new BotUser(1L, 10L), new BotUser(2L, 20L), new BotUser(3L, 30L)));
+        
+        repository.deleteAll(List.of(1L, 3L, 99L));
+        
+        assertThat(repository.findAll()).extracting(BotUser::getUserId).containsExactly(2L);
+    }
+
+    @Test
+    void shouldStreamEntitiesFromFile() {
+        repository.saveAll(List.of(new BotUser(1L, 10L), new BotUser(2L, 20L), new BotUser(3L, 30L)));
+        
+        try (Stream<BotUser> users = repository.stream()) {
+            assertThat(users.filter(user -> user.getUserId() != 2L)).extracting(BotUser::getUserId)
+                .containsExactlyInAnyOrder(1L, 3L);
+        }
+    }
+
+    @Test
+    void shouldReleaseLockWhenStreamIsClosedEarly() {
+        repository.saveAll(List.of(new BotUser(1L, 10L), new BotUser(2L, 20L)));
+        
+        try (Stream<BotUser> users = repository.stream()) {
+            assertThat(users.findFirst()).isPresent();
+        }
+        repository.save(new BotUser(3L, 30L));
+        
+        assertThat(repository.findAll()).hasSize(3);
+    }
+
+    @Test
+    void shouldFailStreamingCorruptedFile() throws IOException {
+        Files.writeString(tempDir.resolve("test.json"), "{ invalid json");
+        
+        assertThatThrownBy(() -> {
+            try (Stream<BotUser> users = repository.stream()) {
+                users.count();
+            }
+        })
+            .isInstanceOf(RepositoryException.class)
+            .hasMessageContaining("Failed to load data from file");
+    }
+
     private static class TestJsonRepository extends AbstractJsonRepository<BotUser, Long> {
         public TestJsonRepository(String dataDirectory) {
             super(dataDirectory, "test.json", new TypeReference<Map<String, BotUser>>() {});
@@ -0,0 +1,124 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.skillbox.vacancytracker.config.BackupConfig;
+import com.skillbox.vacancytracker.config.StorageConfig;
+import com.skillbox.vacancytracker.model.BotUser;
+import com.skillbox.vacancytracker.model.SearchCriteria;
+import com.skillbox.vacancytracker.model.UserVacancy;
+import com.skillbox.vacancytracker.model.Vacancy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DataBackupTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void shouldRestoreArchiveIntoFreshDataDirectory() throws Exception {
+        Path source = tempDir.resolve("source");
+        Path backups = tempDir.resolve("backups");
+        Path archive;
+        StorageConfig storageConfig = StorageConfig.writeBehind(60, 1000);
+        try (JsonUserRepository users = new JsonUserRepository(source.toString(), storageConfig);
+             JsonVacancyRepository vacancies = new JsonVacancyRepository(source.toString(), storageConfig);
+             JsonUserVacancyRepository userVacancies = new JsonUserVacancyRepository(source.toString(), storageConfig)) {
+            users.save(new BotUser(1L, 10L));
+            vacancies.saveUserVacancies(1L, List.of(createVacancy("v1", "Developer")));
+            userVacancies.save(new UserVacancy(1L, createVacancy("v2", "Tester")));
+            
+            // Nothing flushed yet, so the archive can only come from the in-memory snapshots
+            archive = new DataBackup(new BackupConfig(24, backups.toString(), 3), users, vacancies, userVacancies).backup();
+        }
+        
+        Path target = tempDir.resolve("target");
+        Files.createDirectories(target);
+        Files.writeString(target.resolve(JsonUserRepository.USER_DATA_FILE), "{}");
+        Files.copy(archive, target.resolve(DataBackup.RESTORE_FILE));
+        
+        assertThat(DataBackup.restoreIfRequested(target.toString())).isTrue();
+        assertThat(DataBackup.restoreIfRequested(target.toString())).isFalse();
+        
+        assertThat(new JsonUserRepository(target.toString()).findById(1L)).isPresent();
+        assertThat(new JsonVacancyRepository(target.toString()).findByUserId(1L)).hasSize(1);
+        assertThat(new JsonUserVacancyRepository(target.toString()).findByUserId(1L))
+                .extracting(userVacancy -> userVacancy.getVacancy().getTitle()).containsExactly("Tester");
+        try (Stream<Path> files = Files.list(target)) {
+            assertThat(files.map(file -> file.getFileName().toString()))
+                    .anyMatch(name -> name.startsWith("pre-restore-"))
+                    .contains(DataBackup.RESTORE_FILE + ".restored");
+        }
+    }
+    
+    @Test
+    void shouldRestoreSeenIndexAndQueryWatermarks() throws Exception {
+        Path source = tempDir.resolve("source");
+        Path archive;
+        SearchCriteria query = new SearchCriteria();
+        query.setRegionCode(77);
+        query.setKeyword("java");
+        LocalDateTime sentAt = LocalDateTime.now(ZoneOffset.UTC).minusHours(1);
+        try (JsonUserRepository users = new JsonUserRepository(source.toString());
+             JsonVacancyRepository vacancies = new JsonVacancyRepository(source.toString());
+             JsonUserVacancyRepository userVacancies = new JsonUserVacancyRepository(source.toString());
+             HashedSeenVacancyRepository seen = new HashedSeenVacancyRepository(source.toString())) {
+            seen.markSeen(1L, List.of("v1", "v2"));
+            QueryWatermarkStore watermarks = new QueryWatermarkStore(source.toString(), Duration.ZERO);
+            watermarks.advance(Map.of(query, sentAt));
+            
+            archive = new DataBackup(new BackupConfig(24, tempDir.resolve("backups").toString(), 3), users, vacancies,
+                    userVacancies, null, seen, watermarks).backup();
+        }
+        
+        Path target = tempDir.resolve("target");
+        Files.createDirectories(target);
+        Files.copy(archive, target.resolve(DataBackup.RESTORE_FILE));
+        assertThat(DataBackup.restoreIfRequested(target.toString())).isTrue();
+        
+        try (HashedSeenVacancyRepository seen = new HashedSeenVacancyRepository(target.toString())) {
+            assertThat(seen.filterUnseen(1L, List.of("v1", "v2", "v3"))).containsExactly("v3");
+        }
+        assertThat(new QueryWatermarkStore(target.toString(), Duration.ZERO).modifiedSince(query))
+                .isEqualTo(sentAt.truncatedTo(ChronoUnit.SECONDS));
+    }
+    
+    @Test
+    void shouldKeepOnlyConfiguredNumberOfArchives() throws Exception {
+        Path backups = tempDir.resolve("backups");
+        Files.createDirectories(backups);
+        for (String stamp : List.of("20240101-000000", "20240102-000000", "20240103-000000")) {
+            Files.createFile(backups.resolve("vacancy-tracker-" + stamp + ".zip"));
+        }
+        
+        try (JsonUserRepository users = new JsonUserRepository(tempDir.toString());
+             JsonVacancyRepository vacancies = new JsonVacancyRepository(tempDir.toString());
+             JsonUserVacancyRepository userVacancies = new JsonUserVacancyRepository(tempDir.toString())) {
+            new DataBackup(new BackupConfig(24, backups.toString(), 2), users, vacancies, userVacancies).backup();
+        }
+        
+        try (Stream<Path> files = Files.list(backups)) {
+            assertThat(files.map(file -> file.getFileName().toString()))
+                    .hasSize(2)
+                    .contains("vacancy-tracker-20240103-000000.zip");
+        }
+    }
+    
+    private Vacancy createVacancy(String id, String title) {
+        Vacancy vacancy = new Vacancy();
+        vacancy.setId(id);
+        vacancy.setTitle(title);
+        return vacancy;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.skillbox.vacancytracker.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.skillbox.vacancytracker.model.UserVacancyFixtures.userVacancy;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeduplicatedUserVacancyRepositoryTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private DeduplicatedUserVacancyRepository repository;
+    
+    @AfterEach
+    void tearDown() {
+        if (repository != null) {
+            repository.close();
+        }
+    }
+    
+    @Test
+    void shouldStoreSharedVacancyOnce() {
+        repository = open();
+        
+        repository.saveAll(List.of(userVacancy(1L, "shared"), userVacancy(2L, "shared")));
+        
+        assertThat(repository.sharedVacancyCount()).isEqualTo(1);
+        assertThat(tempDir.resolve("shared_vacancies.json")).content().contains("Description of shared");
+        assertThat(tempDir.resolve("user_vacancies")).content().doesNotContain("Description of shared");
+    }
+    
+    @Test
+    void shouldHydrateVacancyOnRead() {
+        repository = open();
+        repository.save(userVacancy(1L, "backend"));
+        
+        assertThat(repository.findById("1-backend")).get()
+                .extracting(userVacancy -> userVacancy.getVacancy().getTitle())
+                .isEqualTo("Vacancy backend");
+        assertThat(repository.findNewByUserId(1L)).extracting(userVacancy -> userVacancy.getVacancy().getId())
+                .containsExactly("backend");
+    }
+    
+    @Test
+    void shouldCollectVacancyWhenLastReferenceIsDeleted() {
+        repository = open();
+        repository.saveAll(List.of(userVacancy(1L, "shared"), userVacancy(2L, "shared")));
+        
+        repository.deleteByUserId(1L);
+        assertThat(repository.sharedVacancyCount()).isEqualTo(1);
+        assertThat(repository.findByUserId(2L)).extracting(userVacancy -> userVacancy.getVacancy().getId())
+                .containsExactly("shared");
+        
+        repository.delete("2-shared");
+        assertThat(repository.sharedVacancyCount()).isZero();
+        assertThat(new JsonSharedVacancyRepository(tempDir.toString()).findAll()).isEmpty();
+    }
+    
+    @Test
+    void shouldMoveEmbeddedVacanciesIntoSharedStoreOnOpen() {
+        new JsonUserVacancyRepository(tempDir.toString())
+                .saveAll(List.of(userVacancy(1L, "legacy"), userVacancy(2L, "legacy")));
+        
+        repository = open();
+        
+        assertThat(repository.sharedVacancyCount()).isEqualTo(1);
+        assertThat(tempDir.resolve("user_vacancies")).content().doesNotContain("Description of legacy");
+        assertThat(repository.findAll()).extracting(userVacancy -> userVacancy.getVacancy().getTitle())
+                .containsOnly("Vacancy legacy");
+    }
+    
+    private DeduplicatedUserVacancyRepository open() {
+        return new DeduplicatedUserVacancyRepository(
+                new JsonUserVacancyRepository(tempDir.toString()),
+                new JsonSharedVacancyRepository(tempDir.toString()));
+    }
+}
\ No newline at end of file
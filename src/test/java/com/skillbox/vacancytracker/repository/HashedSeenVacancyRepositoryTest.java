@@ -0,0 +1,75 @@
+package com.skillbox.vacancytracker.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.skillbox.vacancytracker.model.UserVacancyFixtures.userVacancy;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedSeenVacancyRepositoryTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private HashedSeenVacancyRepository repository;
+    
+    @AfterEach
+    void tearDown() {
+        if (repository != null) {
+            repository.close();
+        }
+    }
+    
+    @Test
+    void shouldFilterOutSeenVacanciesPerUser() {
+        repository = new HashedSeenVacancyRepository(tempDir.toString());
+        
+        repository.markSeen(1L, List.of("a", "b"));
+        
+        assertThat(repository.filterUnseen(1L, List.of("a", "b", "c"))).containsExactly("c");
+        assertThat(repository.filterUnseen(2L, List.of("a"))).containsExactly("a");
+    }
+    
+    @Test
+    void shouldIgnoreVacanciesWithoutId() {
+        repository = new HashedSeenVacancyRepository(tempDir.toString());
+        
+        repository.markSeen(1L, Arrays.asList("a", null));
+        
+        assertThat(repository.filterUnseen(1L, Arrays.asList("a", null, "b"))).containsExactly("b");
+        assertThat(repository.seenCount(1L)).isEqualTo(1);
+    }
+    
+    @Test
+    void shouldSurviveRestartAndCompactForgottenUsers() throws Exception {
+        repository = new HashedSeenVacancyRepository(tempDir.toString());
+        repository.markSeen(1L, List.of("a", "b"));
+        repository.markSeen(2L, List.of("c"));
+        repository.forgetUser(1L);
+        repository.close();
+        
+        repository = new HashedSeenVacancyRepository(tempDir.toString());
+        
+        assertThat(repository.filterUnseen(1L, List.of("a"))).containsExactly("a");
+        assertThat(repository.filterUnseen(2L, List.of("c", "d"))).containsExactly("d");
+        assertThat(Files.size(tempDir.resolve(HashedSeenVacancyRepository.SEEN_VACANCY_DATA_FILE))).isEqualTo(16);
+    }
+    
+    @Test
+    void shouldSeedFromExistingRecordsOnFirstOpen() {
+        JsonUserVacancyRepository userVacancyRepository = new JsonUserVacancyRepository(tempDir.toString());
+        userVacancyRepository.save(userVacancy(7L, "legacy"));
+        
+        repository = HashedSeenVacancyRepository.open(tempDir.toString(), userVacancyRepository);
+        userVacancyRepository.deleteByUserId(7L);
+        
+        assertThat(repository.filterUnseen(7L, List.of("legacy", "fresh"))).containsExactly("fresh");
+        assertThat(repository.seenCount(7L)).isEqualTo(1);
+    }
+}
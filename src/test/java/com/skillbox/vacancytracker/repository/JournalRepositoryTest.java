@@ -0,0 +1,143 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.skillbox.vacancytracker.config.StorageConfig;
+import com.skillbox.vacancytracker.model.BotUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class JournalRepositoryTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private JsonUserRepository repository;
+    
+    @AfterEach
+    void tearDown() {
+        if (repository != null) {
+            repository.close();
+        }
+    }
+    
+    @Test
+    void shouldAppendToJournalWithoutRewritingSnapshot() throws IOException {
+        repository = new JsonUserRepository(tempDir.toString(), StorageConfig.journal(3600, 1000));
+        
+        repository.save(createUser(1L, "journaled"));
+        
+        assertThat(readUsersFile()).doesNotContain("journaled");
+        assertThat(Files.readString(tempDir.resolve("users.json.journal-1")))
+            .contains("\"op\":\"upsert\"")
+            .contains("journaled");
+    }
+    
+    @Test
+    void shouldReplayJournalAfterRestart() {
+        JsonUserRepository crashed = new JsonUserRepository(tempDir.toString(), StorageConfig.journal(3600, 1000));
+        crashed.save(createUser(1L, "kept"));
+        crashed.save(createUser(2L, "removed"));
+        crashed.delete(2L);
+        
+        repository = new JsonUserRepository(tempDir.toString(), StorageConfig.journal(3600, 1000));
+        
+        assertThat(repository.findAll()).extracting(BotUser::getUsername).containsExactly("kept");
+    }
+    
+    @Test
+    void shouldIgnoreTornJournalTail() throws IOException {
+        JsonUserRepository crashed = new JsonUserRepository(tempDir.toString(), StorageConfig.journal(3600, 1000));
+        crashed.save(createUser(1L, "complete"));
+        Files.writeString(tempDir.resolve("users.json.journal-1"), "{\"op\":\"upsert\",\"id\":\"2\",\"ent",
+            StandardOpenOption.APPEND);
+        
+        repository = new JsonUserRepository(tempDir.toString(), StorageConfig.journal(3600, 1000));
+        
+        assertThat(repository.findAll()).extracting(BotUser::getUsername).containsExactly("complete");
+    }
+    
+    @Test
+    void shouldCompactJournalOnClose() throws IOException {
+        repository = new JsonUserRepository(tempDir.toString(), StorageConfig.journal(3600, 1000));
+        repository.save(createUser(1L, "compacted"));
+        
+        repository.close();
+        repository = null;
+        
+        assertThat(readUsersFile()).contains("compacted");
+        assertThat(journalSegments()).isEmpty();
+    }
+    
+    @Test
+    void shouldCompactWhenJournalThresholdReached() {
+        repository = new JsonUserRepository(tempDir.toString(), StorageConfig.journal(3600, 3));
+        
+        repository.save(createUser(1L, "first"));
+        repository.save(createUser(2L, "second"));
+        repository.save(createUser(3L, "third"));
+        
+        await().atMost(Duration.ofSeconds(5))
+            .until(() -> readUsersFile().contains("third"));
+    }
+    
+    private List<Path> journalSegments() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(path -> path.getFileName().toString().contains(".journal-")).toList();
+        }
+    }
+    
+    @Test
+    void shouldKeepUpdatesFromConcurrentWritersAcrossRestart() throws Exception {
+        JsonUserRepository writers = new JsonUserRepository(tempDir.toString(), StorageConfig.journal(3600, 1000));
+        for (long userId = 1; userId <= 8; userId++) {
+            writers.save(createUser(userId, "user" + userId));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> updates = new ArrayList<>();
+            for (long userId = 1; userId <= 8; userId++) {
+                long owner = userId;
+                updates.add(executor.submit(() -> {
+                    for (long sequence = 1; sequence <= 20; sequence++) {
+                        writers.advanceNotifiedSequence(owner, owner * 100 + sequence);
+                    }
+                }));
+            }
+            for (Future<?> update : updates) {
+                update.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        
+        repository = new JsonUserRepository(tempDir.toString(), StorageConfig.journal(3600, 1000));
+        
+        assertThat(repository.findAll()).allSatisfy(user ->
+                assertThat(user.getNotifiedSequence()).isEqualTo(user.getUserId() * 100 + 20));
+    }
+    
+    private String readUsersFile() throws IOException {
+        return Files.readString(tempDir.resolve("users.json"));
+    }
+    
+    private BotUser createUser(Long userId, String username) {
+        BotUser user = new BotUser(userId, userId * 10);
+        user.setUsername(username);
+        return user;
+    }
+}
\ No newline at end of file
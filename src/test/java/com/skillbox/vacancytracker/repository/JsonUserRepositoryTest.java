@@ -1,5 +1,6 @@
 package com.skillbox.vacancytracker.repository;
 
+import com.skillbox.vacancytracker.config.StorageConfig;
 import com.skillbox.vacancytracker.model.BotUser;
 import com.skillbox.vacancytracker.model.SearchCriteria;
 import org.junit.jupiter.api.AfterEach;
@@ -11,8 +12,12 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -373,6 +378,64 @@ class JsonUserRepositoryTest {
         }
     }
 
+    @Test
+    void shouldNotLowerWatermarkWhenSavingStaleCopy() {
+        repository.save(createTestUser(123L, 456L, "testuser"));
+        BotUser stale = repository.findById(123L).orElseThrow();
+        
+        repository.advanceNotifiedSequence(123L, 42L);
+        stale.setUsername("renamed");
+        repository.save(stale);
+        
+        BotUser found = repository.findById(123L).orElseThrow();
+        assertThat(found.getNotifiedSequence()).isEqualTo(42L);
+        assertThat(found.getUsername()).isEqualTo("renamed");
+    }
+
+    @Test
+    void shouldKeepUnsavedChangesAwayFromReadersInMemoryResidentModes() throws IOException {
+        Path directory = Files.createDirectories(tempDir.resolve("journal"));
+        JsonUserRepository journal = new JsonUserRepository(directory.toString(), StorageConfig.journal(3600, 10000));
+        journal.save(createTestUser(123L, 456L, "testuser"));
+        
+        BotUser updating = journal.findById(123L).orElseThrow();
+        updating.setTimezoneOffset(ZoneOffset.ofHours(3));
+        updating.getSearchCriteria().setKeyword("java");
+        
+        BotUser read = journal.findById(123L).orElseThrow();
+        assertThat(read.getTimezoneOffset()).isEqualTo(ZoneOffset.UTC);
+        assertThat(read.getSearchCriteria().getKeyword()).isNull();
+        
+        journal.save(updating);
+        updating.setTimezoneOffset(ZoneOffset.ofHours(5));
+        
+        assertThat(journal.findById(123L)).get().extracting(BotUser::getTimezoneOffset)
+                .isEqualTo(ZoneOffset.ofHours(3));
+        journal.close();
+    }
+
+    @Test
+    void shouldKeepHighestSequenceWhenDeliveriesRace() throws Exception {
+        repository.save(createTestUser(123L, 456L, "testuser"));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> advances = new ArrayList<>();
+            for (long sequence = 1; sequence <= 40; sequence++) {
+                long next = sequence;
+                advances.add(executor.submit(() -> repository.advanceNotifiedSequence(123L, next)));
+            }
+            for (Future<?> advance : advances) {
+                advance.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        
+        repository.advanceNotifiedSequence(123L, 7L);
+        
+        assertThat(repository.findById(123L)).get().extracting(BotUser::getNotifiedSequence).isEqualTo(40L);
+    }
+
     private BotUser createTestUser(Long userId, Long chatId, String username) {
         BotUser user = new BotUser(userId, chatId);
         user.setUsername(username);
@@ -1,5 +1,6 @@
 package com.skillbox.vacancytracker.repository;
 
+import com.skillbox.vacancytracker.config.StorageConfig;
 import com.skillbox.vacancytracker.model.UserVacancy;
 import com.skillbox.vacancytracker.model.Vacancy;
 import org.junit.jupiter.api.AfterEach;
@@ -379,6 +380,165 @@ class JsonUserVacancyRepositoryTest {
         assertThat(repository.findAll()).hasSize(2);
     }
 
+    @Test
+    void shouldMarkAllAsNotified() {
+        UserVacancy first = createNewUserVacancy(123L, "first");
+        UserVacancy second = createNewUserVacancy(123L, "second");
+        UserVacancy untouched = createNewUserVacancy(123L, "untouched");
+        repository.saveAll(List.of(first, second, untouched));
+        
+        repository.markAllAsNotified(List.of(first.getId(), second.getId(), "non-existent-id"));
+        
+        assertThat(repository.findNewByUserId(123L)).extracting(UserVacancy::getVacancyId)
+            .containsExactly("untouched");
+        assertThat(repository.findById(first.getId()).orElseThrow().getNotifiedAt()).isNotNull();
+        assertThat(repository.findById(second.getId()).orElseThrow().getNotifiedAt()).isNotNull();
+    }
+
+    @Test
+    void shouldKeepUserIndexInStepWhenMemoryResident() {
+        JsonUserVacancyRepository resident = new JsonUserVacancyRepository(tempDir.toString(),
+            StorageConfig.writeBehind(3600, 1000));
+        try {
+            resident.save(createNewUserVacancy(123L, "new1"));
+            resident.save(createNewUserVacancy(123L, "new2"));
+            resident.save(createNewUserVacancy(456L, "other"));
+            
+            resident.markAsNotified(createNewUserVacancy(123L, "new1").getId());
+            
+            assertThat(resident.findByUserId(123L)).hasSize(2);
+            assertThat(resident.findNewByUserId(123L)).extracting(UserVacancy::getVacancyId)
+                .containsExactly("new2");
+            
+            resident.deleteByUserId(123L);
+            
+            assertThat(resident.findByUserId(123L)).isEmpty();
+            assertThat(resident.findNewByUserId(123L)).isEmpty();
+            assertThat(resident.findNewByUserId(456L)).hasSize(1);
+        } finally {
+            resident.close();
+        }
+    }
+
+    @Test
+    void shouldBuildUserIndexFromExistingData() {
+        repository.save(createNewUserVacancy(123L, "new1"));
+        repository.save(createOldUserVacancy(123L, "old1"));
+        repository.save(createNewUserVacancy(456L, "other"));
+        
+        JsonUserVacancyRepository resident = new JsonUserVacancyRepository(tempDir.toString(),
+            StorageConfig.writeBehind(3600, 1000));
+        try {
+            assertThat(resident.findByUserId(123L)).hasSize(2);
+            assertThat(resident.findNewByUserId(123L)).extracting(UserVacancy::getVacancyId)
+                .containsExactly("new1");
+        } finally {
+            resident.close();
+        }
+    }
+
+    @Test
+    void shouldReturnNewVacanciesNewestFirst() {
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 9, 0);
+        UserVacancy oldest = createNewUserVacancy(123L, "oldest");
+        oldest.setFoundAt(base);
+        UserVacancy newest = createNewUserVacancy(123L, "newest");
+        newest.setFoundAt(base.plusHours(2));
+        UserVacancy middle = createNewUserVacancy(123L, "middle");
+        middle.setFoundAt(base.plusHours(1));
+        repository.saveAll(List.of(oldest, newest, middle));
+        
+        JsonUserVacancyRepository resident = new JsonUserVacancyRepository(tempDir.toString(),
+            StorageConfig.writeBehind(3600, 1000));
+        try {
+            assertThat(repository.findNewByUserId(123L)).extracting(UserVacancy::getVacancyId)
+                .containsExactly("newest", "middle", "oldest");
+            assertThat(resident.findNewByUserId(123L)).extracting(UserVacancy::getVacancyId)
+                .containsExactly("newest", "middle", "oldest");
+            
+            resident.markAsNotified(newest.getId());
+            
+            assertThat(resident.findNewByUserId(123L)).extracting(UserVacancy::getVacancyId)
+                .containsExactly("middle", "oldest");
+        } finally {
+            resident.close();
+        }
+    }
+
+    @Test
+    void shouldFindRecordsAboveNotificationWatermark() {
+        UserVacancy legacy = new UserVacancy();
+        legacy.setId("123-legacy");
+        legacy.setUserId(123L);
+        legacy.setFoundAt(LocalDateTime.now().minusDays(1));
+        UserVacancy first = createNewUserVacancy(123L, "first");
+        UserVacancy second = createNewUserVacancy(123L, "second");
+        repository.saveAll(List.of(legacy, first, second, createOldUserVacancy(123L, "delivered")));
+        
+        JsonUserVacancyRepository resident = new JsonUserVacancyRepository(tempDir.toString(),
+            StorageConfig.writeBehind(3600, 1000));
+        try {
+            for (UserVacancyRepository candidate : List.of(repository, resident)) {
+                assertThat(candidate.findNewByUserId(123L, 0L)).extracting(UserVacancy::getVacancyId)
+                    .containsExactly("second", "first", null);
+                assertThat(candidate.findNewByUserId(123L, first.getSequence())).extracting(UserVacancy::getVacancyId)
+                    .containsExactly("second");
+                assertThat(candidate.findNewByUserId(123L, second.getSequence())).isEmpty();
+            }
+        } finally {
+            resident.close();
+        }
+    }
+
+    @Test
+    void shouldNumberRecordsWhenSavedRatherThanWhenCreated() {
+        UserVacancy createdFirst = createNewUserVacancy(123L, "created-first");
+        UserVacancy savedFirst = createNewUserVacancy(123L, "saved-first");
+        repository.save(savedFirst);
+        long watermark = repository.findNewByUserId(123L, 0L).get(0).getSequence();
+        
+        repository.save(createdFirst);
+        
+        assertThat(repository.findNewByUserId(123L, watermark)).extracting(UserVacancy::getVacancyId)
+            .containsExactly("created-first");
+    }
+
+    @Test
+    void shouldPruneRecordsAtOrBelowWatermarkFromNewIndex() {
+        JsonUserVacancyRepository resident = new JsonUserVacancyRepository(tempDir.toString(),
+            StorageConfig.writeBehind(3600, 1000));
+        try {
+            resident.saveAll(List.of(createNewUserVacancy(123L, "first"), createNewUserVacancy(123L, "second")));
+            long watermark = resident.findNewByUserId(123L, 0L).get(1).getSequence();
+            
+            resident.pruneNotified(123L, watermark);
+            
+            assertThat(resident.findNewByUserId(123L, 0L)).extracting(UserVacancy::getVacancyId)
+                .containsExactly("second");
+            assertThat(resident.findById("123-first")).isPresent();
+        } finally {
+            resident.close();
+        }
+    }
+
+    @Test
+    void shouldNotifyCopiesWithoutTouchingEntitiesReadersHold() {
+        JsonUserVacancyRepository resident = new JsonUserVacancyRepository(tempDir.toString(),
+            StorageConfig.writeBehind(3600, 1000));
+        try {
+            resident.save(createNewUserVacancy(123L, "held"));
+            UserVacancy held = resident.findById("123-held").orElseThrow();
+            
+            resident.markAsNotified(held.getId());
+            
+            assertThat(held.isNew()).isTrue();
+            assertThat(held.getNotifiedAt()).isNull();
+            assertThat(resident.findById("123-held").orElseThrow().isNew()).isFalse();
+        } finally {
+            resident.close();
+        }
+    }
+
     private UserVacancy createTestUserVacancy(Long userId, String vacancyId) {
         Vacancy vacancy = new Vacancy();
         vacancy.setId(vacancyId);
@@ -1,5 +1,6 @@
 package com.skillbox.vacancytracker.repository;
 
+import com.skillbox.vacancytracker.config.StorageConfig;
 import com.skillbox.vacancytracker.model.Vacancy;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -415,6 +416,40 @@ class JsonVacancyRepositoryTest {
         assertThat(recentVacancies.size()).isLessThan(100);
     }
 
+    @Test
+    void shouldServeCreatedDateRangesFromIndexWhenMemoryResident() {
+        JsonVacancyRepository resident = new JsonVacancyRepository(tempDir.toString(),
+            StorageConfig.writeBehind(3600, 1000));
+        try {
+            LocalDateTime cutoff = LocalDateTime.of(2023, 6, 15, 12, 0);
+            Vacancy atCutoff = createTestVacancy("123_at", "At Cutoff");
+            atCutoff.setCreatedDate(cutoff);
+            Vacancy later = createTestVacancy("123_later", "Later");
+            later.setCreatedDate(cutoff.plusDays(5));
+            Vacancy sooner = createTestVacancy("123_sooner", "Sooner");
+            sooner.setCreatedDate(cutoff.plusDays(1));
+            Vacancy undated = createTestVacancy("123_undated", "Undated");
+            Vacancy otherUser = createTestVacancy("456_later", "Other User");
+            otherUser.setCreatedDate(cutoff.plusDays(2));
+            resident.saveAll(List.of(atCutoff, later, sooner, undated, otherUser));
+            
+            assertThat(resident.findByUserIdAndCreatedAfter(123L, cutoff)).extracting(Vacancy::getTitle)
+                .containsExactly("Sooner", "Later");
+            assertThat(resident.findByUserId(123L)).extracting(Vacancy::getTitle)
+                .containsExactly("Undated", "At Cutoff", "Sooner", "Later");
+            
+            Vacancy moved = createTestVacancy("123_sooner", "Sooner");
+            moved.setCreatedDate(cutoff.minusDays(1));
+            resident.save(moved);
+            resident.delete("123_later");
+            
+            assertThat(resident.findByUserIdAndCreatedAfter(123L, cutoff)).isEmpty();
+            assertThat(resident.findByUserId(456L)).extracting(Vacancy::getTitle).containsExactly("Other User");
+        } finally {
+            resident.close();
+        }
+    }
+
     private Vacancy createTestVacancy(String id, String title) {
         Vacancy vacancy = new Vacancy();
         vacancy.setId(id);
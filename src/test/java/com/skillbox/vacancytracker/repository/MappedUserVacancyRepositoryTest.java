@@ -0,0 +1,156 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.skillbox.vacancytracker.config.StorageConfig;
+import com.skillbox.vacancytracker.model.UserVacancy;
+import com.skillbox.vacancytracker.model.Vacancy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedUserVacancyRepositoryTest {
+    
+    // Small regions so a few hundred records already span several of them
+    private static final int REGION_BYTES = 4096;
+    
+    @TempDir
+    Path tempDir;
+    
+    private MappedUserVacancyRepository repository;
+    
+    @AfterEach
+    void tearDown() {
+        if (repository != null) {
+            repository.close();
+        }
+    }
+    
+    @Test
+    void shouldFindRecordsByIdAndUserAcrossRegions() {
+        repository = open();
+        repository.saveAll(createUserVacancies(200));
+        
+        assertThat(repository.findAll()).hasSize(200);
+        assertThat(repository.findByUserId(1L)).hasSize(40);
+        assertThat(repository.findById("3-v8")).get()
+                .extracting(userVacancy -> userVacancy.getVacancy().getTitle()).isEqualTo("Job 8");
+        assertThat(repository.storageBytes()).isGreaterThan(REGION_BYTES);
+    }
+    
+    @Test
+    void shouldFlipNotifiedFlagInPlace() {
+        repository = open();
+        repository.saveAll(createUserVacancies(10));
+        long sizeBefore = repository.storageBytes();
+        
+        repository.markAllAsNotified(List.of("1-v1", "1-v6"));
+        
+        assertThat(repository.storageBytes()).isEqualTo(sizeBefore);
+        assertThat(repository.findNewByUserId(1L)).isEmpty();
+        assertThat(repository.findById("1-v1")).get().satisfies(userVacancy -> {
+            assertThat(userVacancy.isNew()).isFalse();
+            assertThat(userVacancy.getNotifiedAt()).isNotNull();
+        });
+        assertThat(repository.findNewByUserId(2L)).hasSize(2);
+    }
+    
+    @Test
+    void shouldRebuildIndexFromLogOnRestart() {
+        repository = open();
+        repository.saveAll(createUserVacancies(50));
+        UserVacancy updated = repository.findById("2-v2").orElseThrow();
+        updated.getVacancy().setTitle("Changed");
+        repository.save(updated);
+        repository.markAsNotified("1-v1");
+        repository.deleteByUserId(3L);
+        repository.close();
+        
+        repository = open();
+        
+        assertThat(repository.findAll()).hasSize(40);
+        assertThat(repository.findByUserId(3L)).isEmpty();
+        assertThat(repository.findById("2-v2").orElseThrow().getVacancy().getTitle()).isEqualTo("Changed");
+        assertThat(repository.findById("1-v1").orElseThrow().isNew()).isFalse();
+        assertThat(repository.deadBytes()).isPositive();
+    }
+    
+    @Test
+    void shouldReclaimDeadSpaceOnCompaction() {
+        repository = open();
+        repository.saveAll(createUserVacancies(100));
+        repository.deleteAll(List.of("0-v0", "0-v5", "0-v10", "1-v1"));
+        repository.markAsNotified("2-v2");
+        long sizeBefore = repository.storageBytes();
+        
+        repository.compact();
+        
+        assertThat(repository.storageBytes()).isLessThan(sizeBefore);
+        assertThat(repository.deadBytes()).isZero();
+        assertThat(repository.findAll()).hasSize(96);
+        assertThat(repository.findById("2-v2").orElseThrow().isNew()).isFalse();
+        try (Stream<UserVacancy> stream = repository.stream()) {
+            assertThat(stream.count()).isEqualTo(96);
+        }
+    }
+    
+    @Test
+    void shouldIgnoreRecordTornByCrash() throws Exception {
+        repository = open();
+        repository.saveAll(createUserVacancies(3));
+        long end = repository.storageBytes();
+        repository.close();
+        
+        // Header bytes of a record whose length was never written
+        try (FileChannel channel = FileChannel.open(logFile(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 0, 1, 1, 0, 0}), end);
+        }
+        repository = open();
+        repository.saveAll(createUserVacancies(4));
+        repository.close();
+        
+        repository = open();
+        assertThat(repository.findAll()).hasSize(4);
+    }
+    
+    @Test
+    void shouldImportLegacyJsonFile() {
+        JsonUserVacancyRepository legacy = new JsonUserVacancyRepository(tempDir.toString());
+        legacy.saveAll(createUserVacancies(5));
+        legacy.close();
+        
+        repository = open();
+        
+        assertThat(repository.findAll()).hasSize(5);
+        assertThat(tempDir.resolve(JsonUserVacancyRepository.USER_VACANCY_DATA_FILE)).doesNotExist();
+        assertThat(Files.exists(tempDir.resolve(JsonUserVacancyRepository.USER_VACANCY_DATA_FILE + ".migrated"))).isTrue();
+    }
+    
+    private MappedUserVacancyRepository open() {
+        return new MappedUserVacancyRepository(tempDir.toString(), StorageConfig.defaults(), REGION_BYTES);
+    }
+    
+    private Path logFile() {
+        return tempDir.resolve(MappedUserVacancyRepository.USER_VACANCY_LOG_FILE);
+    }
+    
+    private List<UserVacancy> createUserVacancies(int count) {
+        List<UserVacancy> userVacancies = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Vacancy vacancy = new Vacancy();
+            vacancy.setId("v" + i);
+            vacancy.setTitle("Job " + i);
+            userVacancies.add(new UserVacancy((long) (i % 5), vacancy));
+        }
+        return userVacancies;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.skillbox.vacancytracker.model.SearchCriteria;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryWatermarkStoreTest {
+    private static final Duration OVERLAP = Duration.ofMinutes(10);
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void shouldPersistWatermarksAndApplyOverlap() {
+        SearchCriteria query = createQuery(77, "java");
+        LocalDateTime sentAt = LocalDateTime.now(ZoneOffset.UTC).minusHours(1);
+        
+        QueryWatermarkStore store = new QueryWatermarkStore(tempDir.toString(), OVERLAP);
+        assertThat(store.modifiedSince(query)).isNull();
+        store.advance(Map.of(query, sentAt));
+        
+        QueryWatermarkStore reopened = new QueryWatermarkStore(tempDir.toString(), OVERLAP);
+        assertThat(reopened.modifiedSince(createQuery(77, "java")))
+                .isEqualTo(sentAt.minus(OVERLAP).truncatedTo(ChronoUnit.SECONDS));
+        assertThat(reopened.modifiedSince(createQuery(77, "kotlin"))).isNull();
+    }
+    
+    @Test
+    void shouldNeverMoveWatermarkBack() {
+        SearchCriteria query = createQuery(77, null);
+        LocalDateTime sentAt = LocalDateTime.now(ZoneOffset.UTC).minusHours(1);
+        QueryWatermarkStore store = new QueryWatermarkStore(tempDir.toString(), OVERLAP);
+        
+        store.advance(Map.of(query, sentAt));
+        store.advance(Map.of(query, sentAt.minusHours(2)));
+        
+        assertThat(store.modifiedSince(query)).isEqualTo(sentAt.minus(OVERLAP).truncatedTo(ChronoUnit.SECONDS));
+    }
+    
+    @Test
+    void shouldFallBackToDefaultWindowForStaleWatermark() {
+        SearchCriteria query = createQuery(50, null);
+        QueryWatermarkStore store = new QueryWatermarkStore(tempDir.toString(), OVERLAP);
+        
+        store.advance(Map.of(query, LocalDateTime.now(ZoneOffset.UTC).minus(QueryWatermarkStore.MAX_LOOKBACK).minusHours(1)));
+        
+        assertThat(store.modifiedSince(query)).isNull();
+    }
+    
+    @Test
+    void shouldDropHostLocalWatermarksAheadOfUtc() {
+        SearchCriteria query = createQuery(77, "java");
+        new QueryWatermarkStore(tempDir.toString(), OVERLAP)
+                .advance(Map.of(query, LocalDateTime.now(ZoneOffset.UTC).plusHours(3)));
+        
+        QueryWatermarkStore reopened = new QueryWatermarkStore(tempDir.toString(), OVERLAP);
+        
+        assertThat(reopened.modifiedSince(query)).isNull();
+    }
+    
+    private SearchCriteria createQuery(Integer regionCode, String keyword) {
+        SearchCriteria query = new SearchCriteria();
+        query.setRegionCode(regionCode);
+        query.setKeyword(keyword);
+        return query;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,126 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.skillbox.vacancytracker.config.StorageConfig;
+import com.skillbox.vacancytracker.model.BotUser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.skillbox.vacancytracker.model.UserVacancyFixtures.userVacancy;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RepositoryMetricsTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void shouldReportRewrittenFileForEveryChangeInFileMode() {
+        RecordingMetrics metrics = new RecordingMetrics();
+        JsonUserRepository repository = new JsonUserRepository(tempDir.toString());
+        repository.setMetrics(metrics);
+        
+        repository.save(new BotUser(1L, 10L));
+        repository.save(new BotUser(2L, 20L));
+        repository.findById(1L);
+        
+        long fileBytes = tempDir.resolve(JsonUserRepository.USER_DATA_FILE).toFile().length();
+        assertThat(metrics.operations).containsExactly("save", "save", "findById");
+        assertThat(metrics.writes).hasSize(2).last().isEqualTo(fileBytes);
+        assertThat(metrics.locks).isEqualTo(3);
+        assertThat(metrics.bytesRead).isPositive();
+        assertThat(metrics.fileBytes).isEqualTo(fileBytes);
+        assertThat(metrics.records).isEqualTo(2);
+    }
+    
+    @Test
+    void shouldCountJournalLinesAndSnapshotRewritesSeparately() {
+        RecordingMetrics metrics = new RecordingMetrics();
+        JsonUserRepository repository = new JsonUserRepository(tempDir.toString(), StorageConfig.journal(3600, 10000));
+        repository.setMetrics(metrics);
+        
+        repository.save(new BotUser(1L, 10L));
+        repository.findById(1L);
+        repository.compact();
+        
+        assertThat(metrics.operations).containsExactly("save", "findById", "compact");
+        assertThat(metrics.changes).containsExactly(1, 0);
+        // Memory-resident reads take no lock; only the write and the journal rotation do
+        assertThat(metrics.locks).isEqualTo(2);
+        assertThat(metrics.records).isEqualTo(1);
+        repository.close();
+    }
+    
+    @Test
+    void shouldMeasureMappedLogOperations() {
+        RecordingMetrics metrics = new RecordingMetrics();
+        MappedUserVacancyRepository repository = new MappedUserVacancyRepository(tempDir.toString(),
+                StorageConfig.defaults());
+        repository.setMetrics(metrics);
+        
+        repository.save(userVacancy(1L, "backend"));
+        repository.findNewByUserId(1L);
+        repository.markAllAsNotified(List.of("1-backend"));
+        
+        assertThat(metrics.operations).containsExactly("save", "findNewByUserId", "markAsNotified");
+        assertThat(metrics.changes).containsExactly(1);
+        assertThat(metrics.writes).singleElement().satisfies(bytes -> assertThat(bytes).isPositive());
+        assertThat(metrics.locks).isEqualTo(3);
+        repository.close();
+    }
+    
+    @Test
+    void shouldMeasureColdUserStore() {
+        RecordingMetrics metrics = new RecordingMetrics();
+        ColdUserStore store = new ColdUserStore(tempDir.toString());
+        store.setMetrics(metrics);
+        
+        store.put(1L, List.of(userVacancy(1L, "backend")), new long[0]);
+        store.get(1L);
+        store.remove(1L);
+        
+        assertThat(metrics.operations).containsExactly("put", "get", "remove");
+        assertThat(metrics.changes).containsExactly(1);
+        assertThat(metrics.bytesRead).isEqualTo(metrics.writes.get(0));
+    }
+    
+    private static final class RecordingMetrics implements RepositoryMetrics {
+        private final List<String> operations = new ArrayList<>();
+        private final List<Integer> changes = new ArrayList<>();
+        private final List<Long> writes = new ArrayList<>();
+        private int locks;
+        private long bytesRead;
+        private long fileBytes;
+        private int records;
+        
+        @Override
+        public synchronized void recordOperation(String repository, String operation, long nanos) {
+            operations.add(operation);
+        }
+        
+        @Override
+        public synchronized void recordLock(String repository, long waitNanos, long holdNanos) {
+            locks++;
+        }
+        
+        @Override
+        public synchronized void recordRead(String repository, long bytes) {
+            bytesRead += bytes;
+        }
+        
+        @Override
+        public synchronized void recordWrite(String repository, int changes, long bytes) {
+            this.changes.add(changes);
+            writes.add(bytes);
+        }
+        
+        @Override
+        public synchronized void recordFile(String repository, long bytes, int records) {
+            fileBytes = bytes;
+            this.records = records;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.skillbox.vacancytracker.config.StorageConfig;
+import com.skillbox.vacancytracker.model.UserVacancy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.skillbox.vacancytracker.model.UserVacancyFixtures.userVacancy;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardedUserVacancyRepositoryTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private ShardedUserVacancyRepository repository;
+    
+    @AfterEach
+    void tearDown() {
+        if (repository != null) {
+            repository.close();
+        }
+    }
+    
+    @Test
+    void shouldKeepEachUserInItsOwnShardFile() {
+        repository = new ShardedUserVacancyRepository(tempDir.toString(), shards(4));
+        
+        repository.saveAll(List.of(userVacancy(1L, "a"), userVacancy(2L, "b")));
+        
+        Path shardDirectory = tempDir.resolve("user_vacancy_shards");
+        assertThat(shardDirectory.resolve("shard-1-of-4")).content().contains("1-a").doesNotContain("2-b");
+        assertThat(shardDirectory.resolve("shard-2-of-4")).content().contains("2-b").doesNotContain("1-a");
+    }
+    
+    @Test
+    void shouldRouteLookupsAcrossShards() {
+        repository = new ShardedUserVacancyRepository(tempDir.toString(), shards(3));
+        repository.save(userVacancy(10L, "first"));
+        repository.save(userVacancy(11L, "second"));
+        repository.save(userVacancy(11L, "third"));
+        
+        repository.markAllAsNotified(List.of("11-second"));
+        repository.deleteByUserId(10L);
+        
+        assertThat(repository.findById("11-third")).isPresent();
+        assertThat(repository.findByUserId(10L)).isEmpty();
+        assertThat(repository.findNewByUserId(11L)).extracting(UserVacancy::getVacancyId).containsExactly("third");
+        assertThat(repository.findAll()).hasSize(2);
+    }
+    
+    @Test
+    void shouldSendOneBatchPerShardWithoutLookingIdsUp() {
+        repository = new ShardedUserVacancyRepository(tempDir.toString(), shards(3));
+        repository.saveAll(List.of(userVacancy(10L, "a"), userVacancy(10L, "b"), userVacancy(11L, "c")));
+        List<String> operations = new ArrayList<>();
+        repository.setMetrics(new RepositoryMetrics() {
+            @Override
+            public synchronized void recordOperation(String repository, String operation, long nanos) {
+                operations.add(repository + ":" + operation);
+            }
+        });
+        
+        repository.markAllAsNotified(List.of("10-a", "10-b", "11-c", "12-missing"));
+        repository.deleteAll(List.of("10-a", "11-c"));
+        
+        // The shard without any of the ids has nothing to write
+        assertThat(operations).containsExactly("shard-1-of-3:save", "shard-2-of-3:save",
+                "shard-1-of-3:delete", "shard-2-of-3:delete");
+        assertThat(repository.findAll()).extracting(UserVacancy::getId).containsExactly("10-b");
+        assertThat(repository.findNewByUserId(10L)).isEmpty();
+    }
+    
+    @Test
+    void shouldSplitLegacyFileOnFirstStart() {
+        JsonUserVacancyRepository legacy = new JsonUserVacancyRepository(tempDir.toString());
+        legacy.saveAll(List.of(userVacancy(1L, "a"), userVacancy(2L, "b"), userVacancy(3L, "c")));
+        
+        repository = new ShardedUserVacancyRepository(tempDir.toString(), shards(2));
+        
+        assertThat(repository.findAll()).hasSize(3);
+        assertThat(repository.findByUserId(2L)).extracting(UserVacancy::getVacancyId).containsExactly("b");
+        assertThat(tempDir.resolve("user_vacancies")).doesNotExist();
+        assertThat(tempDir.resolve("user_vacancies.migrated")).exists();
+    }
+    
+    @Test
+    void shouldReshardWhenShardCountChanges() {
+        ShardedUserVacancyRepository previous = new ShardedUserVacancyRepository(tempDir.toString(), shards(4));
+        for (long userId = 1; userId <= 8; userId++) {
+            previous.save(userVacancy(userId, "v" + userId));
+        }
+        previous.close();
+        
+        repository = new ShardedUserVacancyRepository(tempDir.toString(), shards(3));
+        
+        assertThat(repository.findAll()).hasSize(8);
+        assertThat(repository.findByUserId(5L)).extracting(UserVacancy::getVacancyId).containsExactly("v5");
+    }
+    
+    @Test
+    void shouldReshardFromLayoutWhoseCountEndsInCurrentOne() {
+        ShardedUserVacancyRepository previous = new ShardedUserVacancyRepository(tempDir.toString(), shards(14));
+        for (long userId = 1; userId <= 28; userId++) {
+            previous.save(userVacancy(userId, "v" + userId));
+        }
+        previous.close();
+        
+        repository = new ShardedUserVacancyRepository(tempDir.toString(), shards(4));
+        
+        assertThat(repository.findAll()).hasSize(28);
+        assertThat(tempDir.resolve("user_vacancy_shards").resolve("shard-3-of-14")).doesNotExist();
+    }
+    
+    private StorageConfig shards(int count) {
+        return StorageConfig.defaults().withUserVacancyShards(count);
+    }
+}
\ No newline at end of file
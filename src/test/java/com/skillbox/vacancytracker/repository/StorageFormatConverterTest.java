@@ -0,0 +1,60 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.skillbox.vacancytracker.config.StorageConfig;
+import com.skillbox.vacancytracker.config.StorageFormat;
+import com.skillbox.vacancytracker.model.BotUser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StorageFormatConverterTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void shouldWriteConfiguredBinaryFormat() throws Exception {
+        JsonUserRepository repository = new JsonUserRepository(tempDir.toString(),
+                StorageConfig.defaults().withFormat(StorageFormat.SMILE));
+        
+        repository.save(createUser(1L, "binary"));
+        
+        Path usersFile = tempDir.resolve(JsonUserRepository.USER_DATA_FILE);
+        assertThat(StorageCodec.detect(usersFile)).isEqualTo(StorageFormat.SMILE);
+        assertThat(repository.findById(1L)).map(BotUser::getUsername).contains("binary");
+    }
+    
+    @Test
+    void shouldConvertDataDirectoryAndKeepItReadable() throws Exception {
+        new JsonUserRepository(tempDir.toString()).saveAll(List.of(createUser(1L, "first"), createUser(2L, "second")));
+        
+        List<StorageFormatConverter.Report> reports = StorageFormatConverter.convert(tempDir, StorageFormat.CBOR);
+        
+        assertThat(reports).extracting(StorageFormatConverter.Report::file).contains(JsonUserRepository.USER_DATA_FILE);
+        assertThat(StorageCodec.detect(tempDir.resolve(JsonUserRepository.USER_DATA_FILE))).isEqualTo(StorageFormat.CBOR);
+        // Reads sniff the format, so a repository configured for JSON still loads converted files
+        assertThat(new JsonUserRepository(tempDir.toString()).findAll()).extracting(BotUser::getUsername)
+                .containsExactlyInAnyOrder("first", "second");
+    }
+    
+    @Test
+    void shouldConvertBackToJson() throws Exception {
+        new JsonUserRepository(tempDir.toString(), StorageConfig.defaults().withFormat(StorageFormat.SMILE))
+                .save(createUser(1L, "roundtrip"));
+        
+        StorageFormatConverter.convert(tempDir, StorageFormat.JSON);
+        
+        assertThat(tempDir.resolve(JsonUserRepository.USER_DATA_FILE)).content().contains("\"roundtrip\"");
+        assertThat(StorageFormatConverter.convert(tempDir, StorageFormat.JSON)).isEmpty();
+    }
+    
+    private BotUser createUser(Long userId, String username) {
+        BotUser user = new BotUser(userId, userId * 10);
+        user.setUsername(username);
+        return user;
+    }
+}
@@ -0,0 +1,82 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.skillbox.vacancytracker.model.UserVacancy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.skillbox.vacancytracker.model.UserVacancyFixtures.userVacancy;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TieredUserVacancyRepositoryTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 15, 12, 0);
+    
+    @TempDir
+    Path tempDir;
+    
+    private TieredUserVacancyRepository repository;
+    
+    @AfterEach
+    void tearDown() {
+        if (repository != null) {
+            repository.close();
+        }
+    }
+    
+    @Test
+    void shouldMoveOnlyOldDeliveredRecordsIntoMonthlyArchive() {
+        repository = open();
+        repository.saveAll(List.of(
+                createUserVacancy(1L, "old", NOW.minusDays(30), false),
+                createUserVacancy(1L, "undelivered", NOW.minusDays(30), true),
+                createUserVacancy(1L, "recent", NOW.minusDays(1), false)));
+        
+        int moved = repository.moveToCold(NOW.minusDays(7), userVacancy -> !userVacancy.isNew());
+        
+        assertThat(moved).isEqualTo(1);
+        assertThat(tempDir.resolve(TieredUserVacancyRepository.HISTORY_DIRECTORY).resolve("2024-05.jsonl.gz")).exists();
+        assertThat(new JsonUserVacancyRepository(tempDir.toString()).findByUserId(1L))
+                .extracting(UserVacancy::getVacancyId).containsExactlyInAnyOrder("undelivered", "recent");
+        assertThat(repository.findByUserId(1L))
+                .extracting(UserVacancy::getVacancyId).containsExactlyInAnyOrder("old", "undelivered", "recent");
+        assertThat(repository.findById("1-old")).get()
+                .extracting(userVacancy -> userVacancy.getVacancy().getTitle()).isEqualTo("Vacancy old");
+        assertThat(repository.findNewByUserId(1L)).extracting(UserVacancy::getVacancyId).containsExactly("undelivered");
+    }
+    
+    @Test
+    void shouldHideArchivedRecordsOnceDeleted() {
+        repository = open();
+        repository.saveAll(List.of(
+                createUserVacancy(1L, "first", NOW.minusDays(40), false),
+                createUserVacancy(1L, "second", NOW.minusDays(40), false),
+                createUserVacancy(2L, "other", NOW.minusDays(40), false)));
+        repository.moveToCold(NOW.minusDays(7), userVacancy -> true);
+        
+        repository.delete("1-first");
+        repository.compact();
+        assertThat(repository.findByUserId(1L)).extracting(UserVacancy::getVacancyId).containsExactly("second");
+        
+        repository.deleteByUserId(1L);
+        repository.close();
+        repository = open();
+        
+        assertThat(repository.findByUserId(1L)).isEmpty();
+        assertThat(repository.findAll()).extracting(UserVacancy::getId).containsExactly("2-other");
+    }
+    
+    private TieredUserVacancyRepository open() {
+        return new TieredUserVacancyRepository(new JsonUserVacancyRepository(tempDir.toString()), tempDir.toString());
+    }
+    
+    private UserVacancy createUserVacancy(Long userId, String vacancyId, LocalDateTime foundAt, boolean isNew) {
+        UserVacancy userVacancy = userVacancy(userId, vacancyId);
+        userVacancy.setFoundAt(foundAt);
+        userVacancy.setNew(isNew);
+        return userVacancy;
+    }
+}
\ No newline at end of file
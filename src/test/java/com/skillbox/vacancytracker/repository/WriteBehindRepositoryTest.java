@@ -0,0 +1,137 @@
+package com.skillbox.vacancytracker.repository;
+
+import com.skillbox.vacancytracker.config.StorageConfig;
+import com.skillbox.vacancytracker.model.BotUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class WriteBehindRepositoryTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private JsonUserRepository repository;
+    
+    @AfterEach
+    void tearDown() {
+        if (repository != null) {
+            repository.close();
+        }
+    }
+    
+    @Test
+    void shouldServeReadsFromMemoryBeforeFlush() throws IOException {
+        repository = new JsonUserRepository(tempDir.toString(), StorageConfig.writeBehind(3600, 1000));
+        
+        repository.save(createUser(1L, "cached"));
+        
+        assertThat(repository.findById(1L)).isPresent();
+        assertThat(readUsersFile()).doesNotContain("cached");
+    }
+    
+    @Test
+    void shouldFlushWhenDirtyThresholdReached() {
+        repository = new JsonUserRepository(tempDir.toString(), StorageConfig.writeBehind(3600, 3));
+        
+        repository.save(createUser(1L, "first"));
+        repository.save(createUser(2L, "second"));
+        repository.save(createUser(3L, "third"));
+        
+        await().atMost(Duration.ofSeconds(5))
+            .until(() -> readUsersFile().contains("third"));
+    }
+    
+    @Test
+    void shouldFlushOnInterval() {
+        repository = new JsonUserRepository(tempDir.toString(), StorageConfig.writeBehind(1, 1000));
+        
+        repository.save(createUser(1L, "periodic"));
+        
+        await().atMost(Duration.ofSeconds(5))
+            .until(() -> readUsersFile().contains("periodic"));
+    }
+    
+    @Test
+    void shouldFlushPendingChangesOnClose() {
+        repository = new JsonUserRepository(tempDir.toString(), StorageConfig.writeBehind(3600, 1000));
+        repository.save(createUser(1L, "kept"));
+        repository.save(createUser(2L, "removed"));
+        repository.delete(2L);
+        
+        repository.close();
+        repository = null;
+        
+        JsonUserRepository reopened = new JsonUserRepository(tempDir.toString());
+        assertThat(reopened.findAll()).extracting(BotUser::getUsername).containsExactly("kept");
+    }
+    
+    @Test
+    void shouldLoadFileOnlyOnce() throws IOException {
+        new JsonUserRepository(tempDir.toString()).save(createUser(1L, "original"));
+        repository = new JsonUserRepository(tempDir.toString(), StorageConfig.writeBehind(3600, 1000));
+        
+        Files.writeString(tempDir.resolve("users.json"), "{}");
+        
+        assertThat(repository.findById(1L)).map(BotUser::getUsername).contains("original");
+    }
+    
+    @Test
+    void shouldSkipFlushWhenNothingChanged() throws IOException {
+        repository = new JsonUserRepository(tempDir.toString(), StorageConfig.writeBehind(3600, 1000));
+        String before = readUsersFile();
+        
+        repository.flush();
+        
+        assertThat(readUsersFile()).isEqualTo(before);
+    }
+    
+    @Test
+    void shouldServeReadsWhileWriterHoldsLock() throws Exception {
+        repository = new JsonUserRepository(tempDir.toString(), StorageConfig.writeBehind(3600, 1000));
+        repository.save(createUser(1L, "published"));
+        
+        repository.lock.writeLock().lock();
+        try {
+            CompletableFuture<Optional<BotUser>> read = CompletableFuture.supplyAsync(() -> repository.findById(1L));
+            
+            assertThat(read.get(5, TimeUnit.SECONDS)).map(BotUser::getUsername).contains("published");
+        } finally {
+            repository.lock.writeLock().unlock();
+        }
+    }
+    
+    @Test
+    void shouldNotExposeSnapshotToMutation() {
+        repository = new JsonUserRepository(tempDir.toString(), StorageConfig.writeBehind(3600, 1000));
+        repository.save(createUser(1L, "first"));
+        List<BotUser> before = repository.findAll();
+        
+        repository.save(createUser(2L, "second"));
+        
+        assertThat(before).hasSize(1);
+        assertThat(repository.findAll()).hasSize(2);
+    }
+    
+    private String readUsersFile() throws IOException {
+        return Files.readString(tempDir.resolve("users.json"));
+    }
+    
+    private BotUser createUser(Long userId, String username) {
+        BotUser user = new BotUser(userId, userId * 10);
+        user.setUsername(username);
+        return user;
+    }
+}
\ No newline at end of file
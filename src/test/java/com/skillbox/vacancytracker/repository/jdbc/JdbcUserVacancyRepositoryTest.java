@@ -0,0 +1,88 @@
+package com.skillbox.vacancytracker.repository.jdbc;
+
+import com.skillbox.vacancytracker.model.UserVacancy;
+import com.skillbox.vacancytracker.model.Vacancy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.skillbox.vacancytracker.model.UserVacancyFixtures.userVacancy;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JdbcUserVacancyRepositoryTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private JdbcDatabase database;
+    private JdbcUserVacancyRepository repository;
+    
+    @BeforeEach
+    void setUp() {
+        database = JdbcDatabase.openH2(tempDir.toString());
+        repository = new JdbcUserVacancyRepository(database);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+    
+    @Test
+    void shouldSaveAndFindByUserId() {
+        repository.saveAll(List.of(userVacancy(1L, "a"), userVacancy(1L, "b"), userVacancy(2L, "c")));
+        
+        assertThat(repository.findByUserId(1L)).extracting(UserVacancy::getVacancyId)
+            .containsExactlyInAnyOrder("a", "b");
+        assertThat(repository.findById("2-c")).map(UserVacancy::getVacancy).map(Vacancy::getTitle)
+            .contains("Vacancy c");
+    }
+    
+    @Test
+    void shouldUpdateExistingRecordOnSave() {
+        UserVacancy userVacancy = userVacancy(1L, "a");
+        repository.save(userVacancy);
+        
+        userVacancy.setNew(false);
+        repository.save(userVacancy);
+        
+        assertThat(repository.findAll()).hasSize(1);
+        assertThat(repository.findNewByUserId(1L)).isEmpty();
+    }
+    
+    @Test
+    void shouldMarkAllAsNotified() {
+        repository.saveAll(List.of(userVacancy(1L, "a"), userVacancy(1L, "b"), userVacancy(1L, "c")));
+        
+        repository.markAllAsNotified(List.of("1-a", "1-c", "missing"));
+        
+        assertThat(repository.findNewByUserId(1L)).extracting(UserVacancy::getVacancyId).containsExactly("b");
+        assertThat(repository.findById("1-a").orElseThrow().getNotifiedAt())
+            .isBeforeOrEqualTo(LocalDateTime.now());
+    }
+    
+    @Test
+    void shouldDeleteByUserIdAndById() {
+        repository.saveAll(List.of(userVacancy(1L, "a"), userVacancy(2L, "b"), userVacancy(2L, "c")));
+        
+        repository.deleteByUserId(2L);
+        repository.deleteAll(List.of("1-a"));
+        
+        assertThat(repository.findAll()).isEmpty();
+    }
+    
+    @Test
+    void shouldKeepDataAfterReopen() {
+        repository.save(userVacancy(1L, "kept"));
+        database.close();
+        
+        database = JdbcDatabase.openH2(tempDir.toString());
+        
+        assertThat(new JdbcUserVacancyRepository(database).findByUserId(1L)).hasSize(1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.skillbox.vacancytracker.repository.jdbc;
+
+import com.skillbox.vacancytracker.config.StorageConfig;
+import com.skillbox.vacancytracker.model.BotUser;
+import com.skillbox.vacancytracker.model.UserVacancy;
+import com.skillbox.vacancytracker.model.Vacancy;
+import com.skillbox.vacancytracker.repository.JsonUserRepository;
+import com.skillbox.vacancytracker.repository.JsonUserVacancyRepository;
+import com.skillbox.vacancytracker.repository.JsonVacancyRepository;
+import com.skillbox.vacancytracker.repository.ShardedUserVacancyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonToJdbcImporterTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private JdbcDatabase database;
+    
+    @BeforeEach
+    void setUp() {
+        database = JdbcDatabase.openH2(tempDir.toString());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+    
+    @Test
+    void shouldImportJsonFilesOnce() {
+        new JsonUserRepository(tempDir.toString()).save(new BotUser(1L, 10L));
+        new JsonUserVacancyRepository(tempDir.toString()).save(new UserVacancy(1L, createVacancy("a")));
+        new JsonVacancyRepository(tempDir.toString()).saveUserVacancies(1L, List.of(createVacancy("b")));
+        
+        int imported = JsonToJdbcImporter.importAll(tempDir.toString(), StorageConfig.defaults(), database);
+        
+        assertThat(imported).isEqualTo(3);
+        assertThat(new JdbcUserRepository(database).findById(1L)).isPresent();
+        assertThat(new JdbcUserVacancyRepository(database).findByUserId(1L)).hasSize(1);
+        assertThat(new JdbcVacancyRepository(database).findByUserIdAndCreatedAfter(1L, LocalDateTime.of(2023, 1, 1, 0, 0)))
+            .extracting(Vacancy::getId).containsExactly("1_b");
+        assertThat(tempDir.resolve("users.json")).doesNotExist();
+        assertThat(tempDir.resolve("users.json.imported")).exists();
+        
+        assertThat(JsonToJdbcImporter.importAll(tempDir.toString(), StorageConfig.defaults(), database)).isZero();
+    }
+    
+    @Test
+    void shouldImportShardedUserVacancies() {
+        StorageConfig sharded = StorageConfig.defaults().withUserVacancyShards(2);
+        try (ShardedUserVacancyRepository shards = new ShardedUserVacancyRepository(tempDir.toString(), sharded)) {
+            shards.saveAll(List.of(new UserVacancy(1L, createVacancy("a")), new UserVacancy(2L, createVacancy("b"))));
+        }
+        
+        JsonToJdbcImporter.importAll(tempDir.toString(), sharded, database);
+        
+        assertThat(new JdbcUserVacancyRepository(database).findAll()).hasSize(2);
+    }
+    
+    private Vacancy createVacancy(String id) {
+        Vacancy vacancy = new Vacancy();
+        vacancy.setId(id);
+        vacancy.setTitle("Vacancy " + id);
+        vacancy.setCreatedDate(LocalDateTime.of(2024, 1, 1, 12, 0));
+        return vacancy;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package com.skillbox.vacancytracker.service;
+
+import com.skillbox.vacancytracker.exception.UserNotFoundException;
+import com.skillbox.vacancytracker.model.BotUser;
+import com.skillbox.vacancytracker.model.SearchCriteria;
+import com.skillbox.vacancytracker.repository.JsonUserRepository;
+import com.skillbox.vacancytracker.util.OrderedExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class AsyncUserServiceImplTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private OrderedExecutor executor;
+    private JsonUserRepository userRepository;
+    private AsyncUserService asyncUserService;
+    
+    @BeforeEach
+    void setUp() {
+        executor = new OrderedExecutor("test-io", 4);
+        userRepository = new JsonUserRepository(tempDir.toString());
+        asyncUserService = new AsyncUserServiceImpl(new UserServiceImpl(userRepository), executor);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        executor.close();
+        userRepository.close();
+    }
+    
+    @Test
+    void shouldApplyUpdatesOfOneUserInCallOrder() {
+        asyncUserService.save(new BotUser(1L, 10L));
+        List<CompletableFuture<Void>> updates = new ArrayList<>();
+        for (int salary = 1; salary <= 50; salary++) {
+            SearchCriteria criteria = new SearchCriteria();
+            criteria.setMinimumSalary(salary);
+            updates.add(asyncUserService.updateSearchCriteria(1L, criteria));
+        }
+        
+        CompletableFuture.allOf(updates.toArray(CompletableFuture[]::new)).join();
+        
+        assertThat(asyncUserService.findById(1L).join()).get()
+                .extracting(user -> user.getSearchCriteria().getMinimumSalary()).isEqualTo(50);
+    }
+    
+    @Test
+    void shouldReturnBeforeSaveCompletes() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        UserService slowService = mock(UserService.class);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(slowService).save(any());
+        AsyncUserService service = new AsyncUserServiceImpl(slowService, executor);
+        
+        CompletableFuture<Void> saved = service.save(new BotUser(2L, 20L));
+        
+        assertThat(saved).isNotDone();
+        release.countDown();
+        saved.get(5, TimeUnit.SECONDS);
+    }
+    
+    @Test
+    void shouldSurfaceFailuresThroughFuture() {
+        CompletableFuture<Void> deactivated = asyncUserService.deactivateUser(404L);
+        
+        assertThat(deactivated).failsWithin(5, TimeUnit.SECONDS)
+                .withThrowableOfType(Exception.class)
+                .withCauseInstanceOf(UserNotFoundException.class);
+    }
+}
\ No newline at end of file
@@ -1,17 +1,24 @@
 package com.skillbox.vacancytracker.service;
 
 import com.skillbox.vacancytracker.config.BotConfig;
+import com.skillbox.vacancytracker.constant.ApiConstants;
 import com.skillbox.vacancytracker.exception.VacancyApiException;
 import com.skillbox.vacancytracker.model.SearchCriteria;
 import com.skillbox.vacancytracker.model.Vacancy;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -233,6 +240,67 @@ class TrudvsemApiClientIntegrationTest {
             .isInstanceOf(RuntimeException.class);
     }
     
+    @Test
+    void shouldFetchEveryPageUpToTotal() {
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                int page = Integer.parseInt(request.getRequestUrl().queryParameter("offset"));
+                int count = page < 2 ? 100 : 50;
+                return new MockResponse().setResponseCode(200).setBody(pageBody(page * 100, count, 250));
+            }
+        });
+        
+        List<Integer> pageSizes = Collections.synchronizedList(new ArrayList<>());
+        apiClient.searchAllVacancies(new SearchCriteria(), page -> pageSizes.add(page.size()));
+        
+        assertThat(pageSizes).containsExactlyInAnyOrder(100, 100, 50);
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(3);
+        assertThat(apiClient.searchVacancies(new SearchCriteria())).hasSize(250);
+    }
+    
+    @Test
+    void shouldBoundPagesOfSingleQuerySearch() {
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                int page = Integer.parseInt(request.getRequestUrl().queryParameter("offset"));
+                return new MockResponse().setResponseCode(200).setBody(pageBody(page * 100, 100, 100_000));
+            }
+        });
+        
+        List<Vacancy> vacancies = apiClient.searchVacancies(new SearchCriteria());
+        
+        assertThat(vacancies).hasSize(ApiConstants.MAX_QUERY_PAGES * 100);
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(ApiConstants.MAX_QUERY_PAGES);
+    }
+    
+    @Test
+    void shouldFailWhenAnyPageFails() {
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                int page = Integer.parseInt(request.getRequestUrl().queryParameter("offset"));
+                if (page == 2) {
+                    return new MockResponse().setResponseCode(503);
+                }
+                return new MockResponse().setResponseCode(200).setBody(pageBody(page * 100, 100, 300));
+            }
+        });
+        
+        assertThatThrownBy(() -> apiClient.searchVacancies(new SearchCriteria()))
+            .isInstanceOf(VacancyApiException.class)
+            .hasMessageContaining("API request failed with code: 503");
+    }
+    
+    private static String pageBody(int firstId, int count, int total) {
+        String vacancies = IntStream.range(firstId, firstId + count)
+            .mapToObj(id -> "{\"vacancy\": {\"id\": \"" + id + "\", \"job-name\": \"Developer " + id + "\"}}")
+            .collect(Collectors.joining(","));
+        return "{\"status\": \"200\", \"meta\": {\"total\": " + total + "}, "
+            + "\"results\": {\"vacancies\": [" + vacancies + "]}}";
+    }
+    
     @Test
     void shouldCreateHttpClient() {
         TrudvsemApiClient newClient = new TrudvsemApiClient(config);
@@ -0,0 +1,68 @@
+package com.skillbox.vacancytracker.service;
+
+import com.skillbox.vacancytracker.constant.ApiConstants;
+import com.skillbox.vacancytracker.model.SearchCriteria;
+import com.skillbox.vacancytracker.model.Vacancy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class VacancyApiClientTest {
+    
+    @Test
+    void shouldPageUntilShortPage() {
+        VacancyApiClient client = mock(VacancyApiClient.class);
+        when(client.searchAllVacancies(any())).thenCallRealMethod();
+        doCallRealMethod().when(client).searchAllVacancies(any(), any());
+        when(client.searchVacancies(any(), anyInt(), eq(0))).thenReturn(page(0, ApiConstants.MAX_API_LIMIT));
+        // The last vacancy of the first page shifted onto the second one
+        when(client.searchVacancies(any(), anyInt(), eq(1))).thenReturn(page(ApiConstants.MAX_API_LIMIT - 1, 11));
+        
+        List<Vacancy> all = client.searchAllVacancies(new SearchCriteria());
+        
+        assertThat(all).hasSize(ApiConstants.MAX_API_LIMIT + 10);
+        verify(client, times(2)).searchVacancies(any(), eq(ApiConstants.MAX_API_LIMIT), anyInt());
+    }
+    
+    @Test
+    void shouldSearchOnVirtualThread() {
+        VacancyApiClient client = mock(VacancyApiClient.class);
+        when(client.searchVacanciesAsync(any())).thenCallRealMethod();
+        when(client.searchVacancies(any(SearchCriteria.class))).thenAnswer(invocation -> {
+            assertThat(Thread.currentThread().isVirtual()).isTrue();
+            return page(0, 3);
+        });
+        
+        assertThat(client.searchVacanciesAsync(new SearchCriteria()).join()).hasSize(3);
+    }
+    
+    @Test
+    void shouldCompleteExceptionallyWhenSearchFails() {
+        VacancyApiClient client = mock(VacancyApiClient.class);
+        when(client.searchVacanciesAsync(any())).thenCallRealMethod();
+        when(client.searchVacancies(any(SearchCriteria.class))).thenThrow(new IllegalStateException("API unavailable"));
+        
+        assertThatThrownBy(() -> client.searchVacanciesAsync(new SearchCriteria()).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+    
+    private List<Vacancy> page(int firstId, int size) {
+        return IntStream.range(firstId, firstId + size)
+                .mapToObj(id -> {
+                    Vacancy vacancy = new Vacancy();
+                    vacancy.setId(String.valueOf(id));
+                    return vacancy;
+                })
+                .toList();
+    }
+}
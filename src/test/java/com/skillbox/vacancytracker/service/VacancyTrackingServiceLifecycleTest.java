@@ -2,19 +2,28 @@ package com.skillbox.vacancytracker.service;
 
 import com.skillbox.vacancytracker.model.BotUser;
 import com.skillbox.vacancytracker.model.SearchCriteria;
+import com.skillbox.vacancytracker.repository.ColdUserStore;
 import com.skillbox.vacancytracker.repository.UserRepository;
 import com.skillbox.vacancytracker.repository.UserVacancyRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.telegram.telegrambots.meta.generics.TelegramClient;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneOffset;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import static com.skillbox.vacancytracker.model.UserVacancyFixtures.userVacancy;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -284,4 +293,59 @@ class VacancyTrackingServiceLifecycleTest {
         verify(userRepository).save(user);
         verify(taskManager, never()).scheduleNotification(any(), any(), any(), any());
     }
+    
+    @Test
+    void shouldHibernateIdleUserIntoColdStorage(@TempDir Path tempDir) {
+        Long userId = 123L;
+        BotUser user = createTrackedUser(userId);
+        user.setLastInteractionAt(LocalDateTime.now().minusDays(60));
+        ColdUserStore coldUserStore = new ColdUserStore(tempDir.toString());
+        service = new VacancyTrackingService(userRepository, userVacancyRepository, vacancyApiClient, taskManager,
+                telegramClient, null, coldUserStore);
+        
+        when(userRepository.stream()).thenReturn(Stream.of(user));
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userVacancyRepository.findByUserId(userId)).thenReturn(List.of(userVacancy(userId, "v1")));
+        
+        assertThat(service.hibernateIdleUsers(Duration.ofDays(30))).isEqualTo(1);
+        
+        verify(taskManager).cancelUserTasks(userId);
+        verify(userVacancyRepository).deleteByUserId(userId);
+        verify(userRepository).save(user);
+        assertThat(user.isHibernated()).isTrue();
+        assertThat(coldUserStore.get(userId)).get()
+                .satisfies(coldUser -> assertThat(coldUser.userVacancies()).hasSize(1));
+    }
+    
+    @Test
+    void shouldWakeHibernatedUserOnInteraction(@TempDir Path tempDir) {
+        Long userId = 123L;
+        BotUser user = createTrackedUser(userId);
+        user.setHibernated(true);
+        ColdUserStore coldUserStore = new ColdUserStore(tempDir.toString());
+        coldUserStore.put(userId, List.of(userVacancy(userId, "v1")), new long[0]);
+        service = new VacancyTrackingService(userRepository, userVacancyRepository, vacancyApiClient, taskManager,
+                telegramClient, null, coldUserStore);
+        
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        
+        service.recordInteraction(userId);
+        
+        verify(userVacancyRepository).saveAll(argThat(userVacancies -> userVacancies.size() == 1));
+        verify(taskManager).scheduleVacancyCheck(eq(userId), any(Runnable.class));
+        assertThat(user.isHibernated()).isFalse();
+        assertThat(user.getLastInteractionAt()).isNotNull();
+        assertThat(coldUserStore.get(userId)).isEmpty();
+    }
+    
+    private BotUser createTrackedUser(Long userId) {
+        BotUser user = new BotUser();
+        user.setUserId(userId);
+        user.setActive(true);
+        
+        SearchCriteria criteria = new SearchCriteria();
+        criteria.setKeyword("Java");
+        user.setSearchCriteria(criteria);
+        return user;
+    }
 }
\ No newline at end of file
@@ -13,7 +13,7 @@ import org.telegram.telegrambots.meta.generics.TelegramClient;
 
 import java.time.LocalTime;
 import java.time.ZoneOffset;
-import java.util.List;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -78,11 +78,11 @@ class VacancyTrackingServiceTest {
         criteria2.setKeyword("python");
         user2.setSearchCriteria(criteria2);
         
-        when(userRepository.findAll()).thenReturn(List.of(user1, user2));
+        when(userRepository.stream()).thenReturn(Stream.of(user1, user2));
         
         service.restartAllTasks();
         
-        verify(userRepository).findAll();
+        verify(userRepository).stream();
         verify(taskManager, times(2)).scheduleVacancyCheck(any(Long.class), any(Runnable.class));
         verify(taskManager, times(2)).scheduleNotification(any(Long.class), any(LocalTime.class), any(ZoneOffset.class), any(Runnable.class));
     }
@@ -101,7 +101,7 @@ class VacancyTrackingServiceTest {
         inactiveUser.setActive(false);
         inactiveUser.setSearchCriteria(new SearchCriteria());
         
-        when(userRepository.findAll()).thenReturn(List.of(activeUser, inactiveUser));
+        when(userRepository.stream()).thenReturn(Stream.of(activeUser, inactiveUser));
         
         service.restartAllTasks();
         
@@ -122,7 +122,7 @@ class VacancyTrackingServiceTest {
         userWithoutCriteria.setActive(true);
         userWithoutCriteria.setSearchCriteria(null);
         
-        when(userRepository.findAll()).thenReturn(List.of(userWithCriteria, userWithoutCriteria));
+        when(userRepository.stream()).thenReturn(Stream.of(userWithCriteria, userWithoutCriteria));
         
         service.restartAllTasks();
         
@@ -148,7 +148,7 @@ class VacancyTrackingServiceTest {
         criteriaWithoutTime.setKeyword("analyst");
         userWithoutTime.setSearchCriteria(criteriaWithoutTime);
         
-        when(userRepository.findAll()).thenReturn(List.of(userWithTime, userWithoutTime));
+        when(userRepository.stream()).thenReturn(Stream.of(userWithTime, userWithoutTime));
         
         service.restartAllTasks();
         
@@ -167,7 +167,7 @@ class VacancyTrackingServiceTest {
         invalidTimeCriteria.setKeyword("engineer");
         userWithInvalidTime.setSearchCriteria(invalidTimeCriteria);
         
-        when(userRepository.findAll()).thenReturn(List.of(userWithInvalidTime));
+        when(userRepository.stream()).thenReturn(Stream.of(userWithInvalidTime));
         
         service.restartAllTasks();
         
@@ -184,11 +184,11 @@ class VacancyTrackingServiceTest {
     
     @Test
     void shouldHandleEmptyUserList() {
-        when(userRepository.findAll()).thenReturn(List.of());
+        when(userRepository.stream()).thenReturn(Stream.of());
         
         service.restartAllTasks();
         
-        verify(userRepository).findAll();
+        verify(userRepository).stream();
         verify(taskManager, never()).scheduleVacancyCheck(any(), any());
         verify(taskManager, never()).scheduleNotification(any(), any(), any(), any());
     }
@@ -202,7 +202,7 @@ class VacancyTrackingServiceTest {
         taskCriteria.setKeyword("tester");
         user.setSearchCriteria(taskCriteria);
         
-        when(userRepository.findAll()).thenReturn(List.of(user));
+        when(userRepository.stream()).thenReturn(Stream.of(user));
         
         service.restartAllTasks();
         
@@ -3,6 +3,7 @@ package com.skillbox.vacancytracker.task;
 import com.skillbox.vacancytracker.model.BotUser;
 import com.skillbox.vacancytracker.model.UserVacancy;
 import com.skillbox.vacancytracker.model.Vacancy;
+import com.skillbox.vacancytracker.repository.UserRepository;
 import com.skillbox.vacancytracker.repository.UserVacancyRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,6 +19,7 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -31,6 +33,9 @@ class NotificationTaskTest {
     @Mock
     private TelegramClient telegramClient;
     
+    @Mock
+    private UserRepository userRepository;
+    
     private BotUser testUser;
     private NotificationTask notificationTask;
 
@@ -64,7 +69,7 @@ class NotificationTaskTest {
         notificationTask.run();
         
         verify(telegramClient, never()).execute(any(SendMessage.class));
-        verify(userVacancyRepository, never()).markAsNotified(anyString());
+        verify(userVacancyRepository, never()).markAllAsNotified(any());
     }
 
     @Test
@@ -78,7 +83,7 @@ class NotificationTaskTest {
         
         ArgumentCaptor<SendMessage> messageCaptor = ArgumentCaptor.forClass(SendMessage.class);
         verify(telegramClient).execute(messageCaptor.capture());
-        verify(userVacancyRepository).markAsNotified(userVacancy.getId());
+        verify(userVacancyRepository).markAllAsNotified(List.of(userVacancy.getId()));
         
         SendMessage sentMessage = messageCaptor.getValue();
         assertThat(sentMessage.getChatId()).isEqualTo("456");
@@ -105,8 +110,7 @@ class NotificationTaskTest {
         
         ArgumentCaptor<SendMessage> messageCaptor = ArgumentCaptor.forClass(SendMessage.class);
         verify(telegramClient).execute(messageCaptor.capture());
-        verify(userVacancyRepository).markAsNotified(userVacancy1.getId());
-        verify(userVacancyRepository).markAsNotified(userVacancy2.getId());
+        verify(userVacancyRepository).markAllAsNotified(List.of(userVacancy1.getId(), userVacancy2.getId()));
         
         SendMessage sentMessage = messageCaptor.getValue();
         assertThat(sentMessage.getText()).contains("🔔 Найдены новые вакансии: 2");
@@ -240,7 +244,7 @@ class NotificationTaskTest {
         
         // Should still try to send but not mark as notified due to exception
         verify(telegramClient).execute(any(SendMessage.class));
-        verify(userVacancyRepository, never()).markAsNotified(anyString());
+        verify(userVacancyRepository, never()).markAllAsNotified(any());
     }
 
     @Test
@@ -251,7 +255,7 @@ class NotificationTaskTest {
         notificationTask.run();
         
         verify(telegramClient, never()).execute(any(SendMessage.class));
-        verify(userVacancyRepository, never()).markAsNotified(anyString());
+        verify(userVacancyRepository, never()).markAllAsNotified(any());
     }
 
     @Test
@@ -275,6 +279,25 @@ class NotificationTaskTest {
         assertThat(sentMessage.getText()).doesNotContain("11. Test Job 11");
     }
 
+    @Test
+    void shouldAcknowledgeDigestByAdvancingWatermark() throws TelegramApiException {
+        UserVacancy older = new UserVacancy(123L, createTestVacancy("1", "Older Job", null, null, null, null, null, null));
+        UserVacancy newer = new UserVacancy(123L, createTestVacancy("2", "Newer Job", null, null, null, null, null, null));
+        older.setSequence(8L);
+        newer.setSequence(9L);
+        testUser.setNotifiedSequence(7L);
+        when(userRepository.findById(123L)).thenReturn(Optional.of(testUser));
+        when(userVacancyRepository.findNewByUserId(123L, 7L)).thenReturn(List.of(newer, older));
+        
+        new NotificationTask(testUser, userVacancyRepository, userRepository, telegramClient).run();
+        
+        ArgumentCaptor<SendMessage> messageCaptor = ArgumentCaptor.forClass(SendMessage.class);
+        verify(telegramClient).execute(messageCaptor.capture());
+        assertThat(messageCaptor.getValue().getText()).contains("1. Newer Job").contains("2. Older Job");
+        verify(userRepository).advanceNotifiedSequence(123L, 9L);
+        verify(userVacancyRepository, never()).markAllAsNotified(any());
+    }
+
     private void testExperienceFormatting(Integer experience, String expected) throws TelegramApiException {
         reset(telegramClient, userVacancyRepository);
         
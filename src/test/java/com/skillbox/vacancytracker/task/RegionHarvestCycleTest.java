@@ -0,0 +1,93 @@
+package com.skillbox.vacancytracker.task;
+
+import com.skillbox.vacancytracker.model.BotUser;
+import com.skillbox.vacancytracker.model.SearchCriteria;
+import com.skillbox.vacancytracker.model.UserVacancy;
+import com.skillbox.vacancytracker.model.Vacancy;
+import com.skillbox.vacancytracker.repository.UserRepository;
+import com.skillbox.vacancytracker.repository.UserVacancyRepository;
+import com.skillbox.vacancytracker.service.VacancyApiClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RegionHarvestCycleTest {
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    @Mock
+    private VacancyApiClient vacancyApiClient;
+    
+    @Mock
+    private UserVacancyRepository userVacancyRepository;
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldCrawlEachRegionOnceAndMatchUsersLocally() {
+        BotUser javaDeveloper = createUser(1L, 77, "java");
+        BotUser tester = createUser(2L, 77, "qa");
+        BotUser anywhere = createUser(3L, null, "java");
+        when(userRepository.stream()).thenReturn(Stream.of(javaDeveloper, tester, anywhere));
+        when(userVacancyRepository.findByUserId(any())).thenReturn(List.of());
+        when(vacancyApiClient.searchAllVacancies(argThat(query -> query != null && query.getRegionCode() != null)))
+                .thenReturn(List.of(createVacancy("j1", "Java developer"), createVacancy("q1", "QA engineer")));
+        when(vacancyApiClient.searchVacancies(any(SearchCriteria.class)))
+                .thenReturn(List.of(createVacancy("j2", "Senior Java developer")));
+        
+        RegionHarvestCycle.Report report = new RegionHarvestCycle(userRepository, vacancyApiClient,
+                userVacancyRepository, null).check();
+        
+        verify(vacancyApiClient, times(1)).searchAllVacancies(any());
+        verify(vacancyApiClient, times(1)).searchVacancies(any(SearchCriteria.class));
+        assertThat(report.regions()).isEqualTo(1);
+        assertThat(report.corpusSize()).isEqualTo(2);
+        assertThat(report.nationwideQueries()).isEqualTo(1);
+        assertThat(report.newVacancies()).isEqualTo(3);
+        
+        ArgumentCaptor<Collection<UserVacancy>> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(userVacancyRepository, times(3)).saveAll(saved.capture());
+        assertThat(saved.getAllValues()).flatExtracting(records -> records.stream().map(UserVacancy::getId).toList())
+                .containsExactlyInAnyOrder("1-j1", "2-q1", "3-j2");
+    }
+    
+    @Test
+    void shouldSkipRegionWhoseCrawlFailed() {
+        when(userRepository.stream()).thenReturn(Stream.of(createUser(1L, 77, null)));
+        when(vacancyApiClient.searchAllVacancies(any())).thenThrow(new RuntimeException("API down"));
+        
+        RegionHarvestCycle.Report report = new RegionHarvestCycle(userRepository, vacancyApiClient,
+                userVacancyRepository, null).check();
+        
+        assertThat(report.failedRegions()).isEqualTo(1);
+        verify(userVacancyRepository, never()).saveAll(any());
+    }
+    
+    private BotUser createUser(Long userId, Integer regionCode, String keyword) {
+        SearchCriteria criteria = new SearchCriteria();
+        criteria.setRegionCode(regionCode);
+        criteria.setKeyword(keyword);
+        BotUser user = new BotUser(userId, userId);
+        user.setSearchCriteria(criteria);
+        return user;
+    }
+    
+    private Vacancy createVacancy(String id, String title) {
+        Vacancy vacancy = new Vacancy();
+        vacancy.setId(id);
+        vacancy.setTitle(title);
+        return vacancy;
+    }
+}
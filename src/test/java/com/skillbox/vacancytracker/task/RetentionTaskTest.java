@@ -0,0 +1,138 @@
+package com.skillbox.vacancytracker.task;
+
+import com.skillbox.vacancytracker.config.RetentionConfig;
+import com.skillbox.vacancytracker.model.UserVacancy;
+import com.skillbox.vacancytracker.model.Vacancy;
+import com.skillbox.vacancytracker.repository.JsonUserVacancyRepository;
+import com.skillbox.vacancytracker.repository.TieredUserVacancyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetentionTaskTest {
+    
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+    
+    @TempDir
+    Path tempDir;
+    
+    private JsonUserVacancyRepository repository;
+    
+    @BeforeEach
+    void setUp() {
+        repository = new JsonUserVacancyRepository(tempDir.toString());
+    }
+    
+    @Test
+    void shouldDropNotifiedRecordsOlderThanMaxAge() {
+        repository.saveAll(List.of(
+                notified(1L, "old", 40),
+                notified(1L, "recent", 5),
+                fresh(1L, "unseen", 90)));
+        
+        RetentionTask.Report report = new RetentionTask(repository, new RetentionConfig(null, 30, null)).purge(NOW);
+        
+        assertThat(report.removedRecords()).isEqualTo(1);
+        assertThat(report.reclaimedBytes()).isPositive();
+        assertThat(repository.findByUserId(1L)).extracting(UserVacancy::getVacancyId)
+                .containsExactlyInAnyOrder("recent", "unseen");
+    }
+    
+    @Test
+    void shouldKeepNewestRecordsPerUser() {
+        repository.saveAll(List.of(
+                notified(1L, "a", 3),
+                notified(1L, "b", 2),
+                notified(1L, "c", 1),
+                fresh(1L, "d", 10),
+                notified(2L, "e", 100)));
+        
+        RetentionTask.Report report = new RetentionTask(repository, new RetentionConfig(null, null, 2)).purge(NOW);
+        
+        assertThat(report.removedRecords()).isEqualTo(2);
+        assertThat(repository.findByUserId(1L)).extracting(UserVacancy::getVacancyId)
+                .containsExactlyInAnyOrder("c", "d");
+        assertThat(repository.findByUserId(2L)).hasSize(1);
+    }
+    
+    @Test
+    void shouldCapPerUserAcrossHotTierAndArchivedMonths() {
+        TieredUserVacancyRepository tiered = new TieredUserVacancyRepository(repository, tempDir.toString());
+        tiered.saveAll(List.of(
+                notified(1L, "april", 60),
+                notified(1L, "may", 20),
+                notified(1L, "hot", 1)));
+        tiered.moveToCold(NOW.minusDays(10), userVacancy -> true);
+        
+        RetentionTask.Report report = new RetentionTask(tiered, new RetentionConfig(null, null, 2)).purge(NOW);
+        
+        assertThat(report.removedRecords()).isEqualTo(1);
+        assertThat(tiered.findByUserId(1L)).extracting(UserVacancy::getVacancyId)
+                .containsExactlyInAnyOrder("may", "hot");
+    }
+    
+    // File mode: the cursor's read lock must be released before each batch is deleted
+    @Test
+    void shouldPurgeInSeveralBatchesAndStillApplyCap() {
+        List<UserVacancy> records = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            records.add(notified(1L, "old-" + i, 40));
+        }
+        for (int i = 0; i < 5; i++) {
+            records.add(notified(2L, "recent-" + i, i + 1));
+        }
+        repository.saveAll(records);
+        
+        RetentionTask.Report report = new RetentionTask(repository, new RetentionConfig(null, 30, 3)).purge(NOW);
+        
+        assertThat(report.removedRecords()).isEqualTo(2502);
+        assertThat(repository.findByUserId(1L)).isEmpty();
+        assertThat(repository.findByUserId(2L)).extracting(UserVacancy::getVacancyId)
+                .containsExactlyInAnyOrder("recent-0", "recent-1", "recent-2");
+    }
+    
+    @Test
+    void shouldSkipRecordsWithoutUser() {
+        repository.saveAll(List.of(
+                notified(null, "orphan", 400),
+                notified(1L, "old", 400)));
+        
+        RetentionTask.Report report = new RetentionTask(repository, new RetentionConfig(null, 30, null)).purge(NOW);
+        
+        assertThat(report.removedRecords()).isEqualTo(1);
+        assertThat(repository.findAll()).extracting(UserVacancy::getVacancyId).containsExactly("orphan");
+    }
+    
+    @Test
+    void shouldDoNothingWhenDisabled() {
+        repository.save(notified(1L, "old", 400));
+        
+        RetentionTask.Report report = new RetentionTask(repository, RetentionConfig.disabled()).purge(NOW);
+        
+        assertThat(report.removedRecords()).isZero();
+        assertThat(repository.findAll()).hasSize(1);
+    }
+    
+    private UserVacancy notified(Long userId, String vacancyId, int daysAgo) {
+        UserVacancy userVacancy = fresh(userId, vacancyId, daysAgo);
+        userVacancy.setNew(false);
+        userVacancy.setNotifiedAt(NOW.minusDays(daysAgo));
+        return userVacancy;
+    }
+    
+    private UserVacancy fresh(Long userId, String vacancyId, int daysAgo) {
+        Vacancy vacancy = new Vacancy();
+        vacancy.setId(vacancyId);
+        vacancy.setTitle("Vacancy " + vacancyId);
+        UserVacancy userVacancy = new UserVacancy(userId, vacancy);
+        userVacancy.setFoundAt(NOW.minusDays(daysAgo));
+        return userVacancy;
+    }
+}
\ No newline at end of file
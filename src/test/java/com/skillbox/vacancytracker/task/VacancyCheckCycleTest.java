@@ -0,0 +1,176 @@
+package com.skillbox.vacancytracker.task;
+
+import com.skillbox.vacancytracker.model.BotUser;
+import com.skillbox.vacancytracker.model.SearchCriteria;
+import com.skillbox.vacancytracker.model.UserVacancy;
+import com.skillbox.vacancytracker.model.Vacancy;
+import com.skillbox.vacancytracker.repository.QueryWatermarkStore;
+import com.skillbox.vacancytracker.repository.UserRepository;
+import com.skillbox.vacancytracker.repository.UserVacancyRepository;
+import com.skillbox.vacancytracker.service.VacancyApiClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VacancyCheckCycleTest {
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    @Mock
+    private VacancyApiClient vacancyApiClient;
+    
+    @Mock
+    private UserVacancyRepository userVacancyRepository;
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void shouldGroupUsersByApiVisibleCriteria() {
+        BotUser first = createUser(1L, 77, "Java ", 100_000);
+        BotUser second = createUser(2L, 77, "java", null);
+        BotUser otherRegion = createUser(3L, 50, "java", null);
+        BotUser inactive = createUser(4L, 77, "java", null);
+        inactive.setActive(false);
+        
+        Map<SearchCriteria, List<BotUser>> plan = VacancyCheckCycle.plan(Stream.of(first, second, otherRegion, inactive));
+        
+        assertThat(plan).hasSize(2);
+        assertThat(plan.get(VacancyCheckCycle.apiQueryOf(second.getSearchCriteria()))).containsExactly(first, second);
+        assertThat(plan.keySet()).allMatch(query -> query.getMinimumSalary() == null);
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldQueryOncePerGroupAndFilterSalaryPerUser() {
+        BotUser demanding = createUser(1L, 77, null, 100_000);
+        BotUser modest = createUser(2L, 77, null, 40_000);
+        when(userRepository.stream()).thenReturn(Stream.of(demanding, modest));
+        when(userVacancyRepository.findByUserId(any())).thenReturn(List.of());
+        when(vacancyApiClient.searchVacanciesAsync(any())).thenCallRealMethod();
+        when(vacancyApiClient.searchVacancies(any(SearchCriteria.class)))
+                .thenReturn(List.of(createVacancy("low", 50_000), createVacancy("high", 150_000)));
+        
+        VacancyCheckCycle.Report report = new VacancyCheckCycle(userRepository, vacancyApiClient,
+                userVacancyRepository, null).check();
+        
+        verify(vacancyApiClient, times(1)).searchVacancies(any(SearchCriteria.class));
+        assertThat(report.queries()).isEqualTo(1);
+        assertThat(report.users()).isEqualTo(2);
+        assertThat(report.newVacancies()).isEqualTo(3);
+        
+        ArgumentCaptor<Collection<UserVacancy>> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(userVacancyRepository, times(2)).saveAll(saved.capture());
+        assertThat(saved.getAllValues().get(0)).extracting(UserVacancy::getVacancyId).containsExactly("high");
+        assertThat(saved.getAllValues().get(1)).extracting(UserVacancy::getVacancyId).containsExactly("low", "high");
+    }
+    
+    @Test
+    void shouldCountFailedQueriesAndKeepCheckingOtherGroups() {
+        BotUser failing = createUser(1L, 77, null, null);
+        BotUser working = createUser(2L, 50, null, null);
+        when(userRepository.stream()).thenReturn(Stream.of(failing, working));
+        when(userVacancyRepository.findByUserId(any())).thenReturn(List.of());
+        when(vacancyApiClient.searchVacanciesAsync(any())).thenCallRealMethod();
+        when(vacancyApiClient.searchVacancies(any(SearchCriteria.class))).thenAnswer(invocation -> {
+            SearchCriteria query = invocation.getArgument(0);
+            if (query.getRegionCode() == 77) {
+                throw new IllegalStateException("API unavailable");
+            }
+            return List.of(createVacancy("found", null));
+        });
+        
+        VacancyCheckCycle.Report report = new VacancyCheckCycle(userRepository, vacancyApiClient,
+                userVacancyRepository, null).check();
+        
+        assertThat(report.queries()).isEqualTo(2);
+        assertThat(report.failedQueries()).isEqualTo(1);
+        assertThat(report.newVacancies()).isEqualTo(1);
+    }
+    
+    @Test
+    void shouldAskOnlyForChangesSinceLastRecordedPoll() {
+        BotUser user = createUser(1L, 77, "java", null);
+        when(userRepository.stream()).thenAnswer(invocation -> Stream.of(user));
+        when(userVacancyRepository.findByUserId(any())).thenReturn(List.of());
+        when(vacancyApiClient.searchVacanciesAsync(any())).thenCallRealMethod();
+        ArgumentCaptor<SearchCriteria> queries = ArgumentCaptor.forClass(SearchCriteria.class);
+        when(vacancyApiClient.searchVacancies(queries.capture())).thenReturn(List.of());
+        QueryWatermarkStore watermarks = new QueryWatermarkStore(tempDir.toString(), Duration.ofMinutes(10));
+        VacancyCheckCycle cycle = new VacancyCheckCycle(userRepository, vacancyApiClient, userVacancyRepository,
+                null, watermarks);
+        
+        cycle.check();
+        cycle.check();
+        
+        assertThat(queries.getAllValues()).hasSize(2);
+        assertThat(queries.getAllValues().get(0).getModifiedSince()).isNull();
+        assertThat(queries.getAllValues().get(1).getModifiedSince()).isNotNull();
+        assertThat(watermarks.modifiedSince(VacancyCheckCycle.apiQueryOf(user.getSearchCriteria())))
+                .isAfterOrEqualTo(queries.getAllValues().get(1).getModifiedSince());
+    }
+    
+    @Test
+    void shouldKeepWatermarksInUtcOnHostsEastOfUtc() {
+        TimeZone hostZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Moscow"));
+        try {
+            BotUser user = createUser(1L, 77, "java", null);
+            when(userRepository.stream()).thenAnswer(invocation -> Stream.of(user));
+            when(userVacancyRepository.findByUserId(any())).thenReturn(List.of());
+            when(vacancyApiClient.searchVacanciesAsync(any())).thenCallRealMethod();
+            ArgumentCaptor<SearchCriteria> queries = ArgumentCaptor.forClass(SearchCriteria.class);
+            when(vacancyApiClient.searchVacancies(queries.capture())).thenReturn(List.of());
+            QueryWatermarkStore watermarks = new QueryWatermarkStore(tempDir.toString(), Duration.ofMinutes(10));
+            VacancyCheckCycle cycle = new VacancyCheckCycle(userRepository, vacancyApiClient, userVacancyRepository,
+                    null, watermarks);
+            
+            cycle.check();
+            cycle.check();
+            
+            // A host-local watermark would sit three hours ahead of UTC and skip everything modified in between
+            LocalDateTime utcNow = LocalDateTime.now(ZoneOffset.UTC);
+            assertThat(queries.getAllValues().get(1).getModifiedSince())
+                    .isBefore(utcNow)
+                    .isAfter(utcNow.minusMinutes(15));
+        } finally {
+            TimeZone.setDefault(hostZone);
+        }
+    }
+    
+    private BotUser createUser(Long userId, Integer regionCode, String keyword, Integer minimumSalary) {
+        SearchCriteria criteria = new SearchCriteria();
+        criteria.setRegionCode(regionCode);
+        criteria.setKeyword(keyword);
+        criteria.setMinimumSalary(minimumSalary);
+        BotUser user = new BotUser(userId, userId);
+        user.setSearchCriteria(criteria);
+        return user;
+    }
+    
+    private Vacancy createVacancy(String id, Integer salaryFrom) {
+        Vacancy vacancy = new Vacancy();
+        vacancy.setId(id);
+        vacancy.setSalaryFrom(salaryFrom);
+        return vacancy;
+    }
+}
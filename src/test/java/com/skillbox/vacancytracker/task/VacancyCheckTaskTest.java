@@ -4,6 +4,7 @@ import com.skillbox.vacancytracker.model.BotUser;
 import com.skillbox.vacancytracker.model.SearchCriteria;
 import com.skillbox.vacancytracker.model.UserVacancy;
 import com.skillbox.vacancytracker.model.Vacancy;
+import com.skillbox.vacancytracker.repository.SeenVacancyRepository;
 import com.skillbox.vacancytracker.repository.UserVacancyRepository;
 import com.skillbox.vacancytracker.service.VacancyApiClient;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,6 +16,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -47,7 +49,7 @@ class VacancyCheckTaskTest {
         task.run();
         
         verify(vacancyApiClient, never()).searchVacancies(any());
-        verify(userVacancyRepository, never()).save(any());
+        verify(userVacancyRepository, never()).saveAll(any());
     }
     
     @Test
@@ -81,10 +83,12 @@ class VacancyCheckTaskTest {
         
         verify(vacancyApiClient).searchVacancies(criteria);
         
-        ArgumentCaptor<UserVacancy> captor = ArgumentCaptor.forClass(UserVacancy.class);
-        verify(userVacancyRepository, times(2)).save(captor.capture());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UserVacancy>> captor = ArgumentCaptor.forClass(List.class);
+        verify(userVacancyRepository, times(1)).saveAll(captor.capture());
+        verify(userVacancyRepository, never()).save(any());
         
-        List<UserVacancy> savedUserVacancies = captor.getAllValues();
+        List<UserVacancy> savedUserVacancies = captor.getValue();
         assertThat(savedUserVacancies).hasSize(2);
         
         UserVacancy first = savedUserVacancies.get(0);
@@ -119,7 +123,36 @@ class VacancyCheckTaskTest {
         
         task.run();
         
-        verify(userVacancyRepository, times(1)).save(any(UserVacancy.class));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UserVacancy>> captor = ArgumentCaptor.forClass(List.class);
+        verify(userVacancyRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(UserVacancy::getVacancyId).containsExactly("2");
+    }
+    
+    @Test
+    void shouldDeduplicateAgainstSeenVacanciesWithoutLoadingRecords() {
+        Long userId = 123L;
+        SearchCriteria criteria = new SearchCriteria();
+        criteria.setKeyword("kotlin");
+        SeenVacancyRepository seenVacancyRepository = mock(SeenVacancyRepository.class);
+        VacancyCheckTask seenAwareTask = new VacancyCheckTask(user, vacancyApiClient, userVacancyRepository,
+                seenVacancyRepository);
+        
+        when(user.isActive()).thenReturn(true);
+        when(user.getSearchCriteria()).thenReturn(criteria);
+        when(user.getUserId()).thenReturn(userId);
+        when(vacancyApiClient.searchVacancies(criteria))
+                .thenReturn(List.of(createVacancy("1", "Kotlin Developer"), createVacancy("2", "Android Developer")));
+        when(seenVacancyRepository.filterUnseen(userId, List.of("1", "2"))).thenReturn(List.of("2"));
+        
+        seenAwareTask.run();
+        
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UserVacancy>> captor = ArgumentCaptor.forClass(List.class);
+        verify(userVacancyRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(UserVacancy::getVacancyId).containsExactly("2");
+        verify(seenVacancyRepository).markSeen(userId, Set.of("2"));
+        verify(userVacancyRepository, never()).findByUserId(any());
     }
     
     @Test
@@ -134,7 +167,7 @@ class VacancyCheckTaskTest {
         
         task.run();
         
-        verify(userVacancyRepository, never()).save(any());
+        verify(userVacancyRepository, never()).saveAll(any());
     }
     
     @Test
@@ -146,7 +179,7 @@ class VacancyCheckTaskTest {
         
         task.run();
         
-        verify(userVacancyRepository, never()).save(any());
+        verify(userVacancyRepository, never()).saveAll(any());
     }
     
     @Test
@@ -163,7 +196,7 @@ class VacancyCheckTaskTest {
         
         task.run();
         
-        verify(userVacancyRepository, never()).save(any());
+        verify(userVacancyRepository, never()).saveAll(any());
     }
     
     private Vacancy createVacancy(String id, String title) {